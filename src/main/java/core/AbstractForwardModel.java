@@ -166,6 +166,58 @@ public abstract class AbstractForwardModel {
         return _computeAvailableActions(gameState);
     }
 
+    /**
+     * Chooses one of the available actions uniformly at random. This is the same as a RandomPlayer choosing from
+     * computeAvailableActions(), but games can override _randomAction() to do this without creating all the actions
+     * (which is most of the cost of a random rollout in games with many actions).
+     *
+     * @param gameState - game state to choose an action in.
+     * @param rnd       - random number generator to use.
+     * @return - the action chosen, or null if there are no actions available.
+     */
+    public final AbstractAction randomAction(AbstractGameState gameState, Random rnd) {
+        return randomAction(gameState, gameState.coreGameParameters.actionSpace, rnd);
+    }
+
+    public final AbstractAction randomAction(AbstractGameState gameState, ActionSpace actionSpace, Random rnd) {
+        // Only the default action space of the game itself has a fast path
+        if (gameState.isActionInProgress() || (actionSpace != null && !actionSpace.isDefault())) {
+            return randomFrom(computeAvailableActions(gameState, actionSpace), rnd);
+        }
+        return _randomAction(gameState, rnd);
+    }
+
+    /**
+     * Chooses an action uniformly at random from those _computeAvailableActions() would return.
+     * This version just creates them all; override it where there is a faster way, for example by counting the
+     * actions and then creating only the one chosen.
+     *
+     * @return - the action chosen, or null if there are none.
+     */
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        return randomFrom(_computeAvailableActions(gameState), rnd);
+    }
+
+    /**
+     * @return - a random index into nActions actions, or -1 if there are none. As RandomPlayer, rnd is not used if
+     * there is only one action.
+     */
+    protected static int randomIndex(int nActions, Random rnd) {
+        switch (nActions) {
+            case 0:
+                return -1;
+            case 1:
+                return 0;
+            default:
+                return rnd.nextInt(nActions);
+        }
+    }
+
+    private static AbstractAction randomFrom(List<AbstractAction> actions, Random rnd) {
+        int index = randomIndex(actions.size(), rnd);
+        return index < 0 ? null : actions.get(index);
+    }
+
     /**
      * Performs any end of game computations, as needed.
      * This should not normally need to be overriden - but can be. For example if a game is purely co-operative
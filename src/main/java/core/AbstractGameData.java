@@ -4,13 +4,16 @@ import core.components.*;
 import core.components.Component;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.lang.reflect.InvocationTargetException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AbstractGameData {
 
+    // Data already loaded, by class and data path. These are shared by all games (on any thread), so must not
+    // be changed after loading; the find methods only hand out copies.
+    private static final Map<String, AbstractGameData> cache = new ConcurrentHashMap<>();
+
     private List<GraphBoard> graphBoards = new ArrayList<>();
     private List<GridBoard> gridBoards = new ArrayList<>();
     private List<Deck<Card>> decks = new ArrayList<>();
@@ -36,6 +39,32 @@ public class AbstractGameData {
         }
     }
 
+    /**
+     * Returns the data in the given directory, which is only read from disk the first time it is asked for.
+     * This is the same object each time, so it should only be read from (using the find methods, which
+     * return copies), and not loaded again.
+     * @param dataPath - directory with the data files
+     */
+    public static AbstractGameData loadCached(String dataPath) {
+        return loadCached(dataPath, AbstractGameData.class);
+    }
+
+    /**
+     * As loadCached(dataPath), for a game that has its own subclass of AbstractGameData.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends AbstractGameData> T loadCached(String dataPath, Class<T> dataClass) {
+        return (T) cache.computeIfAbsent(dataClass.getName() + ":" + dataPath, k -> {
+            try {
+                T data = dataClass.getConstructor().newInstance();
+                data.load(dataPath);
+                return data;
+            } catch (NoSuchMethodException | InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new AssertionError("Could not create " + dataClass.getName() + " : " + e.getMessage());
+            }
+        });
+    }
+
     public GridBoard findGridBoard(String name) {
         for (GridBoard<?> c : gridBoards) {
             if (name.equalsIgnoreCase(c.getComponentName())) {
@@ -13,6 +13,7 @@ import evaluation.listeners.IGameListener;
 import evaluation.metrics.Event;
 import games.GameType;
 import utilities.ElapsedCpuChessTimer;
+import utilities.Zobrist;
 
 import java.util.*;
 import java.util.function.BiFunction;
@@ -39,9 +40,15 @@ public abstract class AbstractGameState {
     // Game being played
     protected final GameType gameType = _getGameType();
     private Area allComponents;
+    // Index for getComponentById(). This is only built on the first look-up after a copy, as most copies (in
+    // particular those made during search) never need it
+    private ComponentIndex componentIndex;
 
     // Game tick, number of iterations of game loop
     private int tick = 0;
+    // Number of times this state has been reset; with the game id and tick this identifies a position in a game,
+    // as the same object can be set up again (with the same game id) for another game
+    private int resetCount = 0;
 
     // Migrated from TurnOrder...may move later
     protected int roundCounter, turnCounter, turnOwner, firstPlayer;
@@ -55,6 +62,22 @@ public abstract class AbstractGameState {
     // A record of all actions taken to reach this game state
     private List<AbstractAction> history = new ArrayList<>();
     private List<String> historyText = new ArrayList<>();
+    // In a search copy (see copyForSearch()) history is a read-only snapshot shared by all copies, and any later
+    // actions are held in searchHistory (which copies also share). No history text is recorded.
+    private boolean searchCopy;
+    private SearchHistory searchHistory;
+
+    private static final class SearchHistory {
+        final AbstractAction action;
+        final SearchHistory previous;
+        final int size;
+
+        SearchHistory(AbstractAction action, SearchHistory previous) {
+            this.action = action;
+            this.previous = previous;
+            this.size = previous == null ? 1 : previous.size + 1;
+        }
+    }
 
     // Status of the game, and status for each player (in cooperative games, the game status is also each player's status)
     protected CoreConstants.GameResult gameStatus;
@@ -84,13 +107,17 @@ public abstract class AbstractGameState {
      */
     void reset() {
         allComponents = new Area(-1, "All Components");
+        componentIndex = null;
         gameStatus = GAME_ONGOING;
         playerResults = new CoreConstants.GameResult[getNPlayers()];
         Arrays.fill(playerResults, GAME_ONGOING);
         history = new ArrayList<>();
         historyText = new ArrayList<>();
+        searchCopy = false;
+        searchHistory = null;
         playerTimer = new ElapsedCpuChessTimer[getNPlayers()];
         tick = 0;
+        resetCount++;
         turnOwner = 0;
         turnCounter = 0;
         roundCounter = 0;
@@ -155,10 +182,26 @@ public abstract class AbstractGameState {
     /**
      * @return All actions that have been executed on this state since reset()/initialisation
      */
-    public List<AbstractAction> getHistory() { return new ArrayList<>(history);}
+    public List<AbstractAction> getHistory() {
+        if (searchHistory == null)
+            return new ArrayList<>(history);
+        AbstractAction[] recent = new AbstractAction[searchHistory.size];
+        for (SearchHistory h = searchHistory; h != null; h = h.previous)
+            recent[h.size - 1] = h.action;
+        List<AbstractAction> retValue = new ArrayList<>(history.size() + recent.length);
+        retValue.addAll(history);
+        retValue.addAll(Arrays.asList(recent));
+        return retValue;
+    }
+    /**
+     * @return The text log of the game. This is always empty for a search copy (see copyForSearch())
+     */
     public List<String> getHistoryAsText() {
         return new ArrayList<>(historyText);
     }
+    public boolean isSearchCopy() {
+        return searchCopy;
+    }
     public int getGameID() {
         return gameID;
     }
@@ -216,12 +259,17 @@ public abstract class AbstractGameState {
         return playerResults[player] == GAME_ONGOING && gameStatus == GAME_ONGOING;
     }
     public final int getGameTick() {return tick;}
+    public final int getResetCount() {return resetCount;}
     public final Component getComponentById(int id) {
-        Component c = allComponents.getComponent(id);
+        if (componentIndex == null) {
+            componentIndex = new ComponentIndex();
+            componentIndex.rebuild(_getAllComponents());
+        }
+        Component c = componentIndex.get(id);
         if (c == null) {
             try {
-                addAllComponents();
-                c = allComponents.getComponent(id);
+                componentIndex.rebuild(_getAllComponents());
+                c = componentIndex.get(id);
             } catch (Exception ignored) {
             }  // Can crash from concurrent modifications if running with GUI TODO: this is an ugly fix
         }
@@ -247,10 +295,12 @@ public abstract class AbstractGameState {
 
     /**
      * Adds all components given by the game to the allComponents map in the correct way, first clearing the map.
+     * The index used by getComponentById() is also rebuilt (on the next look-up).
      */
     protected final void addAllComponents() {
         allComponents.clear();
         allComponents.putComponents(_getAllComponents());
+        componentIndex = null;
     }
 
     /**
@@ -272,6 +322,32 @@ public abstract class AbstractGameState {
      * @return - reduced copy of the game state.
      */
     public final AbstractGameState copy(int playerId) {
+        return copy(playerId, searchCopy);
+    }
+
+    /**
+     * Copies the game state for use in an agent's internal search (as copy() does). The difference is that the copy
+     * (and any copy made from it) does not record history text, and shares its history with other copies rather
+     * than copying it. getHistory() still returns all actions taken to reach the state.
+     * This avoids string formatting on every forward model call, and O(history) work on every copy.
+     *
+     * @return - full copy of this game state, in search mode
+     */
+    public final AbstractGameState copyForSearch() {
+        return copy(-1, true);
+    }
+
+    /**
+     * As copy(playerId), but the copy is in search mode (see copyForSearch())
+     *
+     * @param playerId - player observing the state
+     * @return - reduced copy of the game state, in search mode
+     */
+    public final AbstractGameState copyForSearch(int playerId) {
+        return copy(playerId, true);
+    }
+
+    private AbstractGameState copy(int playerId, boolean forSearch) {
         AbstractGameState s = _copy(playerId);
         // Copy super class things
         s.allComponents = allComponents.emptyCopy();
@@ -280,15 +356,28 @@ public abstract class AbstractGameState {
         s.gamePhase = gamePhase;
         s.coreGameParameters = coreGameParameters;
         s.tick = tick;
+        s.resetCount = resetCount;
         s.nPlayers = nPlayers;
         s.roundCounter = roundCounter;
         s.turnCounter = turnCounter;
         s.turnOwner = turnOwner;
         s.firstPlayer = firstPlayer;
+        s.gameID = gameID;
 
+        s.searchCopy = forSearch;
+        if (forSearch)
+            s.historyText = Collections.emptyList();
         if (!coreGameParameters.competitionMode) {
-            s.history = new ArrayList<>(history);
-            s.historyText = new ArrayList<>(historyText);
+            if (searchCopy) {
+                // the history of a search copy is never modified, so can be shared
+                s.history = history;
+                s.searchHistory = searchHistory;
+            } else if (forSearch) {
+                s.history = Collections.unmodifiableList(new ArrayList<>(history));
+            } else {
+                s.history = new ArrayList<>(history);
+                s.historyText = new ArrayList<>(historyText);
+            }
             // we do not copy individual actions in history, as these are now dead and should not change
             // History is for debugging and spectation of games. There is a risk that History might contain information
             // formally hidden to some participants. For this reason, in COMPETITION_MODE we explicitly do not copy
@@ -307,8 +396,7 @@ public abstract class AbstractGameState {
             s.playerTimer[i] = playerTimer[i].copy();
         }
 
-        // Update the list of components for ID matching in actions.
-        s.addAllComponents();
+        // The components for ID matching in actions are only indexed when first needed (see getComponentById())
         return s;
     }
 
@@ -318,6 +406,10 @@ public abstract class AbstractGameState {
      * @param action The action that has just been applied (or is about to be applied) to the game state
      */
     protected final void recordAction(AbstractAction action, int player) {
+        if (searchCopy) {
+            searchHistory = new SearchHistory(action, searchHistory);
+            return;
+        }
         history.add(action);
         historyText.add("Player " + player + " : " + action.getString(this));
     }
@@ -346,7 +438,8 @@ public abstract class AbstractGameState {
     }
 
     public void recordHistory(String history) {
-        historyText.add(history);
+        if (!searchCopy)
+            historyText.add(history);
     }
 
     /* Methods dealing with ExtendedActions and the actionStack */
@@ -610,6 +703,56 @@ public abstract class AbstractGameState {
         // included in the _equals() method implemented there
     }
 
+    // Zobrist feature used for the parts of getStateHash() that AbstractGameState is responsible for
+    private static final long STATE_HASH_CORE = -1L;
+
+    /**
+     * A 64-bit hash of the game state, for transposition tables and duplicate state detection. Unlike hashCode()
+     * this is meant to be cheap enough to call after every action: games that support it keep a Zobrist hash up to
+     * date as actions are applied (see _getStateHash()).
+     * It covers whose turn it is, the game phase and status, the player results, any actions in progress and the
+     * game-specific state; but not the turn, round and tick counters - so that the same position reached by a
+     * different order of moves has the same hash.
+     * Equal states have equal hashes; different states have different hashes with high probability.
+     *
+     * @return - long, hash of the current state.
+     */
+    public final long getStateHash() {
+        long hash = _getStateHash();
+        hash ^= Zobrist.key(STATE_HASH_CORE, 0, turnOwner);
+        hash ^= Zobrist.key(STATE_HASH_CORE, 1, gameStatus == null ? -1 : gameStatus.ordinal());
+        hash ^= Zobrist.key(STATE_HASH_CORE, 2, gamePhase instanceof Enum ? ((Enum<?>) gamePhase).ordinal() : Objects.hashCode(gamePhase));
+        if (playerResults != null) {
+            for (int p = 0; p < playerResults.length; p++)
+                hash ^= Zobrist.key(STATE_HASH_CORE, 3 + p, playerResults[p] == null ? -1 : playerResults[p].ordinal());
+        }
+        if (!actionsInProgress.isEmpty())
+            hash ^= Zobrist.key(STATE_HASH_CORE, -1, actionsInProgress.hashCode());
+        return hash;
+    }
+
+    /**
+     * The game-specific part of getStateHash(). By default this is just hashCode(), which walks the whole state;
+     * games should override this to return a hash that is kept up to date as actions are applied, usually the XOR
+     * of Component.getStateHash() for their components and any hash they maintain of other state.
+     *
+     * @return - long, hash of the game-specific state.
+     */
+    protected long _getStateHash() {
+        return hashCode();
+    }
+
+    /**
+     * Games that override _getStateHash() should also override this to return true. Without it getStateHash() is
+     * built on the 32-bit hashCode(), and different states share a hash too often for it to be used as a key on its
+     * own (as in a transposition table).
+     *
+     * @return - true if getStateHash() is a full 64-bit hash of the state.
+     */
+    public boolean hasStateHash() {
+        return false;
+    }
+
     /**
      * Override the hashCode as needed for individual game states
      * (It is OK for two java objects to be not equal and have the same hashcode)
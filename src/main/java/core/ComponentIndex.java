@@ -0,0 +1,91 @@
+package core;
+
+import core.components.Component;
+import core.interfaces.IComponentContainer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Map from component ID to Component, used by AbstractGameState.getComponentById().
+ * This uses open addressing (linear probing) on primitive int keys, so that neither building nor querying it
+ * boxes the IDs or allocates entry objects.
+ */
+final class ComponentIndex {
+
+    private int[] keys = new int[64];
+    private Component[] values = new Component[64];  // a null value marks an empty slot
+    private int size;
+
+    /**
+     * Clears the index, and then adds all the components (and recursively their contents if they are containers),
+     * in the same way as Area.putComponents(). If two components have the same ID the later one is kept.
+     */
+    void rebuild(List<Component> components) {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+        for (Component c : components)
+            if (c != null) add(c);
+    }
+
+    private void add(Component component) {
+        put(component.getComponentID(), component);
+        if (component instanceof IComponentContainer) {
+            // stream() rather than getComponents(), as the latter makes a Deck take its own copy of a shared list
+            ((IComponentContainer<?>) component).stream().forEach(nested -> {
+                if (nested != null)
+                    add(nested);
+            });
+        }
+    }
+
+    Component get(int id) {
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == id)
+                return values[slot];
+        }
+        return null;
+    }
+
+    private void put(int id, Component component) {
+        if (2 * (size + 1) > keys.length)
+            resize(keys.length * 2);
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == id) {
+                values[slot] = component;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = component;
+        size++;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Component[] oldValues = values;
+        keys = new int[capacity];
+        values = new Component[capacity];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null)
+                put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private static int hash(int id) {
+        // IDs are mostly sequential, so we spread them over the table
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
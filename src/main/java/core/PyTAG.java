@@ -25,6 +25,7 @@ import games.explodingkittens.*;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -192,11 +193,29 @@ public class PyTAG {
 
     }
 
-    // Gets the action mask as a boolean array
+    // Gets the action mask as a boolean array (a copy, which the caller is free to keep or change)
     public int[] getActionMask() {
-        return leaves.stream()
-                .mapToInt(ActionTreeNode::getValue)
-                .toArray();
+        return root.getLeafMask().clone();
+    }
+
+    // Gets the action mask without copying it
+    // This is the array kept up to date by the action tree, so it changes with the state and must not be modified
+    public int[] getActionMaskView() {
+        return root.getLeafMask();
+    }
+
+    // Writes the action mask into buffer (one byte per action), starting at offset
+    void writeActionMask(ByteBuffer buffer, int offset) {
+        int[] mask = root.getLeafMask();
+        for (int i = 0; i < mask.length; i++)
+            buffer.put(offset + i, (byte) mask[i]);
+    }
+
+    // Gets the observation vector of a state that is already the current player's observation (as from step())
+    double[] getObservationVector(AbstractGameState observation) {
+        if (stateVectoriser == null)
+            throw new AssertionError("Observation vectoriser function is not implemented");
+        return stateVectoriser.featureVector(observation, observation.getCurrentPlayer());
     }
 
     // gets the whole action tree as an array (tree can be reconstructed using the getTreeShape() function)
@@ -261,6 +280,10 @@ public class PyTAG {
         return gameState.getGameScore(gameState.getCurrentPlayer());
     }
 
+    double getReward(int playerID){
+        return gameState.getGameScore(playerID);
+    }
+
     public List<AbstractAction> getActions(){
         return availableActions;
     }
@@ -407,7 +430,7 @@ public class PyTAG {
                 if (usePyTAG){
 
                     // get action mask and sample random action
-                    int randomAction = env.sampleRNDAction(env.getActionMask(), rnd);
+                    int randomAction = env.sampleRNDAction(env.getActionMaskView(), rnd);
 
                     // get observation vector
                     if (obsType.equals("vector")){
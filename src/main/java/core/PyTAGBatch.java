@@ -0,0 +1,191 @@
+package core;
+
+import games.GameType;
+import utilities.ThreadPools;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+/**
+ * Runs a batch of PyTAG environments of the same game, so that one call steps all of them.
+ * The observations, action masks, rewards and dones of every environment are written into direct ByteBuffers (in
+ * native byte order) that are allocated once, so they can be read without any copying (for example as numpy arrays
+ * over the same memory):
+ * - observations: nEnvs * getObservationSpace() doubles
+ * - action masks: nEnvs * getActionSpace() bytes, 1 where the action is available
+ * - rewards: nEnvs doubles, the score of the player that acted
+ * - dones: nEnvs bytes, 1 if that step ended the game
+ * When a step ends the game of an environment, that environment is reset straight away, so the observation and
+ * mask are those of the first decision of the next game.
+ * <p>
+ * With more than one thread the environments are split between worker threads, and stepped in parallel.
+ */
+public class PyTAGBatch {
+
+    private final PyTAG[] envs;
+    private final int observationSpace;
+    private int actionSpace;
+    private final ByteBuffer observations;
+    private final DoubleBuffer observationValues;
+    private ByteBuffer masks;
+    private final ByteBuffer rewards;
+    private final DoubleBuffer rewardValues;
+    private final ByteBuffer dones;
+    private final int nThreads;
+    private ExecutorService stepPool;
+
+    /**
+     * @param players the players for one environment; each other environment uses copies of them
+     * @param nEnvs   the number of environments
+     * @param seed    used to create the seed of each environment
+     * @param nThreads the number of threads to step the environments with
+     */
+    public PyTAGBatch(GameType gameToPlay, String parameterConfigFile, List<AbstractPlayer> players, int nEnvs,
+                      long seed, boolean isNormalized, int nThreads) throws Exception {
+        if (nEnvs < 1)
+            throw new IllegalArgumentException("Need at least one environment : " + nEnvs);
+        Random seedRandom = new Random(seed);
+        envs = new PyTAG[nEnvs];
+        for (int i = 0; i < nEnvs; i++) {
+            List<AbstractPlayer> envPlayers = players;
+            if (i > 0) {
+                envPlayers = new ArrayList<>();
+                for (AbstractPlayer player : players)
+                    envPlayers.add(player.copy());
+            }
+            envs[i] = new PyTAG(gameToPlay, parameterConfigFile, envPlayers, seedRandom.nextLong(), isNormalized);
+        }
+        observationSpace = envs[0].getObservationSpace();
+        observations = ByteBuffer.allocateDirect(nEnvs * observationSpace * Double.BYTES).order(ByteOrder.nativeOrder());
+        observationValues = observations.asDoubleBuffer();
+        rewards = ByteBuffer.allocateDirect(nEnvs * Double.BYTES).order(ByteOrder.nativeOrder());
+        rewardValues = rewards.asDoubleBuffer();
+        dones = ByteBuffer.allocateDirect(nEnvs);
+        masks = ByteBuffer.allocateDirect(0);
+        this.nThreads = Math.max(1, Math.min(nThreads, nEnvs));
+    }
+
+    /**
+     * Resets all the environments, and writes their first observations and masks
+     */
+    public void reset() throws Exception {
+        for (int i = 0; i < envs.length; i++) {
+            envs[i].reset();
+            if (i == 0 && actionSpace != envs[0].getActionSpace()) {
+                actionSpace = envs[0].getActionSpace();
+                masks = ByteBuffer.allocateDirect(envs.length * actionSpace);
+            }
+            if (envs[i].getActionSpace() != actionSpace)
+                throw new AssertionError("Environments have different action spaces : " + actionSpace + " and " + envs[i].getActionSpace());
+            writeObservation(i, null);
+            rewardValues.put(i, 0.0);
+            dones.put(i, (byte) 0);
+        }
+    }
+
+    /**
+     * Plays actions[i] in environment i, for all the environments, and writes the results into the buffers.
+     */
+    public void step(int[] actions) throws Exception {
+        if (actions.length != envs.length)
+            throw new IllegalArgumentException("Need one action per environment : " + actions.length + " for " + envs.length);
+        if (nThreads == 1) {
+            step(actions, 0, envs.length);
+            return;
+        }
+        if (stepPool == null) {
+            stepPool = ThreadPools.newDaemonPool(nThreads, "PyTAGBatch");
+        }
+        List<Future<Void>> results = new ArrayList<>();
+        for (int t = 0; t < nThreads; t++) {
+            int from = t * envs.length / nThreads;
+            int to = (t + 1) * envs.length / nThreads;
+            results.add(stepPool.submit(() -> {
+                step(actions, from, to);
+                return null;
+            }));
+        }
+        for (Future<Void> result : results)
+            ThreadPools.get(result, "environment steps");
+    }
+
+    private void step(int[] actions, int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            PyTAG env = envs[i];
+            int player = env.getPlayerID();
+            AbstractGameState observation = env.step(actions[i]);
+            rewardValues.put(i, env.getReward(player));
+            if (env.isDone()) {
+                dones.put(i, (byte) 1);
+                env.reset();
+                observation = null;
+            } else {
+                dones.put(i, (byte) 0);
+            }
+            writeObservation(i, observation);
+        }
+    }
+
+    // the observation from step() is already the current player's copy, so is used if we have it
+    private void writeObservation(int env, AbstractGameState observation) throws Exception {
+        if (observationSpace > 0) {
+            double[] vector = observation == null ? envs[env].getObservationVector() : envs[env].getObservationVector(observation);
+            int offset = env * observationSpace;
+            for (int j = 0; j < observationSpace; j++)
+                observationValues.put(offset + j, vector[j]);
+        }
+        envs[env].writeActionMask(masks, env * actionSpace);
+    }
+
+    public int getNumEnvs() {
+        return envs.length;
+    }
+
+    public PyTAG getEnv(int env) {
+        return envs[env];
+    }
+
+    public int getObservationSpace() {
+        return observationSpace;
+    }
+
+    // This is only known after reset()
+    public int getActionSpace() {
+        return actionSpace;
+    }
+
+    public int getPlayerID(int env) {
+        return envs[env].getPlayerID();
+    }
+
+    public ByteBuffer getObservations() {
+        return observations;
+    }
+
+    public ByteBuffer getActionMasks() {
+        return masks;
+    }
+
+    public ByteBuffer getRewards() {
+        return rewards;
+    }
+
+    public ByteBuffer getDones() {
+        return dones;
+    }
+
+    /**
+     * Stops the worker threads (if any)
+     */
+    public void close() {
+        if (stepPool != null) {
+            stepPool.shutdown();
+            stepPool = null;
+        }
+    }
+}
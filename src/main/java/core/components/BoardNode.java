@@ -7,6 +7,8 @@ import org.json.simple.JSONObject;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 public class BoardNode extends Component {
 
@@ -17,8 +19,8 @@ public class BoardNode extends Component {
     public BoardNode(int maxNeighbours, String name) {
         super(CoreConstants.ComponentType.BOARD_NODE, name);
         this.maxNeighbours = maxNeighbours;
-        this.neighbours = new HashSet<>();
-        this.neighbourSideMapping = new HashMap<>();
+        this.neighbours = new LinkedHashSet<>();
+        this.neighbourSideMapping = new LinkedHashMap<>();
     }
 
     public BoardNode() {
@@ -28,8 +30,8 @@ public class BoardNode extends Component {
     protected BoardNode(int maxNeighbours, String name, int ID) {
         super(CoreConstants.ComponentType.BOARD_NODE, name, ID);
         this.maxNeighbours = maxNeighbours;
-        this.neighbours = new HashSet<>();
-        this.neighbourSideMapping = new HashMap<>();
+        this.neighbours = new LinkedHashSet<>();
+        this.neighbourSideMapping = new LinkedHashMap<>();
     }
 
     /**
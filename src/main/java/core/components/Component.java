@@ -6,9 +6,11 @@ import org.json.simple.JSONObject;
 import core.CoreConstants.ComponentType;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class Component {
-    private static int ID = 0;  // All components receive a unique and final ID from this always increasing counter
+    private static final AtomicInteger ID = new AtomicInteger();  // All components receive a unique and final ID from this always increasing counter
+    // (atomic, as components may be created concurrently by parallel searches or games)
 
     protected transient final int componentID;  // Unique ID of this component
     protected final ComponentType type;  // Type of this component
@@ -17,14 +19,14 @@ public abstract class Component {
     protected String componentName;  // Name of this component
 
     public Component(ComponentType type, String name) {
-        this.componentID = ID++;
+        this.componentID = ID.getAndIncrement();
         this.type = type;
         this.componentName = name;
         this.properties = new HashMap<>();
     }
 
     public Component(ComponentType type) {
-        this.componentID = ID++;
+        this.componentID = ID.getAndIncrement();
         this.type = type;
         this.componentName = type.toString();
         this.properties = new HashMap<>();
@@ -51,6 +53,24 @@ public abstract class Component {
     public abstract Component copy();
     public Component copy(int playerId) { return copy(); }
 
+    /**
+     * Immutable components return themselves from copy(), so one instance is shared by every copy of a game state.
+     * Decks do not set the owner of these, as that would change it in all of those states.
+     * @return - true if copy() returns this component.
+     */
+    public boolean isImmutable() {
+        return false;
+    }
+
+    /**
+     * A 64-bit hash of the state of this component, used by AbstractGameState.getStateHash().
+     * By default this is hashCode(); components that can keep a better hash cheaply should override this.
+     * @return - long, hash of this component's state.
+     */
+    public long getStateHash() {
+        return hashCode();
+    }
+
     /**
      * Get and set the type of this component.
      */
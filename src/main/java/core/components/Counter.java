@@ -5,6 +5,7 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -224,6 +225,11 @@ public class Counter extends Component {
         return valueIdx == counter.valueIdx && minimum == counter.minimum && maximum == counter.maximum && Arrays.equals(values, counter.values);
     }
 
+    @Override
+    public long getStateHash() {
+        return Zobrist.key(componentID, valueIdx);
+    }
+
     @Override
     public int hashCode() {
         int result = Objects.hash(super.hashCode(), valueIdx, minimum, maximum);
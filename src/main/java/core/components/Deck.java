@@ -6,10 +6,13 @@ import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import static core.CoreConstants.VisibilityMode;
 
@@ -26,6 +29,10 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     protected int capacity;  // Capacity of the deck (maximum number of elements)
     protected List<T> components;  // List of components in this deck
     protected VisibilityMode visibility;
+    // If all the components are immutable (copy() returns the same object) then a copy of the deck shares the
+    // components list with the original; whichever deck is changed first then takes its own copy of the list
+    // (see mutableComponents()). Anything that changes the list must go through mutableComponents().
+    private boolean componentsShared;
 
     public Deck(String name, VisibilityMode visibility) {
         this(name, -1, visibility);
@@ -118,9 +125,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public T pick(int idx) {
         if (components.size() > 0 && idx < components.size() && idx >= 0) {
-            T c = components.get(idx);
-            components.remove(idx);
-            return c;
+            return mutableComponents().remove(idx);
         }
         return null;
     }
@@ -180,9 +185,6 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if within capacity, false otherwise.
      */
     public boolean add(T c) {
-        if (c != null) {
-            c.setOwnerId(ownerId);
-        }
         return add(c, 0);
     }
 
@@ -196,8 +198,8 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     public boolean add(T c, int index) {
         if (c == null)
             throw new IllegalArgumentException("null cannot be added to a Deck");
-        c.setOwnerId(ownerId);
-        components.add(index, c);
+        setOwner(c, ownerId);
+        mutableComponents().add(index, c);
         return capacity == -1 || components.size() <= capacity;
     }
 
@@ -230,9 +232,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
-        components.addAll(index, d.components);
+        mutableComponents().addAll(index, d.components);
         for (T comp : d.components) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -242,9 +244,9 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     public boolean add(Collection<T> d, int index) {
-        components.addAll(index, d);
+        mutableComponents().addAll(index, d);
         for (T comp : d) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
         return capacity == -1 || components.size() <= capacity;
     }
@@ -256,7 +258,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @return true if successfully removed, false otherwise.
      */
     public boolean remove(T component) {
-        component.setOwnerId(-1);
+        setOwner(component, -1);
         int index = components.indexOf(component);
         if (index != -1) {
             return remove(index);
@@ -272,8 +274,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public boolean remove(int idx) {
         if (idx >= 0 && idx < components.size()) {
-            components.get(idx).setOwnerId(-1);
-            components.remove(idx);
+            setOwner(mutableComponents().remove(idx), -1);
             return true;
         }
         return false;
@@ -296,9 +297,14 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      */
     public void clear() {
         for (T comp : components) {
-            comp.setOwnerId(-1);
+            setOwner(comp, -1);
+        }
+        if (componentsShared) {
+            components = new ArrayList<>();
+            componentsShared = false;
+        } else {
+            components.clear();
         }
-        components.clear();
     }
 
     // Getters, Setters
@@ -307,7 +313,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * Shuffles the deck with a specific random object.
      */
     public void shuffle(Random rnd) {
-        Collections.shuffle(components, rnd);
+        Collections.shuffle(mutableComponents(), rnd);
     }
 
     /**
@@ -318,7 +324,7 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param rnd       - random number generator used for shuffling
      */
     public void shuffle(int fromIndex, int toIndex, Random rnd) {
-        List<T> subList = components.subList(fromIndex, toIndex);
+        List<T> subList = mutableComponents().subList(fromIndex, toIndex);
         Collections.shuffle(subList, rnd);
         int i = 0;
         for (T component : subList) {
@@ -328,22 +334,71 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     /**
-     * @return all the components in this deck.
+     * @return all the components in this deck. This is the list used by the deck (so changes to it change the deck).
+     * Use stream(), get() or peek() if you only need to read the components, as these are cheaper
+     * if the list is currently shared with a copy of the deck.
      */
     @Override
     public List<T> getComponents() {
+        return mutableComponents();
+    }
+
+    @Override
+    public Stream<T> stream() {
+        return components.stream();
+    }
+
+    @Override
+    public int getSize() {
+        return components.size();
+    }
+
+    @Override
+    public double sumDouble(Function<T, Double> lambda) {
+        double retValue = 0.0;
+        for (T c : components) {
+            retValue += lambda.apply(c);
+        }
+        return retValue;
+    }
+
+    @Override
+    public int sumInt(Function<T, Integer> lambda) {
+        int retValue = 0;
+        for (T c : components) {
+            retValue += lambda.apply(c);
+        }
+        return retValue;
+    }
+
+    /**
+     * @return the list of components, first taking our own copy if it is currently shared with another deck
+     */
+    protected final List<T> mutableComponents() {
+        if (componentsShared) {
+            components = new ArrayList<>(components);
+            componentsShared = false;
+        }
         return components;
     }
 
+    /**
+     * Replaces the list of components, without changing their ownership.
+     */
+    protected final void replaceComponents(List<T> components) {
+        this.components = components;
+        componentsShared = false;
+    }
+
     /**
      * Set the components in this deck.
      *
      * @param components - new components for the deck, overrides old content.
      */
     public void setComponents(ArrayList<T> components) {
-        this.components = components;
+        replaceComponents(components);
         for (T comp : components) {
-            comp.setOwnerId(ownerId);
+            setOwner(comp, ownerId);
         }
     }
 
@@ -377,8 +432,17 @@ public class Deck<T extends Component> extends Component implements IComponentCo
      * @param component - new component.
      */
     public void setComponent(int idx, T component) {
-        component.setOwnerId(ownerId);
-        components.set(idx, component);
+        setOwner(component, ownerId);
+        mutableComponents().set(idx, component);
+    }
+
+    /**
+     * Immutable components are shared by all copies of the game state (and so by decks in other states), so they
+     * do not record which deck's owner holds them.
+     */
+    private static void setOwner(Component component, int ownerId) {
+        if (!component.isImmutable())
+            component.setOwnerId(ownerId);
     }
 
     /**
@@ -412,24 +476,31 @@ public class Deck<T extends Component> extends Component implements IComponentCo
     }
 
     protected void copyTo(Deck<T> deck) {
-        List<T> newComponents = new ArrayList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy());
-        }
-        deck.components = newComponents;
-        deck.capacity = capacity;
-
-        //copy type and component.
-        copyComponentTo(deck);
+        copyTo(deck, -1);
     }
 
 
+    @SuppressWarnings("unchecked")
     protected void copyTo(Deck<T> deck, int playerId) {
-        List<T> newComponents = new ArrayList<>();
-        for (T c : components) {
-            newComponents.add((T) c.copy(playerId));
+        // we only create a new list once we find a component that is not immutable
+        List<T> newComponents = null;
+        for (int i = 0; i < components.size(); i++) {
+            T c = components.get(i);
+            T copy = (T) (playerId == -1 ? c.copy() : c.copy(playerId));
+            if (newComponents == null && copy != c) {
+                newComponents = new ArrayList<>(components.size());
+                newComponents.addAll(components.subList(0, i));
+            }
+            if (newComponents != null)
+                newComponents.add(copy);
+        }
+        if (newComponents == null) {
+            deck.components = components;
+            deck.componentsShared = true;
+            componentsShared = true;
+        } else {
+            deck.replaceComponents(newComponents);
         }
-        deck.components = newComponents;
         deck.capacity = capacity;
 
         //copy type and component.
@@ -452,6 +523,19 @@ public class Deck<T extends Component> extends Component implements IComponentCo
         return sb.toString();
     }
 
+    /**
+     * Combines the hashes of the components in order. This is computed each time (in one pass, without allocation),
+     * as most changes to a deck move components from one position to another.
+     */
+    @Override
+    public long getStateHash() {
+        long hash = Zobrist.key(componentID, components.size());
+        for (int i = 0; i < components.size(); i++) {
+            hash = hash * 31 + components.get(i).getStateHash();
+        }
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
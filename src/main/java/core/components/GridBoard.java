@@ -10,6 +10,7 @@ import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 import utilities.Pair;
 import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.io.FileReader;
 import java.io.IOException;
@@ -25,6 +26,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
     private int height;  // Height of the board
 
     private Component[][] grid;  // 2D grid representation of this board
+    private long stateHash;  // Zobrist hash of the grid contents, kept up to date by setElement()
 
     protected GridBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -41,6 +43,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this(width, height);
         for (int y = 0; y < height; y++)
             Arrays.fill(grid[y], defaultValue);
+        this.stateHash = computeStateHash();
     }
 
     public GridBoard(Component[][] grid) {
@@ -48,6 +51,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        this.stateHash = computeStateHash();
     }
 
     protected GridBoard(Component[][] grid, int ID) {
@@ -55,6 +59,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = grid[0].length;
         this.height = grid.length;
         this.grid = grid;
+        this.stateHash = computeStateHash();
     }
 
     protected GridBoard(int width, int height, int ID) {
@@ -69,6 +74,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         this.width = orig.getWidth();
         this.height = orig.getHeight();
         this.grid = orig.grid.clone();
+        this.stateHash = orig.stateHash;
     }
 
     /**
@@ -122,6 +128,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
             if (w >= 0) System.arraycopy(this.grid[i], 0, grid[i + offsetY], offsetX, w);
         }
         this.grid = grid;
+        this.stateHash = computeStateHash();
     }
 
     /**
@@ -134,6 +141,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
      */
     public boolean setElement(int x, int y, T value) {
         if (x >= 0 && x < width && y >= 0 && y < height) {
+            stateHash ^= cellKey(x, y, grid[y][x]) ^ cellKey(x, y, value);
             grid[y][x] = value;
             return true;
         } else
@@ -231,11 +239,11 @@ public class GridBoard<T extends Component> extends Component implements ICompon
 
     @Override
     public GridBoard<T> copy() {
-        Component[][] gridCopy = new Component[getHeight()][getWidth()];
+        GridBoard<T> g = new GridBoard<>(width, height, componentID);
         for (int i = 0; i < height; i++) {
-            if (width >= 0) System.arraycopy(grid[i], 0, gridCopy[i], 0, width);
+            if (width >= 0) System.arraycopy(grid[i], 0, g.grid[i], 0, width);
         }
-        GridBoard<T> g = new GridBoard<>(gridCopy, componentID);
+        g.stateHash = stateHash;
         copyComponentTo(g);
         return g;
     }
@@ -302,6 +310,7 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         }
 
         this.grid = new Component[height][width];
+        this.stateHash = 0;
 
         JSONArray grids = (JSONArray) board.get("grid");
         int y = 0;
@@ -396,6 +405,28 @@ public class GridBoard<T extends Component> extends Component implements ICompon
         return gb;
     }
 
+    /**
+     * The XOR of one key per non-empty cell, from the cell position and the component ID of its element. This is
+     * updated by setElement(), so changes made directly to the array returned by getGridValues() are not included.
+     * Elements are identified by ID, so should not be changed while on the board (as the grid is shallow copied).
+     */
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    private long computeStateHash() {
+        long hash = 0;
+        for (int y = 0; y < height; y++)
+            for (int x = 0; x < width; x++)
+                hash ^= cellKey(x, y, grid[y][x]);
+        return hash;
+    }
+
+    private long cellKey(int x, int y, Component element) {
+        return element == null ? 0 : Zobrist.key(componentID, (long) y * width + x, element.getComponentID());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o instanceof GridBoard) {
@@ -4,10 +4,7 @@ import core.AbstractGameState;
 import core.CoreConstants.VisibilityMode;
 import utilities.Pair;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.*;
 
 public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
@@ -15,15 +12,21 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     // (true if player can see the deck, false otherwise)
     protected boolean[] deckVisibility;
 
-    // Visibility of each component in the deck, order corresponds to order of elements in the deck;
-    protected List<boolean[]> elementVisibility = new ArrayList<>();
+    // Visibility of each component in the deck, order corresponds to order of elements in the deck.
+    // Each entry is a bitset over players (bit p is set if player p can see the component), so at most 64 players
+    // are supported. Only the first components.size() entries are used.
+    protected long[] elementVisibility = NO_VISIBILITY;
+    private static final long[] NO_VISIBILITY = new long[0];
 
     public boolean getVisibilityForPlayer(int elementIdx, int playerID) {
-        return elementVisibility.get(elementIdx)[playerID];
+        return (visibilityAt(elementIdx) & (1L << playerID)) != 0;
     }
 
+    /**
+     * @return a new array with the visibility of the component for each player; changing it does not change the deck
+     */
     public boolean[] getVisibilityOfComponent(int elementIdx) {
-        return elementVisibility.get(elementIdx);
+        return fromMask(visibilityAt(elementIdx), deckVisibility.length);
     }
 
     public PartialObservableDeck(String id, boolean[] defaultVisibility) {
@@ -64,10 +67,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
 
+        long bit = 1L << playerID;
         ArrayList<T> visibleComponents = new ArrayList<>(components.size());
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerID])
+            if ((elementVisibility[i] & bit) != 0)
                 visibleComponents.add(i, components.get(i));
             else
                 visibleComponents.add(i, null);
@@ -85,7 +88,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public boolean isComponentVisible(int idx, int playerID) {
         if (playerID < 0 || playerID >= deckVisibility.length)
             throw new IllegalArgumentException("playerID " + playerID + " needs to be in range [0," + (deckVisibility.length - 1) + "]");
-        return elementVisibility.get(idx)[playerID];
+        return getVisibilityForPlayer(idx, playerID);
     }
 
     /**
@@ -98,7 +101,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      */
     public void setComponents(ArrayList<T> components, ArrayList<boolean[]> visibilityPerPlayer) {
         super.setComponents(components);
-        this.elementVisibility = visibilityPerPlayer;
+        setVisibilityMasks(visibilityPerPlayer);
     }
 
     /**
@@ -111,7 +114,13 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
             if (b.length != this.deckVisibility.length)
                 throw new IllegalArgumentException("All entries of visibility need to have length " + deckVisibility.length +
                         " but at least one entry is of length " + b.length);
-        this.elementVisibility = visibility;
+        setVisibilityMasks(visibility);
+    }
+
+    private void setVisibilityMasks(List<boolean[]> visibility) {
+        elementVisibility = new long[visibility.size()];
+        for (int i = 0; i < visibility.size(); i++)
+            elementVisibility[i] = toMask(visibility.get(i));
     }
 
     /**
@@ -122,10 +131,13 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, int playerID, boolean visibility) {
-        if (index >= 0 && index < elementVisibility.size()) {
-            if (playerID >= 0 && playerID < deckVisibility.length)
-                this.elementVisibility.get(index)[playerID] = visibility;
-            else
+        if (index >= 0 && index < components.size()) {
+            if (playerID >= 0 && playerID < deckVisibility.length) {
+                if (visibility)
+                    elementVisibility[index] |= 1L << playerID;
+                else
+                    elementVisibility[index] &= ~(1L << playerID);
+            } else
                 throw new IllegalArgumentException("playerID " + playerID + "needs to be in range [0," + (deckVisibility.length-1) + "]");
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + (components.size()-1) + "]");
@@ -139,8 +151,8 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visibility - true if player can see this component, false otherwise.
      */
     public void setVisibilityOfComponent(int index, boolean[] visibility) {
-        if (index >= 0 && index < elementVisibility.size()) {
-            this.elementVisibility.set(index, visibility.clone());
+        if (index >= 0 && index < components.size()) {
+            elementVisibility[index] = toMask(visibility);
         } else {
             throw new IllegalArgumentException("component index " + index + " needs to be in range [0," + components.size() + "]");
         }
@@ -168,7 +180,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(T c, int index, boolean[] visibilityPerPlayer) {
-        this.elementVisibility.add(index, visibilityPerPlayer.clone());
+        insertVisibility(index, 1, toMask(visibilityPerPlayer));
         return super.add(c, index);
     }
 
@@ -180,9 +192,13 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @return true if not over capacity, false otherwise.
      */
     public boolean add(Deck<T> d, int index) {
-        for (int i = 0; i < d.components.size(); i++) {
-            this.elementVisibility.add(index, deckVisibility.clone());
-        }
+        insertVisibility(index, d.components.size(), toMask(deckVisibility));
+        return super.add(d, index);
+    }
+
+    @Override
+    public boolean add(Collection<T> d, int index) {
+        insertVisibility(index, d.size(), toMask(deckVisibility));
         return super.add(d, index);
     }
 
@@ -195,20 +211,19 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public boolean add(PartialObservableDeck<T> d) {
         if (d == null)
             throw new IllegalArgumentException("d cannot be null");
-        elementVisibility.addAll(d.elementVisibility);
         for (int i = 0; i < deckVisibility.length; i++) {
             deckVisibility[i] &= d.deckVisibility[i];
         }
-        return super.add(d);
+        int n = d.components.size();
+        insertVisibility(0, n, 0L);
+        System.arraycopy(d.elementVisibility, 0, elementVisibility, 0, n);
+        return super.add(d, 0);
     }
 
     @Override
     public boolean add(Deck<T> d) {
         if (d == null)
             throw new IllegalArgumentException("d cannot be null");
-        for (int i = 0; i < d.getSize(); i++) {
-            elementVisibility.add(deckVisibility.clone());
-        }
         return super.add(d);
     }
 
@@ -216,17 +231,18 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public void setComponents(ArrayList<T> components) {
         super.setComponents(components);
 
-        elementVisibility.clear();
-        for (int i = 0; i < components.size(); i++) {
-            elementVisibility.add(deckVisibility.clone());
-        }
+        long mask = toMask(deckVisibility);
+        if (elementVisibility.length < components.size())
+            elementVisibility = new long[components.size()];
+        Arrays.fill(elementVisibility, 0, components.size(), mask);
     }
 
     @Override
     public T pick(int idx) {
+        int size = components.size();
         T el = super.pick(idx);
         if (el != null) {
-            elementVisibility.remove(idx);
+            removeVisibility(idx, size);
             return el;
         }
         return null;
@@ -251,23 +267,18 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
 
     @Override
     public boolean remove(int idx) {
+        int size = components.size();
         if (super.remove(idx)) {
-            elementVisibility.remove(idx);
+            removeVisibility(idx, size);
             return true;
         }
         return false;
     }
 
-    @Override
-    public void clear() {
-        super.clear();
-        elementVisibility.clear();
-    }
-
     @Override
     public void shuffle(Random rnd) {
-        Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(components, elementVisibility, rnd);
-        components = shuffled.a;
+        Pair<List<T>, long[]> shuffled = shuffleLists(components, elementVisibility, rnd);
+        replaceComponents(shuffled.a);
         elementVisibility = shuffled.b;
     }
 
@@ -278,7 +289,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
     public void shuffleAndResetVisibility(Random rnd)
     {
         shuffle(rnd);
-        elementVisibility.replaceAll(ignored -> deckVisibility.clone());
+        Arrays.fill(elementVisibility, 0, components.size(), toMask(deckVisibility));
     }
 
 
@@ -290,9 +301,9 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param rnd   - random number generator to be used in shuffling.
      * @return - both lists shuffled, keeping the mapping from component to visibility at the same index.
      */
-    private Pair<List<T>, List<boolean[]>> shuffleLists(List<T> comps, List<boolean[]> vis, Random rnd) {
-        List<T> tmp_components = new ArrayList<>();
-        List<boolean[]> tmp_visibility = new ArrayList<>();
+    private Pair<List<T>, long[]> shuffleLists(List<T> comps, long[] vis, Random rnd) {
+        List<T> tmp_components = new ArrayList<>(comps.size());
+        long[] tmp_visibility = new long[vis.length];
 
         List<Integer> indexList = new ArrayList<>();
         for (int i = 0; i < comps.size(); i++)
@@ -302,10 +313,10 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         for (int targetIndex = 0; targetIndex < indexList.size(); targetIndex++) {
             int sourceIndex = indexList.get(targetIndex);
             tmp_components.add(targetIndex, comps.get(sourceIndex));
-            tmp_visibility.add(targetIndex, vis.get(sourceIndex));
+            tmp_visibility[targetIndex] = vis[sourceIndex];
         }
 
-        return new Pair(tmp_components, tmp_visibility);
+        return new Pair<>(tmp_components, tmp_visibility);
     }
 
     /**
@@ -316,21 +327,21 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
      * @param visible  - if true, shuffles only visible cards; otherwise, shuffles only hidden cards.
      */
     public void shuffleVisible(Random rnd, int playerId, boolean visible) {
+        long bit = 1L << playerId;
         ArrayList<T> visibleComponents = new ArrayList<>();
-        ArrayList<boolean[]> visibility = new ArrayList<>();
+        long[] visibility = new long[components.size()];
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerId] == visible) {
+            if (((elementVisibility[i] & bit) != 0) == visible) {
+                visibility[visibleComponents.size()] = elementVisibility[i];
                 visibleComponents.add(components.get(i));
-                visibility.add(b);
             }
         }
-        Pair<List<T>, List<boolean[]>> shuffled = shuffleLists(visibleComponents, visibility, rnd);
+        Pair<List<T>, long[]> shuffled = shuffleLists(visibleComponents, visibility, rnd);
 
+        List<T> components = mutableComponents();
         int n = 0;
         for (int i = 0; i < components.size(); i++) {
-            boolean[] b = elementVisibility.get(i);
-            if (b[playerId] == visible) {
+            if (((elementVisibility[i] & bit) != 0) == visible) {
                 // Draw element from shuffled lists
                 components.set(i, shuffled.a.get(n));
                 /*
@@ -339,7 +350,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
                 we do *not* shuffle element visibility, and keep this in the same order
                 */
                 if (visible)
-                    elementVisibility.set(i, shuffled.b.get(n));
+                    elementVisibility[i] = shuffled.b[n];
                 n++;
             }
         }
@@ -355,12 +366,7 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         this.copyTo(dp); // Copy super
 
         dp.deckVisibility = deckVisibility.clone();
-
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
-        }
-        dp.elementVisibility = newVisibility;
+        dp.elementVisibility = Arrays.copyOf(elementVisibility, components.size());
 
         return dp;
     }
@@ -370,14 +376,55 @@ public class PartialObservableDeck<T extends Component> extends Deck<T> {
         this.copyTo(dp, playerId); // Copy super
 
         dp.deckVisibility = deckVisibility.clone();
+        dp.elementVisibility = Arrays.copyOf(elementVisibility, components.size());
 
-        ArrayList<boolean[]> newVisibility = new ArrayList<>();
-        for (boolean[] visibility : elementVisibility) {
-            newVisibility.add(visibility.clone());
+        return dp;
+    }
+
+    @Override
+    public long getStateHash() {
+        long hash = super.getStateHash();
+        for (int i = 0; i < components.size(); i++) {
+            hash = hash * 31 + elementVisibility[i];
         }
-        dp.elementVisibility = newVisibility;
+        return hash;
+    }
 
-        return dp;
+    private long visibilityAt(int elementIdx) {
+        if (elementIdx < 0 || elementIdx >= components.size())
+            throw new IndexOutOfBoundsException("Index: " + elementIdx + ", Size: " + components.size());
+        return elementVisibility[elementIdx];
+    }
+
+    /**
+     * Makes space for n new entries at index (this must be called before the components are added), all set to mask.
+     */
+    private void insertVisibility(int index, int n, long mask) {
+        int size = components.size();
+        if (size + n > elementVisibility.length)
+            elementVisibility = Arrays.copyOf(elementVisibility, Math.max(size + n, Math.max(8, elementVisibility.length * 2)));
+        System.arraycopy(elementVisibility, index, elementVisibility, index + n, size - index);
+        Arrays.fill(elementVisibility, index, index + n, mask);
+    }
+
+    private void removeVisibility(int index, int oldSize) {
+        System.arraycopy(elementVisibility, index + 1, elementVisibility, index, oldSize - index - 1);
+    }
+
+    private static long toMask(boolean[] visibility) {
+        if (visibility.length > 64)
+            throw new IllegalArgumentException("PartialObservableDeck supports at most 64 players, not " + visibility.length);
+        long mask = 0L;
+        for (int p = 0; p < visibility.length; p++)
+            if (visibility[p]) mask |= 1L << p;
+        return mask;
+    }
+
+    private static boolean[] fromMask(long mask, int nPlayers) {
+        boolean[] visibility = new boolean[nPlayers];
+        for (int p = 0; p < nPlayers; p++)
+            visibility[p] = (mask & (1L << p)) != 0;
+        return visibility;
     }
 
     public String toString(AbstractGameState gs, int playerID) {
@@ -24,4 +24,12 @@ public interface IActionHeuristic {
         }
         return scores;
     }
+
+    /**
+     * Returns a copy for use on another thread (by a root-parallel MCTS worker, for example).
+     * Stateless heuristics can return themselves, which is the default.
+     */
+    default IActionHeuristic copy() {
+        return this;
+    }
 }
@@ -3,6 +3,8 @@ package core.interfaces;
 
 import core.AbstractGameState;
 
+import java.util.List;
+
 public interface IStateHeuristic {
 
     /**
@@ -13,4 +15,31 @@ public interface IStateHeuristic {
      * @return - value of given state.
      */
     double evaluateState(AbstractGameState gs, int playerId);
-}
\ No newline at end of file
+
+    /**
+     * Returns the score of the state for every player (as from evaluateState()). Heuristics that can share work
+     * between the players should override this, as MCTS evaluates states for all players at once.
+     * @param gs - game state to evaluate and score.
+     * @return - value of the state for each player, indexed by player id.
+     */
+    default double[] evaluateAllPlayers(AbstractGameState gs) {
+        double[] retValue = new double[gs.getNPlayers()];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = evaluateState(gs, p);
+        return retValue;
+    }
+
+    /**
+     * Returns the score of each of the states for every player (as from evaluateAllPlayers()). MCTS evaluates the
+     * leaves it has queued (see MCTSParams.leafBatchSize) through this, so heuristics that can evaluate many states
+     * at once more cheaply than one at a time should override it.
+     * @param states - game states to evaluate and score.
+     * @return - value of each state for each player, indexed by state and then by player id.
+     */
+    default double[][] evaluateAllPlayers(List<? extends AbstractGameState> states) {
+        double[][] retValue = new double[states.size()][];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = evaluateAllPlayers(states.get(i));
+        return retValue;
+    }
+}
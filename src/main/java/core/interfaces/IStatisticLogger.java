@@ -15,6 +15,21 @@ public interface IStatisticLogger {
      */
     void record(Map<String, ?> data);
 
+    /**
+     * Use to register one set of numeric data, where the names are the same every time (for example training data).
+     * By default this is the same as record(Map), but loggers that write straight to file can avoid creating the Map.
+     *
+     * @param names  The names of the data
+     * @param values The values, in the same order. These may be changed by the caller once this returns.
+     */
+    default void record(String[] names, double[] values) {
+        Map<String, Double> data = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            data.put(names[i], values[i]);
+        }
+        record(data);
+    }
+
     /**
      * Use to record a single datum. For example
      *
@@ -3,11 +3,13 @@ package core.rules;
 import core.AbstractGameStateWithTurnOrder;
 import core.actions.AbstractAction;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * A node in a tree of game rules. Receives a unique ID on creation, and keeps track of node properties.
  */
 public abstract class Node {
-    private static int nextID = 0;
+    private static final AtomicInteger nextID = new AtomicInteger();  // shared by games running on other threads
 
     private int id;  // Unique id for this node
     protected boolean actionNode;  // True if this node requires an action to execute
@@ -16,7 +18,7 @@ public abstract class Node {
     protected Node parent;  // Parent node, can be used to retrieve parameters set by a previous node
 
     public Node() {
-        id = nextID++;
+        id = nextID.getAndIncrement();
     }
 
     /**
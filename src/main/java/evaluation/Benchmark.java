@@ -0,0 +1,285 @@
+package evaluation;
+
+import core.*;
+import core.actions.AbstractAction;
+import games.GameType;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import players.PlayerConstants;
+import players.mcts.MCTSParams;
+import players.mcts.MCTSPlayer;
+import utilities.Utils;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Measures how fast the core operations of each game are (copying the state, computing the available actions,
+ * applying an action, whole random playouts), and how many iterations per second MCTS gets on it.
+ * The results are written as JSON, so that they can be compared between versions of the framework.
+ * <p>
+ * The operations are measured on a fixed set of states, collected from random games, so that they represent
+ * the whole game and not just its start. Each measurement is repeated for a warm-up period (to give the JIT
+ * compiler time to work) that is discarded, and then for the measured period. (This is a hand-rolled version of what
+ * JMH does, as JMH is not a dependency of the project, and cannot be fetched for offline builds.)
+ * <p>
+ * Arguments (all optional):
+ * game=TicTacToe|Uno... (default all), nPlayers (default is the minimum for each game, and at least 2),
+ * warmup and time (seconds for each warm-up and measurement, defaults 1 and 2), nStates (default 100),
+ * mctsBudgets (pipe-delimited iteration budgets, default 100|1000), seed, output (default benchmark.json).
+ */
+public class Benchmark {
+
+    static final int maxPlayoutLength = 10000;  // in case a random player never finishes a game
+
+    final long warmupNanos, measureNanos;
+    final int nStates;
+    final int[] mctsBudgets;
+    final long seed;
+    long sink;  // results of the operations go in here, so that the JIT cannot skip them
+
+    public Benchmark(double warmupSeconds, double measureSeconds, int nStates, int[] mctsBudgets, long seed) {
+        this.warmupNanos = (long) (warmupSeconds * 1e9);
+        this.measureNanos = (long) (measureSeconds * 1e9);
+        this.nStates = nStates;
+        this.mctsBudgets = mctsBudgets;
+        this.seed = seed;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) {
+        String gameArg = Utils.getArg(args, "game", "all");
+        int nPlayers = Utils.getArg(args, "nPlayers", -1);
+        double warmup = Utils.getArg(args, "warmup", 1.0);
+        double time = Utils.getArg(args, "time", 2.0);
+        int nStates = Utils.getArg(args, "nStates", 100);
+        int[] budgets = Arrays.stream(Utils.getArg(args, "mctsBudgets", "100|1000").split("\\|"))
+                .mapToInt(Integer::parseInt).toArray();
+        long seed = Utils.getArg(args, "seed", System.currentTimeMillis());
+        String output = Utils.getArg(args, "output", "benchmark.json");
+
+        List<GameType> games;
+        if (gameArg.equals("all")) {
+            games = Arrays.stream(GameType.values()).filter(gt -> gt != GameType.GameTemplate).collect(toList());
+        } else {
+            games = Arrays.stream(gameArg.split("\\|")).map(GameType::valueOf).collect(toList());
+        }
+
+        Benchmark benchmark = new Benchmark(warmup, time, nStates, budgets, seed);
+        JSONObject results = new JSONObject();
+        results.put("date", new Date().toString());
+        results.put("java", System.getProperty("java.version"));
+        results.put("os", System.getProperty("os.name"));
+        results.put("processors", Runtime.getRuntime().availableProcessors());
+        results.put("warmupSeconds", warmup);
+        results.put("measureSeconds", time);
+        results.put("nStates", nStates);
+        results.put("seed", seed);
+        JSONArray gameResults = new JSONArray();
+        for (GameType gameType : games) {
+            int players = nPlayers > 0 ? nPlayers : Math.max(2, gameType.getMinPlayers());
+            JSONObject gameResult = benchmark.run(gameType, players);
+            System.out.println(gameResult.toJSONString());
+            gameResults.add(gameResult);
+        }
+        results.put("games", gameResults);
+
+        try (FileWriter writer = new FileWriter(output)) {
+            writer.write(results.toJSONString());
+        } catch (IOException e) {
+            throw new AssertionError("Error writing benchmark results to " + output + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs all the benchmarks for one game. The results are in operations per second; if the game fails then
+     * instead there is an error entry.
+     */
+    @SuppressWarnings("unchecked")
+    public JSONObject run(GameType gameType, int nPlayers) {
+        JSONObject result = new JSONObject();
+        result.put("game", gameType.name());
+        result.put("nPlayers", nPlayers);
+        try {
+            Game game = gameType.createGameInstance(nPlayers, seed);
+            AbstractForwardModel fm = game.getForwardModel();
+            List<AbstractGameState> states = sampleStates(game);
+            result.put("statesSampled", states.size());
+
+            result.put("copy", measure(states, s -> s.copy().getGameTick()));
+            result.put("copyForPlayer", measure(states, s -> s.copy(s.getCurrentPlayer()).getGameTick()));
+            result.put("computeAvailableActions", measure(states, s -> fm.computeAvailableActions(s).size()));
+            result.put("next", nextPerSecond(fm, states));
+            result.put("randomPlayouts", playoutsPerSecond(game));
+
+            JSONObject mcts = new JSONObject();
+            for (int budget : mctsBudgets)
+                mcts.put(String.valueOf(budget), mctsIterationsPerSecond(game, states, budget));
+            result.put("mctsIterations", mcts);
+        } catch (RuntimeException | AssertionError e) {
+            result.put("error", e.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Plays random games, and keeps the state at every decision, until we have nStates of them (taken at equal
+     * intervals across all the games played).
+     */
+    private List<AbstractGameState> sampleStates(Game game) {
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(seed);
+        List<AbstractGameState> allStates = new ArrayList<>();
+        for (int g = 0; g < 5; g++) {
+            AbstractGameState state = game.getGameState().copy();
+            state.getGameParameters().setRandomSeed(rnd.nextLong());
+            fm.setup(state);
+            for (int i = 0; i < maxPlayoutLength && state.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                if (actions.isEmpty())
+                    break;
+                allStates.add(state.copy());
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+        }
+        if (allStates.isEmpty())
+            throw new AssertionError("No decisions in any random game");
+        List<AbstractGameState> states = new ArrayList<>();
+        double step = Math.max(1.0, allStates.size() / (double) nStates);
+        for (double i = 0; i < allStates.size() && states.size() < nStates; i += step)
+            states.add(allStates.get((int) i));
+        return states;
+    }
+
+    private double measure(List<AbstractGameState> states, ToLongFunction<AbstractGameState> op) {
+        timeLoop(states, op, warmupNanos);
+        return timeLoop(states, op, measureNanos);
+    }
+
+    private double timeLoop(List<AbstractGameState> states, ToLongFunction<AbstractGameState> op, long duration) {
+        long ops = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            for (AbstractGameState state : states)
+                sink += op.applyAsLong(state);
+            ops += states.size();
+            now = System.nanoTime();
+        } while (now - start < duration);
+        return ops * 1e9 / (now - start);
+    }
+
+    /**
+     * next() changes the state, so each pass uses fresh copies of the states. Only the next() calls are timed.
+     */
+    private double nextPerSecond(AbstractForwardModel fm, List<AbstractGameState> states) {
+        Random rnd = new Random(seed);
+        List<AbstractAction> actions = new ArrayList<>();
+        for (AbstractGameState state : states) {
+            List<AbstractAction> available = fm.computeAvailableActions(state);
+            actions.add(available.get(rnd.nextInt(available.size())));
+        }
+        timeNext(fm, states, actions, warmupNanos);
+        return timeNext(fm, states, actions, measureNanos);
+    }
+
+    private double timeNext(AbstractForwardModel fm, List<AbstractGameState> states, List<AbstractAction> actions,
+                            long duration) {
+        long ops = 0, timed = 0;
+        long start = System.nanoTime();
+        do {
+            List<AbstractGameState> copies = states.stream().map(AbstractGameState::copy).collect(toList());
+            List<AbstractAction> actionCopies = actions.stream().map(AbstractAction::copy).collect(toList());
+            long passStart = System.nanoTime();
+            for (int i = 0; i < copies.size(); i++) {
+                fm.next(copies.get(i), actionCopies.get(i));
+                sink += copies.get(i).getGameTick();
+            }
+            timed += System.nanoTime() - passStart;
+            ops += copies.size();
+        } while (System.nanoTime() - start < duration);
+        return ops * 1e9 / timed;
+    }
+
+    /**
+     * Whole games with random actions, from a copy of the initial state.
+     */
+    private double playoutsPerSecond(Game game) {
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState initialState = game.getGameState().copy();
+        fm.setup(initialState);
+        Random rnd = new Random(seed);
+        timePlayouts(fm, initialState, rnd, warmupNanos);
+        return timePlayouts(fm, initialState, rnd, measureNanos);
+    }
+
+    private double timePlayouts(AbstractForwardModel fm, AbstractGameState initialState, Random rnd, long duration) {
+        long playouts = 0;
+        long start = System.nanoTime();
+        long now;
+        do {
+            AbstractGameState state = initialState.copy();
+            for (int i = 0; i < maxPlayoutLength && state.isNotTerminal(); i++) {
+                List<AbstractAction> actions = fm.computeAvailableActions(state);
+                if (actions.isEmpty())
+                    break;
+                fm.next(state, actions.get(rnd.nextInt(actions.size())));
+            }
+            sink += state.getGameTick();
+            playouts++;
+            now = System.nanoTime();
+        } while (now - start < duration);
+        return playouts * 1e9 / (now - start);
+    }
+
+    /**
+     * Default MCTS with an iteration budget, making decisions from the sampled states (those with a choice).
+     */
+    private double mctsIterationsPerSecond(Game game, List<AbstractGameState> states, int budget) {
+        MCTSParams params = new MCTSParams(seed);
+        // these are set as parameter values, as copy() does not keep changes made directly to the fields
+        params.setParameterValue("budgetType", PlayerConstants.BUDGET_ITERATIONS);
+        params.setParameterValue("budget", budget);
+        params.setParameterValue("reuseTree", false);
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int p = 0; p < game.getGameState().getNPlayers(); p++)
+            players.add(new MCTSPlayer((MCTSParams) params.copy()));
+        game.reset(players, seed);
+        AbstractForwardModel fm = game.getForwardModel();
+
+        List<AbstractGameState> decisions = states.stream()
+                .filter(s -> fm.computeAvailableActions(s).size() > 1)
+                .collect(toList());
+        if (decisions.isEmpty())
+            return 0.0;
+        ToLongFunction<AbstractGameState> decide = s -> {
+            AbstractAction action = players.get(s.getCurrentPlayer())._getAction(s.copy(), fm.computeAvailableActions(s));
+            return action.hashCode();
+        };
+        timeDecisions(decisions, decide, warmupNanos);
+        return timeDecisions(decisions, decide, measureNanos) * budget;
+    }
+
+    /**
+     * @return decisions per second
+     */
+    private double timeDecisions(List<AbstractGameState> decisions, ToLongFunction<AbstractGameState> decide,
+                                 long duration) {
+        long decisionsMade = 0;
+        long start = System.nanoTime();
+        long now;
+        // a pass over all the states can take a while, so we check the time after each decision
+        int i = 0;
+        do {
+            sink += decide.applyAsLong(decisions.get(i));
+            i = (i + 1) % decisions.size();
+            decisionsMade++;
+            now = System.nanoTime();
+        } while (now - start < duration);
+        return decisionsMade * 1e9 / (now - start);
+    }
+}
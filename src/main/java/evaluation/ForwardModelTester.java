@@ -29,7 +29,9 @@ public class ForwardModelTester {
     List<String> hashNames = new ArrayList<>();
     List<AbstractGameState> stateHistory = new ArrayList<>();
     List<AbstractAction> actionHistory = new ArrayList<>();
+    Set<Long> stateHashes = new HashSet<>();
     int decision = 0;
+    int repeatedStates = 0;
 
     public static void main(String... args) {
         new ForwardModelTester(args);
@@ -54,6 +56,8 @@ public class ForwardModelTester {
             stateHistory = new ArrayList<>();
             actionHistory = new ArrayList<>();
             hashNames = new ArrayList<>();
+            stateHashes = new HashSet<>();
+            repeatedStates = 0;
             seed = rnd.nextInt();
             System.out.printf("Running Game %d of %s with seed %d at %tc%n", loop, gameToRun, seed, System.currentTimeMillis());
             game.reset(allPlayers, seed);
@@ -72,6 +76,12 @@ public class ForwardModelTester {
                     System.out.printf("\tOrig: %s%n\tCopy: %s%n", game.getGameState().toString(), stateCopy);
                     throw new AssertionError("Copy of game state should have same hashcode as original");
                 }
+                long stateHash = game.getGameState().getStateHash();
+                if (stateCopy.getStateHash() != stateHash)
+                    throw new AssertionError("Copy of game state should have same state hash as original");
+                // a state seen before (by getStateHash()) at an earlier decision in this game
+                if (!stateHashes.add(stateHash))
+                    repeatedStates++;
                 allFine = checkHistory();
                 int player = game.getGameState().getCurrentPlayer();
                 int currentRound = game.getGameState().getRoundCounter();
@@ -82,6 +92,7 @@ public class ForwardModelTester {
                     System.out.printf("Decision %d made by player %d in Round %d (%s)%n", decision, player, currentRound, action);
 
             } while (allFine && game.getGameState().isNotTerminal());
+            System.out.printf("%d decisions, of which %d were at a previously seen state%n", decision, repeatedStates);
         }
     }
 
@@ -96,6 +96,12 @@ public enum RunArg {
     nPlayers("The number of players in each game. Overrides playerRange.",
             -1,
             new Usage[]{Usage.ParameterSearch, Usage.RunGames}),
+    nThreads("The number of games of a tournament to run at the same time, each on its own thread (default is 1).\n" +
+            "\t The results are the same for any number of threads, as long as the agents are seeded.\n" +
+            "\t For NTBEA the repeats are run at the same time if there is more than one; otherwise each step of\n" +
+            "\t the search evaluates this many settings at once.",
+            1,
+            new Usage[]{Usage.RunGames, Usage.ParameterSearch}),
     neighbourhood("The size of neighbourhood to look at in NTBEA. Default is min(50, |searchSpace|/100) ",
             50,
             new Usage[]{Usage.ParameterSearch}),
@@ -156,6 +156,7 @@ public class RunGames implements IGameRunner {
                 tournament.setVerbose((boolean) config.get(verbose));
                 tournament.setResultsFile((String) config.get(output));
                 tournament.setRandomGameParams((boolean) config.get(randomGameParams));
+                tournament.setNThreads((int) config.get(nThreads));
                 tournament.run();
             }
         }
@@ -5,6 +5,7 @@ import core.actions.AbstractAction;
 import core.interfaces.IActionFeatureVector;
 import core.interfaces.IStateFeatureVector;
 import evaluation.metrics.Event;
+import players.heuristics.CachedStateFeatureVector;
 
 import java.util.HashMap;
 import java.util.List;
@@ -32,7 +33,7 @@ public class ActionFeatureListener extends FeatureListener {
         super(frequency, true);
         if (psi == null) throw new AssertionError("Action Features must be provided and cannot be null");
         this.psiFn = psi;
-        this.phiFn = phi;
+        this.phiFn = CachedStateFeatureVector.of(phi);
         this.includeActionsNotTaken = includeActionsNotTaken;
     }
 
@@ -104,7 +105,7 @@ public class ActionFeatureListener extends FeatureListener {
     @Override
     public String injectAgentAttributes(String raw) {
         return raw.replaceAll(Pattern.quote("*PSI*"), psiFn.getClass().getCanonicalName())
-                .replaceAll(Pattern.quote("*PHI*"), phiFn != null ? phiFn.getClass().getCanonicalName() : "NONE");
+                .replaceAll(Pattern.quote("*PHI*"), phiFn != null ? CachedStateFeatureVector.unwrap(phiFn).getClass().getCanonicalName() : "NONE");
     }
 
 }
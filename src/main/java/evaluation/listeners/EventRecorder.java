@@ -0,0 +1,49 @@
+package evaluation.listeners;
+
+import core.Game;
+import evaluation.metrics.Event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps all the events from one game, so that they can be passed on to other listeners later.
+ * This is used when games are played on other threads: the listeners then see each game in turn, in a fixed order,
+ * however many threads there are.
+ * The state in each event is copied, as the game goes on changing it. Anything a listener reads from the Game
+ * itself (such as timings) is as it was at the end of the game.
+ */
+public class EventRecorder implements IGameListener {
+
+    private final List<Event> events = new ArrayList<>();
+    private Game game;
+
+    @Override
+    public void onEvent(Event event) {
+        events.add(Event.createEvent(event.type, event.state == null ? null : event.state.copy(),
+                event.action == null ? null : event.action.copy(), event.playerID));
+    }
+
+    /**
+     * Passes all the recorded events to the listener, which is first given the game they came from.
+     */
+    public void replayTo(IGameListener listener) {
+        listener.setGame(game);
+        for (Event event : events)
+            listener.onEvent(event);
+    }
+
+    @Override
+    public void report() {
+    }
+
+    @Override
+    public void setGame(Game game) {
+        this.game = game;
+    }
+
+    @Override
+    public Game getGame() {
+        return game;
+    }
+}
@@ -21,6 +21,7 @@ public abstract class FeatureListener implements IGameListener {
     boolean currentPlayerOnly;
     IStatisticLogger logger;
     Game game;
+    private String[] columnNames;
 
     protected FeatureListener(Event.GameEvent frequency, boolean currentPlayerOnly) {
         this.currentPlayerOnly = currentPlayerOnly;
@@ -64,30 +65,43 @@ public abstract class FeatureListener implements IGameListener {
         }).toArray();
         double[] ordinal = IntStream.range(0, totP).mapToDouble(state::getOrdinalPosition).toArray();
         double finalRound = state.getRoundCounter();
+        String[] columns = columnNames();
+        double[] row = new double[columns.length];
+        int nFeatures = columns.length - 11;
         for (LocalDataWrapper record : currentData) {
-            // we use a LinkedHashMap so that the order of the keys is preserved, and hence the
-            // data is written to file in a sensible order for human viewing
-            Map<String, Double> data = new LinkedHashMap<>();
-            data.put("GameID", (double) state.getGameID());
-            data.put("Player", (double) record.player);
-            data.put("Round", (double) record.gameRound);
-            data.put("Turn", (double) record.gameTurn);
-            data.put("CurrentScore", record.currentScore);
-            for (int i = 0; i < record.array.length; i++) {
-                data.put(names()[i], record.array[i]);
-            }
-            data.put("PlayerCount", (double) getGame().getPlayers().size());
-            data.put("TotalRounds", finalRound);
-            data.put("ActionScore", record.actionScore);
-            data.put("Win", winLoss[record.player]);
-            data.put("Ordinal", ordinal[record.player]);
-            data.put("FinalScore", finalScores[record.player]);
-            logger.record(data);
+            // the order of the columns is fixed, with the game specific features in the middle
+            row[0] = state.getGameID();
+            row[1] = record.player;
+            row[2] = record.gameRound;
+            row[3] = record.gameTurn;
+            row[4] = record.currentScore;
+            System.arraycopy(record.array, 0, row, 5, nFeatures);
+            row[5 + nFeatures] = getGame().getPlayers().size();
+            row[6 + nFeatures] = finalRound;
+            row[7 + nFeatures] = record.actionScore;
+            row[8 + nFeatures] = winLoss[record.player];
+            row[9 + nFeatures] = ordinal[record.player];
+            row[10 + nFeatures] = finalScores[record.player];
+            logger.record(columns, row);
         }
         logger.processDataAndNotFinish();
         currentData = new ArrayList<>();
     }
 
+    /**
+     * @return the names of the data recorded for each state: some standard columns, with the features from names()
+     * in the middle
+     */
+    public String[] columnNames() {
+        if (columnNames == null) {
+            List<String> columns = new ArrayList<>(Arrays.asList("GameID", "Player", "Round", "Turn", "CurrentScore"));
+            columns.addAll(Arrays.asList(names()));
+            columns.addAll(Arrays.asList("PlayerCount", "TotalRounds", "ActionScore", "Win", "Ordinal", "FinalScore"));
+            columnNames = columns.toArray(new String[0]);
+        }
+        return columnNames;
+    }
+
     @Override
     public void report() {
         logger.processDataAndFinish();
@@ -4,6 +4,7 @@ import core.AbstractGameState;
 import core.actions.AbstractAction;
 import core.interfaces.IStateFeatureVector;
 import evaluation.metrics.Event;
+import players.heuristics.CachedStateFeatureVector;
 
 import java.util.regex.Pattern;
 
@@ -19,7 +20,7 @@ public class StateFeatureListener extends FeatureListener {
 
     public StateFeatureListener(IStateFeatureVector phi, Event.GameEvent frequency, boolean currentPlayerOnly) {
         super(frequency, currentPlayerOnly);
-        this.phiFn = phi;
+        this.phiFn = CachedStateFeatureVector.of(phi);
     }
 
     @Override
@@ -34,6 +35,6 @@ public class StateFeatureListener extends FeatureListener {
 
     @Override
     public String injectAgentAttributes(String raw) {
-        return raw.replaceAll(Pattern.quote("*PHI*"), phiFn.getClass().getCanonicalName());
+        return raw.replaceAll(Pattern.quote("*PHI*"), CachedStateFeatureVector.unwrap(phiFn).getClass().getCanonicalName());
     }
 }
@@ -0,0 +1,220 @@
+package evaluation.loggers;
+
+import core.interfaces.IStatisticLogger;
+import evaluation.summarisers.TAGStatSummary;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Writes rows of numeric data (for example the training data from a FeatureListener) to a binary file, which is much
+ * faster to write and read than the text from FileStatsLogger, and (with compression) much smaller.
+ * The columns are fixed by the first row recorded. Rows are buffered in blocks, and each block is written in
+ * columns (all the values of the first column, then of the second, and so on), which compresses well.
+ * <p>
+ * File format (all numbers big-endian):
+ * - header: int MAGIC, int VERSION, int 1 if compressed (otherwise 0), int number of columns, then for each column
+ * its name as an int number of bytes followed by UTF-8 bytes
+ * - then any number of blocks: int number of rows, int number of bytes, then the bytes, which are the doubles of the
+ * block in column order, compressed with Deflater if the file is compressed
+ * <p>
+ * BinaryFeatureReader reads these files.
+ */
+public class BinaryFeatureLogger implements IStatisticLogger {
+
+    public static final int MAGIC = 0x54414746;  // "TAGF"
+    public static final int VERSION = 1;
+
+    private final String fileName;
+    private final boolean compress;
+    private final int blockSize;
+    private FileChannel channel;
+    private String[] columns;
+    private Map<String, Integer> columnIndex;
+    private double[][] block;  // [column][row]
+    private int rows;
+    private ByteBuffer rawBytes;
+    private byte[] compressedBytes;
+    private Deflater deflater;
+
+    public BinaryFeatureLogger(String fileName) {
+        this(fileName, true, 4096);
+    }
+
+    /**
+     * @param fileName  the file to write, which is replaced if it already exists
+     * @param compress  whether to compress each block
+     * @param blockSize the number of rows in each block, which is also the number held in memory before writing
+     */
+    public BinaryFeatureLogger(String fileName, boolean compress, int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("Block size must be positive : " + blockSize);
+        this.fileName = fileName;
+        this.compress = compress;
+        this.blockSize = blockSize;
+    }
+
+    private void initialise(String[] names) {
+        columns = names.clone();
+        columnIndex = new HashMap<>();
+        for (int i = 0; i < columns.length; i++)
+            columnIndex.put(columns[i], i);
+        block = new double[columns.length][blockSize];
+        rawBytes = ByteBuffer.allocate(columns.length * blockSize * Double.BYTES);
+        if (compress) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+            compressedBytes = new byte[rawBytes.capacity() / 2 + 64];
+        }
+        try {
+            channel = FileChannel.open(Paths.get(fileName), CREATE, WRITE, TRUNCATE_EXISTING);
+            List<byte[]> encodedNames = new ArrayList<>();
+            int headerSize = 4 * Integer.BYTES;
+            for (String name : columns) {
+                byte[] encoded = String.valueOf(name).getBytes(StandardCharsets.UTF_8);
+                encodedNames.add(encoded);
+                headerSize += Integer.BYTES + encoded.length;
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerSize);
+            header.putInt(MAGIC).putInt(VERSION).putInt(compress ? 1 : 0).putInt(columns.length);
+            for (byte[] encoded : encodedNames)
+                header.putInt(encoded.length).put(encoded);
+            ((Buffer) header).flip();
+            writeFully(header);
+        } catch (IOException e) {
+            throw new AssertionError("Problem opening file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records one row. The names must be the same (in the same order) for every row; values is copied, so can be
+     * reused by the caller.
+     */
+    @Override
+    public void record(String[] names, double[] values) {
+        if (columns == null)
+            initialise(names);
+        else if (names != columns && !Arrays.equals(names, columns))
+            throw new IllegalArgumentException("Columns do not match those of the first row : " + Arrays.toString(names));
+        for (int c = 0; c < columns.length; c++)
+            block[c][rows] = values[c];
+        rows++;
+        if (rows == blockSize)
+            writeBlock();
+    }
+
+    /**
+     * The keys of the first Map recorded are the columns of the file. After that any missing values are recorded as
+     * NaN, and other keys are ignored. All the values must be Numbers.
+     */
+    @Override
+    public void record(Map<String, ?> data) {
+        if (columns == null)
+            initialise(data.keySet().toArray(new String[0]));
+        double[] values = new double[columns.length];
+        Arrays.fill(values, Double.NaN);
+        for (Map.Entry<String, ?> entry : data.entrySet()) {
+            Integer index = columnIndex.get(entry.getKey());
+            if (index == null)
+                continue;
+            if (!(entry.getValue() instanceof Number))
+                throw new IllegalArgumentException("BinaryFeatureLogger only records numbers : " + entry.getKey() + " = " + entry.getValue());
+            values[index] = ((Number) entry.getValue()).doubleValue();
+        }
+        record(columns, values);
+    }
+
+    @Override
+    public void record(String key, Object datum) {
+        // only whole rows are recorded
+    }
+
+    private void writeBlock() {
+        if (rows == 0)
+            return;
+        // Buffer methods are called through Buffer, as ByteBuffer only overrides them from Java 9
+        ((Buffer) rawBytes).clear();
+        for (double[] column : block)
+            for (int r = 0; r < rows; r++)
+                rawBytes.putDouble(column[r]);
+        try {
+            ByteBuffer blockHeader = ByteBuffer.allocate(2 * Integer.BYTES);
+            if (compress) {
+                deflater.reset();
+                deflater.setInput(rawBytes.array(), 0, rawBytes.position());
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressedBytes.length)
+                        compressedBytes = Arrays.copyOf(compressedBytes, compressedBytes.length * 2);
+                    length += deflater.deflate(compressedBytes, length, compressedBytes.length - length);
+                }
+                ((Buffer) blockHeader.putInt(rows).putInt(length)).flip();
+                writeFully(blockHeader);
+                writeFully(ByteBuffer.wrap(compressedBytes, 0, length));
+            } else {
+                ((Buffer) blockHeader.putInt(rows).putInt(rawBytes.position())).flip();
+                writeFully(blockHeader);
+                ((Buffer) rawBytes).flip();
+                writeFully(rawBytes);
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem writing to file " + fileName + " : " + e.getMessage());
+        }
+        rows = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Writes any rows still buffered, and closes the file
+     */
+    @Override
+    public void processDataAndFinish() {
+        if (channel == null) return;
+        writeBlock();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+        if (deflater != null)
+            deflater.end();
+        channel = null;
+        columns = null;
+    }
+
+    /**
+     * Rows are only written once a block is full, or at the end
+     */
+    @Override
+    public void processDataAndNotFinish() {
+    }
+
+    /**
+     * This always returns an empty Map
+     */
+    @Override
+    public Map<String, TAGStatSummary> summary() {
+        return new HashMap<>();
+    }
+
+    @Override
+    public BinaryFeatureLogger emptyCopy(String id) {
+        String[] fileParts = fileName.split(Pattern.quote("."));
+        if (fileParts.length != 2)
+            throw new AssertionError("Filename does not conform to expected <stem>.<type>");
+        return new BinaryFeatureLogger(fileParts[0] + "_" + id + "." + fileParts[1], compress, blockSize);
+    }
+}
@@ -0,0 +1,141 @@
+package evaluation.loggers;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import static evaluation.loggers.BinaryFeatureLogger.MAGIC;
+import static evaluation.loggers.BinaryFeatureLogger.VERSION;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * Reads the files written by BinaryFeatureLogger, one block of rows at a time.
+ */
+public class BinaryFeatureReader implements AutoCloseable {
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final boolean compressed;
+    private final String[] columns;
+    private final Inflater inflater;
+
+    public BinaryFeatureReader(String fileName) {
+        this.fileName = fileName;
+        try {
+            channel = FileChannel.open(Paths.get(fileName), READ);
+            ByteBuffer header = read(4 * Integer.BYTES);
+            if (header.getInt() != MAGIC)
+                throw new AssertionError("Not a binary feature file : " + fileName);
+            int version = header.getInt();
+            if (version != VERSION)
+                throw new AssertionError("Unknown version " + version + " of binary feature file : " + fileName);
+            compressed = header.getInt() != 0;
+            columns = new String[header.getInt()];
+            for (int i = 0; i < columns.length; i++) {
+                int length = read(Integer.BYTES).getInt();
+                columns[i] = new String(read(length).array(), StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+        inflater = compressed ? new Inflater() : null;
+    }
+
+    /**
+     * @return true if the file starts as a file from BinaryFeatureLogger (rather than text, say)
+     */
+    public static boolean isBinaryFeatureFile(String fileName) {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), READ)) {
+            ByteBuffer start = ByteBuffer.allocate(Integer.BYTES);
+            while (start.hasRemaining()) {
+                if (channel.read(start) < 0)
+                    return false;
+            }
+            return start.getInt(0) == MAGIC;
+        } catch (IOException e) {
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    public String[] getColumns() {
+        return columns.clone();
+    }
+
+    /**
+     * @return the rows of the next block, or null at the end of the file
+     */
+    public double[][] nextBlock() {
+        try {
+            ByteBuffer blockHeader = ByteBuffer.allocate(2 * Integer.BYTES);
+            if (channel.read(blockHeader) <= 0)
+                return null;
+            readFully(blockHeader);
+            ((Buffer) blockHeader).flip();
+            int nRows = blockHeader.getInt();
+            ByteBuffer bytes = read(blockHeader.getInt());
+            if (compressed) {
+                byte[] raw = new byte[nRows * columns.length * Double.BYTES];
+                inflater.reset();
+                inflater.setInput(bytes.array());
+                int length = 0;
+                while (length < raw.length && !inflater.finished())
+                    length += inflater.inflate(raw, length, raw.length - length);
+                if (length != raw.length)
+                    throw new AssertionError("Block of wrong size in " + fileName);
+                bytes = ByteBuffer.wrap(raw);
+            }
+            double[][] rows = new double[nRows][columns.length];
+            for (int c = 0; c < columns.length; c++)
+                for (int r = 0; r < nRows; r++)
+                    rows[r][c] = bytes.getDouble();
+            return rows;
+        } catch (IOException | DataFormatException e) {
+            throw new AssertionError("Problem reading file " + fileName + " : " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return all the rows from here to the end of the file
+     */
+    public List<double[]> readRows() {
+        List<double[]> rows = new ArrayList<>();
+        for (double[][] block = nextBlock(); block != null; block = nextBlock()) {
+            for (double[] row : block)
+                rows.add(row);
+        }
+        return rows;
+    }
+
+    private ByteBuffer read(int nBytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(nBytes);
+        readFully(buffer);
+        ((Buffer) buffer).flip();  // through Buffer, for Java 8 (see BinaryFeatureLogger)
+        return buffer;
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Unexpected end of file " + fileName);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new AssertionError("Problem closing file " + fileName + " : " + e.getMessage());
+        }
+        if (inflater != null)
+            inflater.end();
+    }
+}
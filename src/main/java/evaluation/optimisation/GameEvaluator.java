@@ -10,8 +10,12 @@ import evaluation.listeners.IGameListener;
 import evodef.SearchSpace;
 import evodef.SolutionEvaluator;
 import games.GameType;
+import utilities.ThreadPools;
 
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.DoubleSupplier;
 import java.util.stream.IntStream;
 
 import static java.util.stream.Collectors.toList;
@@ -94,6 +98,33 @@ public class GameEvaluator implements SolutionEvaluator {
      */
     @Override
     public double evaluate(int[] settings) {
+        return prepareGame(settings).getAsDouble();
+    }
+
+    /**
+     * Evaluates several settings at once, with one game for each on the pool. The same settings can be included
+     * more than once to get repeat evaluations.
+     * Everything that uses rnd (the copies of the opponents, the seat of the tuned player and the game seed) is set up
+     * for all the games before any is submitted, so the results are the same as calling evaluate() on each in turn,
+     * whatever the size of the pool.
+     *
+     * @return the score for each of the settings, in the same order
+     */
+    public double[] evaluate(List<int[]> settings, ExecutorService pool) {
+        List<DoubleSupplier> preparedGames = settings.stream().map(this::prepareGame).collect(toList());
+        List<Future<Double>> games = new ArrayList<>(settings.size());
+        for (DoubleSupplier game : preparedGames)
+            games.add(pool.submit(game::getAsDouble));
+        double[] retValue = new double[settings.size()];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = ThreadPools.get(games.get(i), "parallel evaluation");
+        return retValue;
+    }
+
+    /**
+     * Sets up one evaluation game for these settings; the game is played (and scored) when the result is asked for.
+     */
+    private DoubleSupplier prepareGame(int[] settings) {
         if (debug)
             System.out.printf("Starting evaluation %d of %s at %tT%n", nEvals,
                     Arrays.toString(settings), System.currentTimeMillis());
@@ -113,11 +144,11 @@ public class GameEvaluator implements SolutionEvaluator {
         // create a random permutation of opponents - this is used if we want to avoid opponent duplicates
         // if we allow duplicates, then we randomise them all independently
         List<Integer> opponentOrdering = IntStream.range(0, opponents.size()).boxed().collect(toList());
-        Collections.shuffle(opponentOrdering);
+        Collections.shuffle(opponentOrdering, rnd);
         int count = 0;
         for (int i = 0; i < nTeams; i++) {
             if (!fullyCoop && i != playerIndex) {
-                int oppIndex = (avoidOppDupes) ? count : rnd.nextInt(opponents.size());
+                int oppIndex = (avoidOppDupes) ? opponentOrdering.get(count) : rnd.nextInt(opponents.size());
                 count = (count + 1) % nTeams;
                 allPlayers.add(opponents.get(oppIndex).copy());
             } else {
@@ -127,23 +158,23 @@ public class GameEvaluator implements SolutionEvaluator {
         }
 
         // always reset the random seed for each new game
-        newGame.reset(allPlayers, rnd.nextLong());
-
-        newGame.run();
-        int playerOnTeam = -1;
-        for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
-            if (newGame.getGameState().getTeam(p) == playerIndex) {
-                playerOnTeam = p;
-            }
-        }
-        if (playerOnTeam == -1)
-            throw new AssertionError("No Player found on team " + playerIndex);
-        double retValue = tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+        long seed = rnd.nextLong();
+        nEvals++;
 
-    //    System.out.println("GameEvaluator: " + retValue);
+        return () -> {
+            newGame.reset(allPlayers, seed);
 
-        nEvals++;
-        return retValue;
+            newGame.run();
+            int playerOnTeam = -1;
+            for (int p = 0; p < newGame.getGameState().getNPlayers(); p++) {
+                if (newGame.getGameState().getTeam(p) == playerIndex) {
+                    playerOnTeam = p;
+                }
+            }
+            if (playerOnTeam == -1)
+                throw new AssertionError("No Player found on team " + playerIndex);
+            return tuningGame ? gameHeuristic.evaluateGame(newGame) : stateHeuristic.evaluateState(newGame.getGameState(), playerOnTeam);
+        };
     }
 
     public void addListener(IGameListener listener) {
@@ -186,8 +186,9 @@ public class ITPSearchSpace extends AgentSearchSpace<Object> {
         return getSearchKeys().indexOf(parameter);
     }
 
-    public Object getAgent(int[] settings) {
+    public synchronized Object getAgent(int[] settings) {
         // we first need to update itp with the specified parameters, and then instantiate
+        // (synchronized, as itp is shared by the NTBEA runs when these are in parallel)
         for (int i = 0; i < settings.length; i++) {
             String pName = tunedIndexToParameterName.get(i);
             Object value = value(i, settings[i]);
@@ -30,12 +30,24 @@ public class MultiNTBEA extends NTBEA {
         );
     }
 
+    private MultiNTBEA(MultiNTBEA template, long seed) {
+        super(template, seed);
+        searchFramework = new MultiNTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize, nPlayers);
+        multiPlayerEvaluator = new GameMultiPlayerEvaluator(game, params.searchSpace, nPlayers, stateHeuristic, seed);
+    }
+
+    @Override
+    protected NTBEA createRepeatWorker(long seed) {
+        return new MultiNTBEA(this, seed);
+    }
+
     @Override
-    protected void runIteration() {
-        super.runIteration();
+    protected void reportTrials() {
+        super.reportTrials();
         printDiversityResults(landscapeModel, params.kExplore);
     }
 
+    // the trials are always run in turn, as each evaluation is a game between several of the sampled settings
     @Override
     protected void runTrials() {
         multiPlayerEvaluator.reset();
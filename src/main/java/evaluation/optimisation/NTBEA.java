@@ -7,6 +7,7 @@ import core.interfaces.IGameHeuristic;
 import core.interfaces.IStateHeuristic;
 import evaluation.listeners.IGameListener;
 import evaluation.tournaments.RoundRobinTournament;
+import evodef.SearchSpaceUtil;
 import org.apache.commons.math3.util.CombinatoricsUtils;
 import games.GameType;
 import ntbea.NTupleBanditEA;
@@ -18,12 +19,15 @@ import players.heuristics.WinOnlyHeuristic;
 import utilities.JSONUtils;
 import utilities.Pair;
 import utilities.StatSummary;
+import utilities.ThreadPools;
 import utilities.Utils;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.IntToDoubleFunction;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -47,15 +51,15 @@ public class NTBEA {
     int currentIteration = 0;
     IStateHeuristic stateHeuristic;
     IGameHeuristic gameHeuristic;
+    // Only used with params.nThreads > 1
+    ExecutorService evaluationPool;
+    Random trialRnd;
 
     public NTBEA(NTBEAParameters parameters, GameType game, int nPlayers) {
         // Now initialise the other bits and pieces needed for the NTBEA package
         this.params = parameters;
-        landscapeModel = new NTupleSystem(params.searchSpace);
-        landscapeModel.setUse3Tuple(params.useThreeTuples);
-        landscapeModel.addTuples();
-
-        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+        initialiseModel();
+        trialRnd = new Random(params.seed);
         this.game = game;
         this.nPlayers = nPlayers;
         // Set up opponents
@@ -109,6 +113,36 @@ public class NTBEA {
         );
     }
 
+    /**
+     * Creates an independent copy of this NTBEA (with its own landscape model, evaluator and copies of the opponents)
+     * to run one of the repeats. Everything else (parameters and heuristics) is shared.
+     * This must be called on the thread that owns the template, as copying the opponents may use their Random.
+     */
+    protected NTBEA(NTBEA template, long seed) {
+        this.params = template.params;
+        initialiseModel();
+        trialRnd = new Random(seed);
+        this.game = template.game;
+        this.nPlayers = template.nPlayers;
+        this.stateHeuristic = template.stateHeuristic;
+        this.gameHeuristic = template.gameHeuristic;
+        evaluator = new GameEvaluator(game, params.searchSpace, params.gameParams, nPlayers,
+                template.evaluator.opponents.stream().map(AbstractPlayer::copy).collect(Collectors.toList()),
+                seed, stateHeuristic, gameHeuristic, true);
+    }
+
+    private void initialiseModel() {
+        landscapeModel = new NTupleSystem(params.searchSpace);
+        landscapeModel.setUse3Tuple(params.useThreeTuples);
+        landscapeModel.addTuples();
+
+        searchFramework = new NTupleBanditEA(landscapeModel, params.kExplore, params.neighbourhoodSize);
+    }
+
+    protected NTBEA createRepeatWorker(long seed) {
+        return new NTBEA(this, seed);
+    }
+
     public void setOpponents(List<AbstractPlayer> opponents) {
         evaluator.opponents = opponents;
     }
@@ -125,8 +159,22 @@ public class NTBEA {
      */
     public Pair<Object, int[]> run() {
 
-        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
-            runIteration();
+        if (params.nThreads > 1) {
+            evaluationPool = ThreadPools.newDaemonPool(params.nThreads, "NTBEA-" + game.name());
+        }
+        try {
+            if (evaluationPool != null && params.repeats > 1) {
+                runIterationsInParallel();
+            } else {
+                for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+                    runIteration();
+                }
+            }
+        } finally {
+            if (evaluationPool != null) {
+                evaluationPool.shutdownNow();
+                evaluationPool = null;
+            }
         }
 
         // After all runs are complete, if tournamentGames are specified, then we allow all the
@@ -163,6 +211,7 @@ public class NTBEA {
 
                 RoundRobinTournament tournament = new RoundRobinTournament(players, game, nPlayers, gamesPerMatchup, NO_SELF_PLAY, params.gameParams, params.byTeam);
                 tournament.verbose = false;
+                tournament.setNThreads(params.nThreads);
                 createListeners().forEach(tournament::addListener);
                 tournament.run();
                 // create a new list of results in descending order of score
@@ -213,7 +262,69 @@ public class NTBEA {
 
     protected void runTrials() {
         evaluator.reset();
-        searchFramework.runTrial(evaluator, params.iterationsPerRun);
+        if (evaluationPool != null)
+            runBatchedTrials();
+        else
+            searchFramework.runTrial(evaluator, params.iterationsPerRun);
+    }
+
+    /**
+     * This is the NTBEA loop of NTupleBanditEA.runTrial(), except that each step evaluates a batch of up to
+     * params.nThreads points at the same time, rather than one. The batch is the best distinct neighbours of the
+     * current point (using the same mean + kExplore * exploration estimate), and the results are added to the
+     * landscape model in that order. The first in the batch is then the current point for the next step.
+     * Neighbours come from trialRnd (the library uses an unseeded Random), so a run is reproducible for a given seed.
+     */
+    protected void runBatchedTrials() {
+        ITPSearchSpace searchSpace = params.searchSpace;
+        int nNeighbours = Math.max(5, (int) Math.min(params.neighbourhoodSize, SearchSpaceUtil.size(searchSpace) / 4.0));
+        int[] current = new int[searchSpace.nDims()];
+        for (int i = 0; i < current.length; i++)
+            current[i] = trialRnd.nextInt(searchSpace.nValues(i));
+        List<int[]> batch = new ArrayList<>();
+        batch.add(current);
+        batch.addAll(bestNeighbours(current, Math.min(params.nThreads, params.iterationsPerRun) - 1, nNeighbours));
+
+        int nEvaluated = 0;
+        while (nEvaluated < params.iterationsPerRun) {
+            double[] results = evaluator.evaluate(batch, evaluationPool);
+            for (int i = 0; i < results.length; i++)
+                landscapeModel.addPoint(batch.get(i), results[i]);
+            nEvaluated += results.length;
+            batch = bestNeighbours(batch.get(0), Math.min(params.nThreads, params.iterationsPerRun - nEvaluated), nNeighbours);
+        }
+    }
+
+    private List<int[]> bestNeighbours(int[] current, int batchSize, int nNeighbours) {
+        if (batchSize <= 0)
+            return Collections.emptyList();
+        Map<List<Integer>, int[]> neighbours = new LinkedHashMap<>();
+        for (int n = 0; n < nNeighbours; n++) {
+            int[] neighbour = mutate(current);
+            neighbours.putIfAbsent(Arrays.stream(neighbour).boxed().collect(Collectors.toList()), neighbour);
+        }
+        Map<int[], Double> values = new HashMap<>();
+        for (int[] neighbour : neighbours.values())
+            values.put(neighbour, landscapeModel.getMeanEstimate(neighbour)
+                    + params.kExplore * landscapeModel.getExplorationEstimate(neighbour)
+                    + trialRnd.nextDouble() * 1e-6);  // to break ties
+        return neighbours.values().stream()
+                .sorted(Comparator.comparingDouble(n -> -values.get(n)))
+                .limit(batchSize)
+                .collect(Collectors.toList());
+    }
+
+    // each value changes with probability 1/nDims, and at least one always does (as DefaultMutator)
+    private int[] mutate(int[] point) {
+        ITPSearchSpace searchSpace = params.searchSpace;
+        int[] retValue = point.clone();
+        int alwaysChanged = trialRnd.nextInt(retValue.length);
+        for (int i = 0; i < retValue.length; i++) {
+            int nValues = searchSpace.nValues(i);
+            if (nValues > 1 && (i == alwaysChanged || trialRnd.nextDouble() < 1.0 / retValue.length))
+                retValue[i] = (point[i] + 1 + trialRnd.nextInt(nValues - 1)) % nValues;
+        }
+        return retValue;
     }
 
     protected void runIteration() {
@@ -221,9 +332,41 @@ public class NTBEA {
 
         runTrials();
 
+        reportTrials();
+
+        recordIteration(evaluateBestOfSampled());
+    }
+
+    /**
+     * Runs all the repeats at once, each on its own thread with its own landscape model and evaluator.
+     * The results are then reported and recorded in the order of the repeats, as they are when run in turn.
+     */
+    private void runIterationsInParallel() {
+        Random seeds = new Random(params.seed);
+        List<NTBEA> workers = new ArrayList<>();
+        List<Future<Pair<Pair<Double, Double>, int[]>>> results = new ArrayList<>();
+        for (int i = 0; i < params.repeats; i++) {
+            NTBEA worker = createRepeatWorker(seeds.nextLong());
+            workers.add(worker);
+            results.add(evaluationPool.submit(() -> {
+                worker.landscapeModel.reset();
+                worker.runTrials();
+                return worker.evaluateBestOfSampled();
+            }));
+        }
+        for (currentIteration = 0; currentIteration < params.repeats; currentIteration++) {
+            Pair<Pair<Double, Double>, int[]> result = ThreadPools.get(results.get(currentIteration), "parallel NTBEA");
+            workers.get(currentIteration).reportTrials();
+            recordIteration(result);
+        }
+    }
+
+    protected void reportTrials() {
         if (params.verbose)
             logResults();
+    }
 
+    private Pair<Pair<Double, Double>, int[]> evaluateBestOfSampled() {
         int[] thisWinnerSettings = Arrays.stream(landscapeModel.getBestOfSampled())
                 .mapToInt(d -> (int) d)
                 .toArray();
@@ -232,10 +375,12 @@ public class NTBEA {
         Pair<Double, Double> scoreOfBestAgent = params.evalGames == 0
                 ? new Pair<>(landscapeModel.getMeanEstimate(landscapeModel.getBestOfSampled()), 0.0)
                 : evaluateWinner(thisWinnerSettings);
+        return new Pair<>(scoreOfBestAgent, thisWinnerSettings);
+    }
 
-        winnersPerRun.add(params.searchSpace.getAgent(thisWinnerSettings));
-        winnerSettings.add(thisWinnerSettings);
-        Pair<Pair<Double, Double>, int[]> resultToReport = new Pair<>(scoreOfBestAgent, thisWinnerSettings);
+    private void recordIteration(Pair<Pair<Double, Double>, int[]> resultToReport) {
+        winnersPerRun.add(params.searchSpace.getAgent(resultToReport.b));
+        winnerSettings.add(resultToReport.b);
         if (params.verbose)
             printDetailsOfRun(resultToReport);
         logDetailsOfRun(resultToReport);
@@ -252,8 +397,9 @@ public class NTBEA {
 
     protected Pair<Double, Double> evaluateWinner(int[] winnerSettings) {
 
-        double[] results = IntStream.range(0, params.evalGames)
-                .mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
+        double[] results = evaluationPool != null
+                ? evaluator.evaluate(Collections.nCopies(params.evalGames, winnerSettings), evaluationPool)
+                : IntStream.range(0, params.evalGames).mapToDouble(answer -> evaluator.evaluate(winnerSettings)).toArray();
 
         double avg = Arrays.stream(results).average().orElse(0.0);
         double stdErr = Math.sqrt(Arrays.stream(results)
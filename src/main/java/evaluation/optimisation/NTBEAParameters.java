@@ -44,6 +44,7 @@ public class NTBEAParameters {
     public ITPSearchSpace searchSpace;
     public AbstractParameters gameParams;
     public boolean byTeam;
+    public int nThreads;
 
     public NTBEAParameters(Map<RunArg, Object> args) {
         this(args, Function.identity());
@@ -64,6 +65,7 @@ public class NTBEAParameters {
         verbose = (boolean) args.get(RunArg.verbose);
         seed = args.get(RunArg.seed) instanceof Long ? ((Long)args.get(RunArg.seed)).intValue() : (int) args.get(RunArg.seed)  ;
         byTeam = (boolean) args.get(RunArg.byTeam);
+        nThreads = (int) args.get(RunArg.nThreads);
         GameType game = GameType.valueOf(args.get(RunArg.game).toString());
         gameParams = args.get(RunArg.gameParams).equals("") ? null :
                 AbstractParameters.createFromFile(game, (String) args.get(RunArg.gameParams));
@@ -87,7 +89,7 @@ public class NTBEAParameters {
             if (fileExists) {
                 // We import the file as a JSONObject
                 String rawJSON = JSONUtils.readJSONFile(searchSpaceFile, preprocessor);
-                json = (JSONObject) parser.parse(rawJSON);
+                json = (JSONObject) parser().parse(rawJSON);
                 className = (String) json.get("class");
                 if (className == null) {
                     System.out.println("No class property found in SearchSpaceJSON file. This is required to specify the ITunableParameters class that the file complements");
@@ -1,14 +1,21 @@
 package evaluation.tournaments;
 
+import core.AbstractGameState;
 import core.AbstractParameters;
 import core.AbstractPlayer;
+import core.CoreParameters;
+import core.Game;
+import evaluation.listeners.EventRecorder;
 import evaluation.listeners.IGameListener;
 import evaluation.listeners.TournamentMetricsGameListener;
 import games.GameType;
 import utilities.Pair;
+import utilities.ThreadPools;
 
 import java.io.FileWriter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -39,6 +46,12 @@ public class RoundRobinTournament extends AbstractTournament {
     protected long randomSeed = System.currentTimeMillis();
     private int[] gameSeeds;
 
+    // With more than one thread each game is played on its own Game, with copies of the players; the results
+    // (and the events for the listeners) are recorded in the order the games were started, not the order they finish
+    private int nThreads = 1;
+    private ExecutorService gamePool;
+    private final Deque<Future<GameRecord>> gamesInProgress = new ArrayDeque<>();
+
     /**
      * Create a round robin tournament, which plays all agents against all others.
      *
@@ -98,8 +111,19 @@ public class RoundRobinTournament extends AbstractTournament {
             game.addListener(gameTracker);
         }
         LinkedList<Integer> matchUp = new LinkedList<>();
-        createAndRunMatchUp(matchUp);
-        reportResults();
+        if (nThreads > 1) {
+            gamePool = ThreadPools.newDaemonPool(nThreads, "Tournament-" + game.getGameType().name());
+        }
+        try {
+            createAndRunMatchUp(matchUp);
+            reportResults();
+        } finally {
+            if (gamePool != null) {
+                gamePool.shutdownNow();
+                gamePool = null;
+                gamesInProgress.clear();
+            }
+        }
 
         for (IGameListener listener : listeners)
             listener.report();
@@ -196,6 +220,37 @@ public class RoundRobinTournament extends AbstractTournament {
             System.out.printf("Evaluate %s at %tT%n", agentIDsInThisGame.toString(), System.currentTimeMillis());
         LinkedList<AbstractPlayer> matchUpPlayers = new LinkedList<>();
 
+        for (int agentID : agentIDsInThisGame)
+            matchUpPlayers.add(this.agents.get(agentID));
+
+        if (gamePool == null)
+            startMatchUp(agentIDsInThisGame);
+
+        // Run the game N = gamesPerMatchUp times with these players
+        for (int i = 0; i < nGames; i++) {
+            // Use the same seeds for all games in each matchup (if gameSeeds specified)
+            long currentSeed = gameSeeds == null ? game.getGameState().getGameParameters().getRandomSeed() + i + 1 : gameSeeds[i];
+            if (gamePool != null) {
+                // the main game is not reset, so we move its seed on as reset() would have done
+                game.getGameState().getGameParameters().setRandomSeed(currentSeed);
+                submitGame(agentIDsInThisGame, i == 0, currentSeed);
+                continue;
+            }
+            game.reset(matchUpPlayers, currentSeed);
+
+            // Randomize parameters
+            if (randomGameParams) {
+                game.getGameState().getGameParameters().randomize();
+                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+            }
+
+            game.run();  // Always running tournaments without visuals
+            recordResults(agentIDsInThisGame, game.getGameState());
+        }
+    }
+
+    private void startMatchUp(List<Integer> agentIDsInThisGame) {
+        Set<AbstractPlayer> matchUpPlayers = new HashSet<>();
         for (int agentID : agentIDsInThisGame)
             matchUpPlayers.add(this.agents.get(agentID));
 
@@ -212,78 +267,140 @@ public class RoundRobinTournament extends AbstractTournament {
         Set<String> agentNames = agents.stream().map(AbstractPlayer::toString).collect(Collectors.toSet());
         for (IGameListener listener : listeners) {
             if (listener instanceof TournamentMetricsGameListener) {
-                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, new HashSet<>(matchUpPlayers));
+                ((TournamentMetricsGameListener) listener).tournamentInit(game, nPlayers, agentNames, matchUpPlayers);
             }
         }
+    }
 
-        // Run the game N = gamesPerMatchUp times with these players
-        for (int i = 0; i < nGames; i++) {
-            // Use the same seeds for all games in each matchup (if gameSeeds specified)
-            long currentSeed = gameSeeds == null ? game.getGameState().getGameParameters().getRandomSeed() + i + 1 : gameSeeds[i];
-            game.reset(matchUpPlayers, currentSeed);
+    /**
+     * Starts one game on the thread pool. Everything that uses a random seed (the game seed, and the copies of the
+     * players) is set up here on the calling thread, so that the games are the same for any number of threads.
+     */
+    private void submitGame(List<Integer> agentIDsInThisGame, boolean firstInMatchUp, long seed) {
+        List<AbstractPlayer> players = copyPlayers(agentIDsInThisGame);
+        GameType gameType = game.getGameType();
+        AbstractParameters params = game.getGameState().getGameParameters().copy();
+        CoreParameters coreParams = game.getCoreParameters();
+        GameRecord record = new GameRecord(new ArrayList<>(agentIDsInThisGame), firstInMatchUp,
+                listeners.isEmpty() ? null : new EventRecorder());
+
+        // we limit the games waiting to be recorded, as each holds a finished Game (and possibly all its events)
+        while (gamesInProgress.size() >= 2 * nThreads)
+            recordGame(nextFinishedGame());
+
+        gamesInProgress.add(gamePool.submit(() -> {
+            Game taskGame = gameType.createGameInstance(nPlayers, seed, params);
+            taskGame.setCoreParameters(coreParams);
+            if (record.events != null)
+                taskGame.addListener(record.events);
+            taskGame.reset(players, seed);
+            if (randomGameParams)
+                taskGame.getGameState().getGameParameters().randomize();
+            taskGame.run();
+            record.game = taskGame;
+            return record;
+        }));
+    }
 
-            // Randomize parameters
-            if (randomGameParams) {
-                game.getGameState().getGameParameters().randomize();
-                System.out.println("Game parameters: " + game.getGameState().getGameParameters());
+    /**
+     * Games played in parallel cannot share the agents, so each has its own copies. copy() seeds each copy from the
+     * original agent's random number generator, and the copies are made here in game order, so the results are the
+     * same for any number of threads above one. With one thread the original agents play every game, as they always
+     * have, so those results will differ.
+     */
+    private List<AbstractPlayer> copyPlayers(List<Integer> agentIDsInThisGame) {
+        List<AbstractPlayer> players = new ArrayList<>();
+        for (int agentID : agentIDsInThisGame) {
+            AbstractPlayer original = this.agents.get(agentID);
+            AbstractPlayer copy = original.copy();
+            copy.setName(original.toString());
+            players.add(copy);
+        }
+        return players;
+    }
+
+    private GameRecord nextFinishedGame() {
+        return ThreadPools.get(gamesInProgress.poll(), "parallel tournament");
+    }
+
+    private void recordGame(GameRecord record) {
+        if (record.firstInMatchUp)
+            startMatchUp(record.agentIDs);
+        AbstractGameState finalState = record.game.getGameState();
+        if (randomGameParams)
+            System.out.println("Game parameters: " + finalState.getGameParameters());
+        if (record.events != null) {
+            for (IGameListener listener : listeners) {
+                record.events.replayTo(listener);
+                listener.setGame(game);
             }
+        }
+        recordResults(record.agentIDs, finalState);
+    }
 
-            game.run();  // Always running tournaments without visuals
-            GameResult[] results = game.getGameState().getPlayerResults();
-
-            int numDraws = 0;
-            for (int j = 0; j < matchUpPlayers.size(); j++) {
-                nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
-                for (int k = 0; k < matchUpPlayers.size(); k++) {
-                    if (k != j) {
-                        nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
-                    }
+    /**
+     * Records the results of all games that have been started (in parallel mode); this does nothing otherwise
+     */
+    protected void finishGamesInProgress() {
+        while (!gamesInProgress.isEmpty())
+            recordGame(nextFinishedGame());
+    }
+
+    private void recordResults(List<Integer> agentIDsInThisGame, AbstractGameState finalState) {
+        GameResult[] results = finalState.getPlayerResults();
+        int nAgents = agentIDsInThisGame.size();
+
+        int numDraws = 0;
+        for (int j = 0; j < nAgents; j++) {
+            nGamesPlayed[agentIDsInThisGame.get(j)] += 1;
+            for (int k = 0; k < nAgents; k++) {
+                if (k != j) {
+                    nGamesPlayedPerOpponent[agentIDsInThisGame.get(j)][agentIDsInThisGame.get(k)] += 1;
                 }
+            }
 
-                // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
-                if (byTeam) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+            // now we need to be careful if we have a team game, as the agents are indexed by Team, not player
+            if (byTeam) {
+                for (int player = 0; player < finalState.getNPlayers(); player++) {
+                    if (finalState.getTeam(player) == j) {
+                        numDraws += updatePoints(finalState, results, agentIDsInThisGame, agentIDsInThisGame.get(j), player);
+                        break; // we stop after one player on the team to avoid double counting
                     }
-                } else {
-                    numDraws += updatePoints(results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
                 }
+            } else {
+                numDraws += updatePoints(finalState, results, agentIDsInThisGame, agentIDsInThisGame.get(j), j);
             }
+        }
 
-            if (numDraws > 0) {
-                double pointsPerDraw = 1.0 / numDraws;
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
-                    if (results[j] == GameResult.DRAW_GAME)
-                        pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
-                }
+        if (numDraws > 0) {
+            double pointsPerDraw = 1.0 / numDraws;
+            for (int j = 0; j < nAgents; j++) {
+                if (results[j] == GameResult.DRAW_GAME) pointsPerPlayer[agentIDsInThisGame.get(j)] += pointsPerDraw;
+                if (results[j] == GameResult.DRAW_GAME)
+                    pointsPerPlayerSquared[agentIDsInThisGame.get(j)] += pointsPerDraw * pointsPerDraw;
             }
+        }
 
-            if (verbose) {
-                StringBuffer sb = new StringBuffer();
-                sb.append("[");
-                for (int j = 0; j < matchUpPlayers.size(); j++) {
-                    for (int player = 0; player < game.getGameState().getNPlayers(); player++) {
-                        if (game.getGameState().getTeam(player) == j) {
-                            sb.append(results[player]).append(",");
-                            break; // we stop after one player on the team to avoid double counting
-                        }
+        if (verbose) {
+            StringBuffer sb = new StringBuffer();
+            sb.append("[");
+            for (int j = 0; j < nAgents; j++) {
+                for (int player = 0; player < finalState.getNPlayers(); player++) {
+                    if (finalState.getTeam(player) == j) {
+                        sb.append(results[player]).append(",");
+                        break; // we stop after one player on the team to avoid double counting
                     }
                 }
-                sb.setCharAt(sb.length() - 1, ']');
-                System.out.println(sb);
             }
-
+            sb.setCharAt(sb.length() - 1, ']');
+            System.out.println(sb);
         }
-        totalGamesRun += nGames;
+        totalGamesRun++;
     }
 
-    private int updatePoints(GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
+    private int updatePoints(AbstractGameState finalState, GameResult[] results, List<Integer> matchUpPlayers, int j, int player) {
         // j is the index of the agent in the matchup; player is the corresponding player number in the game
-        int ordinalPos = game.getGameState().getOrdinalPosition(player);
+        int ordinalPos = finalState.getOrdinalPosition(player);
         rankPerPlayer[j] += ordinalPos;
         rankPerPlayerSquared[j] += ordinalPos * ordinalPos;
 
@@ -327,6 +444,7 @@ public class RoundRobinTournament extends AbstractTournament {
     }
 
     protected void reportResults() {
+        finishGamesInProgress();
         calculateFinalResults();
         boolean toFile = resultsFile != null && !resultsFile.equals("");
         ArrayList<String> dataDump = new ArrayList<>();
@@ -437,4 +555,26 @@ public class RoundRobinTournament extends AbstractTournament {
     public int getNumberOfAgents() {
         return agents.size();
     }
+
+    /**
+     * @param nThreads - the number of games to play at the same time (1, the default, plays them in turn on one Game)
+     */
+    public void setNThreads(int nThreads) {
+        if (nThreads < 1)
+            throw new IllegalArgumentException("A tournament needs at least one thread: " + nThreads);
+        this.nThreads = nThreads;
+    }
+
+    private static class GameRecord {
+        final List<Integer> agentIDs;
+        final boolean firstInMatchUp;
+        final EventRecorder events;
+        Game game;
+
+        GameRecord(List<Integer> agentIDs, boolean firstInMatchUp, EventRecorder events) {
+            this.agentIDs = agentIDs;
+            this.firstInMatchUp = firstInMatchUp;
+            this.events = events;
+        }
+    }
 }
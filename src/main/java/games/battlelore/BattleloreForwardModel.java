@@ -1,5 +1,6 @@
 package games.battlelore;
 
+import core.AbstractGameData;
 import core.AbstractGameState;
 import core.StandardForwardModel;
 import core.actions.AbstractAction;
@@ -21,8 +22,7 @@ public class BattleloreForwardModel extends StandardForwardModel {
     protected void _setup(AbstractGameState initialState) {
         BattleloreGameParameters gameParams = (BattleloreGameParameters) initialState.getGameParameters();
         BattleloreGameState gameState = (BattleloreGameState) initialState;
-        BattleloreData _data = new BattleloreData();
-        _data.load(gameParams.getDataPath());
+        BattleloreData _data = AbstractGameData.loadCached(gameParams.getDataPath(), BattleloreData.class);
 
         if (gameState.getNPlayers() != 2) {
             throw new IllegalArgumentException("3 or more players are not supported");
@@ -25,6 +25,9 @@ import static games.catan.CatanConstants.HEX_SIDES;
 import static games.catan.components.Building.Type.Settlement;
 
 public class CatanActionFactory {
+
+    private static final CatanParameters.Resource[] resources = CatanParameters.Resource.values();
+
     /**
      * Calculates setup actions
      *
@@ -165,6 +168,59 @@ public class CatanActionFactory {
         return actions;
     }
 
+    /**
+     * @return the number of OfferPlayerTrade actions getPlayerTradeOfferActions() creates for a new offer in the flat
+     * action space, without creating them
+     */
+    public static int countNewTradeOffers(CatanGameState gs, int playerID) {
+        int nOffers = 0;
+        for (int playerIndex = 0; playerIndex < gs.getNPlayers(); playerIndex++) {
+            if (playerIndex == playerID || gs.getNResourcesInHand(playerIndex) == 0) continue;
+            for (CatanParameters.Resource resToOffer : resources) {
+                for (CatanParameters.Resource resToRequest : resources) {
+                    nOffers += nNewTradeOffers(gs, playerID, resToOffer, resToRequest);
+                }
+            }
+        }
+        return nOffers;
+    }
+
+    /**
+     * @return the new trade offer at this index in the list from getPlayerTradeOfferActions() (in the flat action
+     * space), creating only that one
+     */
+    public static AbstractAction getNewTradeOffer(CatanGameState gs, int playerID, int index) {
+        int maxToRequest = ((CatanParameters) gs.getGameParameters()).max_resources_request_trade;
+        for (int playerIndex = 0; playerIndex < gs.getNPlayers(); playerIndex++) {
+            if (playerIndex == playerID || gs.getNResourcesInHand(playerIndex) == 0) continue;
+            for (CatanParameters.Resource resToOffer : resources) {
+                for (CatanParameters.Resource resToRequest : resources) {
+                    int nOffers = nNewTradeOffers(gs, playerID, resToOffer, resToRequest);
+                    if (index < nOffers) {
+                        // as createTradeOfferActions(), with the quantity offered in the outer loop
+                        return new OfferPlayerTrade(OfferPlayerTrade.Stage.Offer, resToOffer, index / maxToRequest + 1,
+                                resToRequest, index % maxToRequest + 1, playerID, playerIndex);
+                    }
+                    index -= nOffers;
+                }
+            }
+        }
+        throw new IllegalArgumentException("No new trade offer " + index);
+    }
+
+    /**
+     * @return the number of new offers of one resource for another, as in getPlayerTradeOfferActions()
+     */
+    private static int nNewTradeOffers(CatanGameState gs, int playerID,
+                                       CatanParameters.Resource resToOffer, CatanParameters.Resource resToRequest) {
+        if (resToOffer == CatanParameters.Resource.WILD || resToRequest == CatanParameters.Resource.WILD || resToOffer == resToRequest) {
+            return 0;
+        }
+        int maxToOffer = gs.getPlayerResources(playerID).get(resToOffer).getValue();
+        int maxToRequest = ((CatanParameters) gs.getGameParameters()).max_resources_request_trade;
+        return Math.max(0, maxToOffer) * Math.max(0, maxToRequest);
+    }
+
     /**
      * Helper function that lists all combinations of trade offers, from 1 to maxToOffer of resource offered, and from 1 to maxToRequest for resource requested
      * @param offeringPlayer - player offering trade originally (may not be active player)
@@ -286,6 +286,35 @@ public class CatanForwardModel extends StandardForwardModel {
         return mainActions;
     }
 
+    @Override
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        CatanGameState cgs = (CatanGameState) gameState;
+        CatanParameters cp = (CatanParameters) gameState.getGameParameters();
+        int player = cgs.getCurrentPlayer();
+        if (cgs.getGamePhase() == Setup || cgs.getGamePhase() == Robber || cgs.tradeOffer != null) {
+            return super._randomAction(gameState, rnd);
+        }
+
+        // Main phase: most of the actions are usually new offers to trade with other players, which we count
+        // and then create only if one is chosen. The rest are as in _computeAvailableActions()
+        int nOffers = 0;
+        if (cgs.nTradesThisTurn < cp.max_trade_actions_allowed && cgs.getNResourcesInHand(player) > 0) {
+            nOffers = CatanActionFactory.countNewTradeOffers(cgs, player);
+        }
+        List<AbstractAction> otherActions = new ArrayList<>(CatanActionFactory.getDefaultTradeActions(cgs, ActionSpace.Default, player));
+        otherActions.addAll(CatanActionFactory.getBuyActions(cgs, ActionSpace.Default, player));
+        if (cgs.noDevelopmentCardPlayed()) {
+            otherActions.addAll(CatanActionFactory.getDevCardActions(cgs, ActionSpace.Default, player));
+        }
+        otherActions.add(new DoNothing());  // End turn
+
+        int index = randomIndex(nOffers + otherActions.size(), rnd);
+        if (index < nOffers) {
+            return CatanActionFactory.getNewTradeOffer(cgs, player, index);
+        }
+        return otherActions.get(index - nOffers);
+    }
+
     private CatanTile[][] generateBoard(CatanParameters params) {
         // Shuffle the tile types
         ArrayList<CatanTile.TileType> tileList = new ArrayList<>();
@@ -72,82 +72,114 @@ public class CCForwardModel extends StandardForwardModel {
     private List<AbstractAction> loadPlayerActions(int player, CCGameState state) {
         //player index to colour
         Peg.Colour playerCol = state.getPlayerColour(player);
+        List<CCNode> nodes = state.starBoard.getBoardNodes();
+        MoveFinder finder = new MoveFinder(nodes.size());
         List<AbstractAction> actions = new ArrayList<>();
-        for (CCNode node : state.starBoard.getBoardNodes()) { // Check all Nodes
+        for (CCNode node : nodes) { // Check all Nodes
             if (node.getOccupiedPeg() != null && node.getOccupiedPeg().getColour() == playerCol) {
-                actions.addAll(exploreNodeAction(node, state));
+                int nMoves = finder.find(node);
+                for (int i = 0; i < nMoves; i++) {
+                    actions.add(new MovePeg(node.getID(), finder.destinations[i].getID()));
+                }
             }
         }
         return actions;
     }
 
+    @Override
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        // count the moves of each peg, and then create just the one chosen
+        CCGameState state = (CCGameState) gameState;
+        Peg.Colour playerCol = state.getPlayerColour(gameState.getCurrentPlayer());
+        List<CCNode> nodes = state.starBoard.getBoardNodes();
+        MoveFinder finder = new MoveFinder(nodes.size());
+        int[] pegMoves = new int[nodes.size()];
+        int total = 0;
+        for (int n = 0; n < nodes.size(); n++) {
+            CCNode node = nodes.get(n);
+            if (node.getOccupiedPeg() != null && node.getOccupiedPeg().getColour() == playerCol) {
+                pegMoves[n] = finder.find(node);
+                total += pegMoves[n];
+            }
+        }
+        int index = randomIndex(total, rnd);
+        if (index < 0) return null;
+        for (int n = 0; n < nodes.size(); n++) {
+            if (index < pegMoves[n]) {
+                finder.find(nodes.get(n));
+                return new MovePeg(nodes.get(n).getID(), finder.destinations[index].getID());
+            }
+            index -= pegMoves[n];
+        }
+        throw new AssertionError("Move " + index + " not found");
+    }
+
     /**
-     * In which we use a form of breadth-first search to find all the possible moves we can make
-     * starting from the given node
-     * @param node
-     * @param state
-     * @return
+     * Finds the nodes a peg can move to: the empty adjacent nodes, and all those it can reach with a chain
+     * of jumps (using a form of breadth-first search), without revisiting previous nodes.
+     * The arrays are reused for each peg, so finding the moves creates no objects.
      */
-    private static List<AbstractAction> exploreNodeAction(CCNode node, CCGameState state) {
-        Peg.Colour playerCol = node.getOccupiedPeg().getColour();
-        List<AbstractAction> actions = new ArrayList<>();
-        // first get the single directly adjacent moves
-        for (CCNode nei_0 : node.getNeighbours()) {
-            if (!nei_0.isNodeOccupied() && isPlayerPlaceable(nei_0.getBaseColour(), playerCol)) {
-                if (node.getOccupiedPeg().getInDestination()) {
-                    if (nei_0.getBaseColour() != Peg.Colour.neutral) {
-                        MovePeg action = new MovePeg(node.getID(), nei_0.getID());
-                        if (!actions.contains(action)) {
-                            actions.add(action);
-                        }
-                    }
-                } else {
-                    MovePeg action = new MovePeg(node.getID(), nei_0.getID());
-                    if (!actions.contains(action)) {
-                        actions.add(action);
+    private static class MoveFinder {
+        final CCNode[] destinations;  // the first entries are those found by the last call to find()
+        final CCNode[] toVisit;
+        final boolean[] visited, isDestination;  // indexed by node ID
+
+        MoveFinder(int nNodes) {
+            destinations = new CCNode[nNodes];
+            toVisit = new CCNode[nNodes];
+            visited = new boolean[nNodes];
+            isDestination = new boolean[nNodes];
+        }
+
+        /**
+         * @return the number of destinations for the peg on this node
+         */
+        int find(CCNode node) {
+            Peg.Colour playerCol = node.getOccupiedPeg().getColour();
+            int nDestinations = 0;
+            // first get the single directly adjacent moves
+            for (CCNode nei_0 : node.getNeighbours()) {
+                if (!nei_0.isNodeOccupied() && isPlayerPlaceable(nei_0.getBaseColour(), playerCol)) {
+                    // once in the target zone, a peg may only step within it
+                    if (!node.getOccupiedPeg().getInDestination() || nei_0.getBaseColour() != Peg.Colour.neutral) {
+                        isDestination[nei_0.getID()] = true;
+                        destinations[nDestinations++] = nei_0;
                     }
                 }
             }
-        }
-        // then get the jumping stuff
-        repeatAction(node, actions, playerCol);
-        return actions;
-    }
 
-    private static void repeatAction(CCNode node, List<AbstractAction> actions, Peg.Colour playerCol) {
-        HashSet<CCNode> visited = new HashSet<>();
-        HashSet<CCNode> toVisit = new HashSet<>();
-        toVisit.add(node);
-
-        // This should be looking for a chain of moves, without revisiting previous nodes
-        // that starts at the given node. Hence (if true), it should only be called once per peg
-        // and not once per neighbouring peg
-
-        while (!toVisit.isEmpty()) {
-            CCNode expNode = toVisit.iterator().next();
-            visited.add(expNode);
-            toVisit.remove(expNode);
-            // once in target zone, a peg may not leave it
-            boolean canLeaveZone = expNode.getBaseColour() != playerCol;
-            for (CCNode neighbour : expNode.getNeighbours()) {
-                int side = expNode.getNeighbourSideMapping().get(neighbour);
-                if (neighbour.isNodeOccupied()) {
-                    CCNode stride = neighbourInDirection(neighbour, side);
-                    if (stride != null && !stride.isNodeOccupied() &&
-                            (canLeaveZone || stride.getBaseColour() == playerCol) &&
-                            !visited.contains(stride)) {
-                        toVisit.add(stride);
+            // then get the jumping stuff
+            int head = 0, tail = 0;
+            toVisit[tail++] = node;
+            visited[node.getID()] = true;
+            while (head < tail) {
+                CCNode expNode = toVisit[head++];
+                // once in target zone, a peg may not leave it
+                boolean canLeaveZone = expNode.getBaseColour() != playerCol;
+                for (CCNode neighbour : expNode.getNeighbours()) {
+                    if (neighbour.isNodeOccupied()) {
+                        int side = expNode.getNeighbourSideMapping().get(neighbour);
+                        CCNode stride = neighbourInDirection(neighbour, side);
+                        if (stride != null && !stride.isNodeOccupied() &&
+                                (canLeaveZone || stride.getBaseColour() == playerCol) &&
+                                !visited[stride.getID()]) {
+                            visited[stride.getID()] = true;
+                            toVisit[tail++] = stride;
+                            if (!isDestination[stride.getID()] && isPlayerPlaceable(stride.getBaseColour(), playerCol)) {
+                                isDestination[stride.getID()] = true;
+                                destinations[nDestinations++] = stride;
+                            }
+                        }
                     }
                 }
             }
-        }
-        visited.remove(node);
-        visited.removeIf(n -> (!isPlayerPlaceable(n.getBaseColour(), playerCol)));
-        for (CCNode v : visited) {
-            MovePeg action = new MovePeg(node.getID(), v.getID());
-            if (!actions.contains(action)) {
-                actions.add(action);
-            }
+
+            // clear the marks for the next peg
+            for (int i = 0; i < tail; i++)
+                visited[toVisit[i].getID()] = false;
+            for (int i = 0; i < nDestinations; i++)
+                isDestination[destinations[i].getID()] = false;
+            return nDestinations;
         }
     }
 
@@ -202,7 +234,8 @@ public class CCForwardModel extends StandardForwardModel {
         CCParameters params = (CCParameters) state.getGameParameters();
         int[] indices = params.colourIndices.get(params.boardOpposites.get(colour));
         for (int i : indices) {
-            state.starBoard.getBoardNodes().get(i).setOccupiedPeg(new Peg(colour, state.starBoard.getBoardNodes().get(i)));
+            CCNode node = state.starBoard.getBoardNodes().get(i);
+            state.starBoard.setPeg(node, new Peg(colour, node));
         }
     }
 }
@@ -72,6 +72,16 @@ public class CCGameState extends AbstractGameState {
         return Objects.equals(starBoard, that.starBoard);
     }
 
+    @Override
+    protected long _getStateHash() {
+        return starBoard.getStateHash();
+    }
+
+    @Override
+    public boolean hasStateHash() {
+        return true;
+    }
+
     @Override
     public int hashCode() {
         int result = Objects.hash(super.hashCode(), starBoard);
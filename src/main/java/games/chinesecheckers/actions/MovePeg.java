@@ -29,8 +29,7 @@ public class MovePeg extends AbstractAction {
 
         Peg peg = nodeStart.getOccupiedPeg();
 
-        nodeStart.setOccupiedPeg(null);
-        nodeDestination.setOccupiedPeg(peg);
+        state.getStarBoard().setPeg(nodeStart, null);
 
         // Then check to see if this is the destination node for the peg
         Peg.Colour colour = peg.getColour();
@@ -41,6 +40,7 @@ public class MovePeg extends AbstractAction {
                 break;
             }
         }
+        state.getStarBoard().setPeg(nodeDestination, peg);
 
         return true;
     }
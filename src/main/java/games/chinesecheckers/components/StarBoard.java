@@ -4,12 +4,16 @@ import core.CoreConstants;
 import core.components.Component;
 import core.interfaces.IComponentContainer;
 import games.chinesecheckers.CCParameters;
+import utilities.Zobrist;
+
 import java.util.*;
 
 public class StarBoard extends Component implements IComponentContainer<CCNode> {
 
     // List of nodes in the board graph
     protected List<CCNode> boardNodes;
+    // Zobrist hash of the pegs on the board, kept up to date by setPeg()
+    private long stateHash;
     
     public StarBoard() {
         super(CoreConstants.ComponentType.BOARD);
@@ -52,7 +56,8 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
             }
         }
         // Assign new neighbours
-        b.setBoardNodes(new ArrayList<>(nodeCopies.values()));
+        b.boardNodes = new ArrayList<>(nodeCopies.values());
+        b.stateHash = stateHash;
         // Copy properties
         copyComponentTo(b);
 
@@ -73,6 +78,28 @@ public class StarBoard extends Component implements IComponentContainer<CCNode>
      */
     public void setBoardNodes(List<CCNode> boardNodes) {
         this.boardNodes = boardNodes;
+        stateHash = 0;
+        for (CCNode node : boardNodes)
+            stateHash ^= pegKey(node, node.getOccupiedPeg());
+    }
+
+    /**
+     * Puts a peg on a node (or removes the peg from it if peg is null). This should be used rather than
+     * CCNode.setOccupiedPeg() so that getStateHash() is kept up to date.
+     */
+    public void setPeg(CCNode node, Peg peg) {
+        stateHash ^= pegKey(node, node.getOccupiedPeg()) ^ pegKey(node, peg);
+        node.setOccupiedPeg(peg);
+    }
+
+    @Override
+    public long getStateHash() {
+        return stateHash;
+    }
+
+    private static long pegKey(CCNode node, Peg peg) {
+        if (peg == null) return 0;
+        return Zobrist.key(node.getID(), peg.getColour().ordinal(), peg.getInDestination() ? 1 : 0);
     }
 
     @Override
@@ -99,6 +99,16 @@ public class Connect4GameState extends AbstractGameState implements IPrintable,
         return sb.toString();
     }
 
+    @Override
+    protected long _getStateHash() {
+        return gridBoard.getStateHash();
+    }
+
+    @Override
+    public boolean hasStateHash() {
+        return true;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
@@ -53,4 +53,9 @@ public class DiamantCard extends Card {
     public Card copy() {
         return this;
     }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
 }
@@ -43,8 +43,7 @@ public class DiceMonasteryForwardModel extends StandardForwardModel {
         DiceMonasteryGameState state = (DiceMonasteryGameState) firstState;
         state._reset();
         DiceMonasteryParams params = (DiceMonasteryParams) state.getGameParameters();
-        AbstractGameData _data = new AbstractGameData();
-        _data.load(params.getDataPath());
+        AbstractGameData _data = AbstractGameData.loadCached(params.getDataPath());
 
         state.season = SPRING;
         state.year = 1;
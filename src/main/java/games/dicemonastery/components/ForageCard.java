@@ -43,6 +43,11 @@ public class ForageCard extends Component {
         return this;  // immutable
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format("Green: %d, Red: %d, Blue: %d", green, red, blue);
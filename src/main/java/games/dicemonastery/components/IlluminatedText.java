@@ -57,6 +57,11 @@ public class IlluminatedText extends Component {
         // immutable
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o instanceof IlluminatedText) {
@@ -55,6 +55,11 @@ public class MarketCard extends Component {
         return this;  // immutable
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public String toString() {
         return String.format("CalfSkin: %d, Grain: %d, %s: %d, Beer: %d, Mead: %d, Candle: %d",
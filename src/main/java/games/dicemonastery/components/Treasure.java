@@ -39,6 +39,11 @@ public class Treasure extends Component {
         return this; // immutable
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o instanceof Treasure) {
@@ -172,4 +172,48 @@ public class DominionForwardModel extends StandardForwardModel {
                 throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
         }
     }
+
+    @Override
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        // the same choices as _computeAvailableActions(), but we count them and create just the one chosen
+        DominionGameState state = (DominionGameState) gameState;
+        int playerID = state.getCurrentPlayer();
+
+        switch (state.getGamePhase().toString()) {
+            case "Play":
+                if (state.actionsLeft() > 0) {
+                    // one action for each different action card in hand
+                    Deck<DominionCard> hand = state.getDeck(DeckType.HAND, playerID);
+                    Set<CardType> cardTypes = EnumSet.noneOf(CardType.class);
+                    // (get(i) rather than getComponents(), which makes a copy of the hand)
+                    for (int i = 0; i < hand.getSize(); i++) {
+                        DominionCard card = hand.get(i);
+                        if (card.isActionCard()) cardTypes.add(card.cardType());
+                    }
+                    int index = randomIndex(cardTypes.size() + 1, rnd);
+                    if (index < cardTypes.size()) {
+                        CardType chosen = new ArrayList<>(cardTypes).get(index);
+                        for (int i = 0; i < hand.getSize(); i++) {
+                            DominionCard card = hand.get(i);
+                            if (card.cardType() == chosen) return card.getAction(playerID);
+                        }
+                    }
+                }
+                return new EndPhase();
+            case "Buy":
+                int budget = state.availableSpend(playerID);
+                List<CardType> cardsToBuy = state.cardsToBuy();
+                int nAffordable = 0;
+                for (CardType type : cardsToBuy) {
+                    if (type.cost <= budget) nAffordable++;
+                }
+                int index = randomIndex(nAffordable + 1, rnd);
+                for (CardType type : cardsToBuy) {
+                    if (type.cost <= budget && index-- == 0) return new BuyCard(type, playerID);
+                }
+                return new EndPhase();
+            default:
+                throw new AssertionError("Unknown Game Phase " + state.getGamePhase());
+        }
+    }
 }
@@ -150,6 +150,11 @@ public class DominionCard extends Card {
         return this;
     }
 
+    @Override
+    public boolean isImmutable() {
+        return true;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof DominionCard) {
@@ -18,6 +18,7 @@ public class DBForwardModel extends StandardForwardModel {
         DBParameters dbp = (DBParameters) firstState.getGameParameters();
 
         dbgs.lastActionScored = false;
+        dbgs.ownershipHash = 0;
         // Generate edge to cell mapping and all cell objects with appropriate constructor
         dbgs.edgeToCellMap = new HashMap<>();
         dbgs.cellToEdgesMap = new HashMap<>();
@@ -9,6 +9,8 @@ import core.turnorders.AlternatingTurnOrder;
 import core.turnorders.StandardTurnOrder;
 import core.turnorders.TurnOrder;
 import games.GameType;
+import utilities.Vector2D;
+import utilities.Zobrist;
 
 import java.util.*;
 
@@ -30,6 +32,7 @@ public class DBGameState extends AbstractGameState {
     HashMap<DBCell, Integer> cellToOwnerMap;  // Mapping from each cell to its owner, if complete
     HashMap<DBEdge, Integer> edgeToOwnerMap;  // Mapping from each edge to its owner, if placed
     boolean lastActionScored;
+    long ownershipHash;  // Zobrist hash of cellToOwnerMap and edgeToOwnerMap, kept up to date by setEdgeOwner/setCellOwner
 
     /**
      * Constructor. Initialises some generic game state variables.
@@ -59,6 +62,7 @@ public class DBGameState extends AbstractGameState {
         dbgs.edgeToCellMap = edgeToCellMap;
         dbgs.cellToEdgesMap = cellToEdgesMap;
         dbgs.lastActionScored = lastActionScored;
+        dbgs.ownershipHash = ownershipHash;
 
         dbgs.nCellsPerPlayer = nCellsPerPlayer.clone();
         dbgs.cellToOwnerMap = (HashMap<DBCell, Integer>) cellToOwnerMap.clone();
@@ -97,6 +101,16 @@ public class DBGameState extends AbstractGameState {
         return lastActionScored == that.lastActionScored && Objects.equals(heuristic, that.heuristic) && Objects.equals(edges, that.edges) && Objects.equals(cells, that.cells) && Objects.equals(edgeToCellMap, that.edgeToCellMap) && Objects.equals(cellToEdgesMap, that.cellToEdgesMap) && Arrays.equals(nCellsPerPlayer, that.nCellsPerPlayer) && Objects.equals(cellToOwnerMap, that.cellToOwnerMap) && Objects.equals(edgeToOwnerMap, that.edgeToOwnerMap);
     }
 
+    @Override
+    protected long _getStateHash() {
+        return lastActionScored ? ~ownershipHash : ownershipHash;
+    }
+
+    @Override
+    public boolean hasStateHash() {
+        return true;
+    }
+
     @Override
     public int hashCode() {
         int result = Objects.hash(super.hashCode(), heuristic, edges, cells, edgeToCellMap, cellToEdgesMap, cellToOwnerMap, edgeToOwnerMap, lastActionScored);
@@ -147,6 +161,21 @@ public class DBGameState extends AbstractGameState {
     }
 
 
+    void setEdgeOwner(DBEdge edge, int player) {
+        edgeToOwnerMap.put(edge, player);
+        // edges have no direction, so the key must not depend on the order of the two points
+        ownershipHash ^= Zobrist.key(1, pointKey(edge.from) ^ pointKey(edge.to), player);
+    }
+
+    void setCellOwner(DBCell cell, int player) {
+        cellToOwnerMap.put(cell, player);
+        ownershipHash ^= Zobrist.key(2, pointKey(cell.position), player);
+    }
+
+    private static long pointKey(Vector2D point) {
+        return Zobrist.key(point.getX(), point.getY());
+    }
+
     public int countCompleteEdges(DBCell c) {
         int retValue = 0;
         for (DBEdge e: cellToEdgesMap.get(c)) {
@@ -197,6 +197,12 @@ public class LoveLetterCard extends Card {
 
     @Override
     public LoveLetterCard copy() {
-        return new LoveLetterCard(cardType, componentID);
+        // cards are immutable, so copies of a Deck can share them
+        return this;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
     }
 }
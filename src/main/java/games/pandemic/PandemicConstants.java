@@ -1,6 +1,7 @@
 package games.pandemic;
 
 import utilities.Hash;
+import utilities.Utils;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -30,6 +31,24 @@ public class PandemicConstants {
     // for contingency planner
     public final static int plannerDeckHash = Hash.GetInstance().hash("plannerDeck");
 
+    // disease counters (cured or not) and cube counters, in the same order as colors
+    public final static int[] diseaseHashes = new int[colors.length];
+    public final static int[] diseaseCubeHashes = new int[colors.length];
+    static {
+        for (int i = 0; i < colors.length; i++) {
+            diseaseHashes[i] = Hash.GetInstance().hash("Disease " + colors[i]);
+            diseaseCubeHashes[i] = Hash.GetInstance().hash("Disease Cube " + colors[i]);
+        }
+    }
+
+    public static int diseaseHash(String color) {
+        return diseaseHashes[Utils.indexOf(colors, color)];
+    }
+
+    public static int diseaseCubeHash(String color) {
+        return diseaseCubeHashes[Utils.indexOf(colors, color)];
+    }
+
     public enum PlayerRole {
         Any,
         Scientist,
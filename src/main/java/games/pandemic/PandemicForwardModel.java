@@ -150,8 +150,7 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         state._reset();
         PandemicParameters pp = (PandemicParameters) state.getGameParameters();
 
-        AbstractGameData _data = new AbstractGameData();
-        _data.load(pp.getDataPath());
+        AbstractGameData _data = AbstractGameData.loadCached(pp.getDataPath());
 
         state.tempDeck = new Deck<>("Temp Deck", VISIBLE_TO_ALL);
         state.areas = new HashMap<>();
@@ -195,12 +194,12 @@ public class PandemicForwardModel extends AbstractRuleBasedForwardModel {
         gameArea.putComponent(PandemicConstants.researchStationHash, researchStations);
 
         for (String color : colors) {
-            int hash = Hash.GetInstance().hash("Disease " + color);
+            int hash = diseaseHash(color);
             Counter diseaseC = _data.findCounter("Disease " + color);
             diseaseC.setValue(0);  // 0 - cure not discovered; 1 - cure discovered; 2 - eradicated
             gameArea.putComponent(hash, diseaseC);
 
-            hash = Hash.GetInstance().hash("Disease Cube " + color);
+            hash = diseaseCubeHash(color);
             Counter diseaseCubeCounter = _data.findCounter("Disease Cube " + color);
             diseaseCubeCounter.setMaximum(pp.nInitialDiseaseCubes);
             diseaseCubeCounter.setValue(pp.nInitialDiseaseCubes);
@@ -6,7 +6,6 @@ import core.components.Counter;
 import core.properties.PropertyIntArray;
 import core.AbstractGameState;
 import games.pandemic.PandemicGameState;
-import utilities.Hash;
 import utilities.Utils;
 
 import java.util.Objects;
@@ -39,8 +38,8 @@ public class TreatDisease extends AbstractAction {
     public boolean execute(AbstractGameState gs) {
         PandemicGameState pgs = (PandemicGameState) gs;
 
-        Counter diseaseToken = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease " + color));
-        Counter diseaseCubeCounter = (Counter) pgs.getComponent(Hash.GetInstance().hash("Disease Cube " + color));
+        Counter diseaseToken = (Counter) pgs.getComponent(diseaseHash(color));
+        Counter diseaseCubeCounter = (Counter) pgs.getComponent(diseaseCubeHash(color));
         int colorIdx = Utils.indexOf(colors, color);
 
         BoardNode bn = pgs.getWorld().getNodeByStringProperty(nameHash, city);
@@ -96,6 +96,32 @@ public class StrategoForwardModel extends StandardForwardModel implements ITreeA
         return _computeAvailableActions(gameState, ActionSpace.Default);
     }
 
+    @Override
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        // count the moves of each piece, and then create just the one chosen
+        StrategoGameState state = (StrategoGameState) gameState;
+        Piece.Alliance playerAlliance = StrategoConstants.playerMapping.get(gameState.getCurrentPlayer());
+        List<Piece> pieces = state.gridBoard.getComponents();
+        int nMoves = 0;
+        for (Piece piece : pieces) {
+            if (piece != null && piece.getPieceAlliance() == playerAlliance) {
+                nMoves += piece.countMoves(state);
+            }
+        }
+        int index = randomIndex(nMoves, rnd);
+        if (index < 0) return null;
+        for (Piece piece : pieces) {
+            if (piece != null && piece.getPieceAlliance() == playerAlliance) {
+                int pieceMoves = piece.countMoves(state);
+                if (index < pieceMoves) {
+                    return piece.getMove(state, index);
+                }
+                index -= pieceMoves;
+            }
+        }
+        throw new AssertionError("Move " + index + " not found");
+    }
+
     @Override
     protected void _afterAction(AbstractGameState currentState, AbstractAction action) {
         if (currentState.getGameStatus() == CoreConstants.GameResult.GAME_END || currentState.isActionInProgress()){
@@ -17,6 +17,8 @@ import java.util.Objects;
 
 public class Piece extends Token {
 
+    private static final Vector2D.Direction[] directions = Vector2D.Direction.values4();
+
     protected Vector2D position;
     protected final PieceType pieceType;
     protected final Alliance alliance;
@@ -67,59 +69,87 @@ public class Piece extends Token {
     }
 
     public List<AbstractAction> calculateMoves(StrategoGameState gs, ActionSpace actionSpace) {
-
-        GridBoard<Piece> board = gs.getGridBoard();
-        StrategoParams params = (StrategoParams) gs.getGameParameters();
-
         List<AbstractAction> moves = new ArrayList<>();
+        for (Vector2D.Direction dir : directions) {
+            int steps = stepsInDirection(gs, dir);
+            for (int j = 1; j <= steps; j++) {
+                moves.add(createMove(gs.getGridBoard(), dir.vector2D.mult(j), actionSpace));
+            }
+        }
+        return moves;
+    }
 
-        if (!getPieceType().isMovable()){
-            return moves;
+    /**
+     * @return the number of moves calculateMoves() would find, without creating them
+     */
+    public int countMoves(StrategoGameState gs) {
+        int n = 0;
+        for (Vector2D.Direction dir : directions) {
+            n += stepsInDirection(gs, dir);
         }
+        return n;
+    }
 
+    /**
+     * @return the move at this index in the list from calculateMoves(), in the default action space
+     */
+    public AbstractAction getMove(StrategoGameState gs, int index) {
+        for (Vector2D.Direction dir : directions) {
+            int steps = stepsInDirection(gs, dir);
+            if (index < steps) {
+                return createMove(gs.getGridBoard(), dir.vector2D.mult(index + 1), ActionSpace.Default);
+            }
+            index -= steps;
+        }
+        throw new IllegalArgumentException("Piece " + this + " does not have a move " + index);
+    }
+
+    /**
+     * @return how many squares the piece can move in this direction; it can go on until it reaches an invalid
+     * tile or one of its own pieces
+     */
+    private int stepsInDirection(StrategoGameState gs, Vector2D.Direction dir) {
+        if (!getPieceType().isMovable()) {
+            return 0;
+        }
+        GridBoard<Piece> board = gs.getGridBoard();
+        StrategoParams params = (StrategoParams) gs.getGameParameters();
         int maxTravel = params.moveSpeed;
         if (pieceType == PieceType.SCOUT) maxTravel = params.gridSize;
 
-        for (Vector2D.Direction dir: Vector2D.Direction.values4()) {
-            for (int j = 1; j <= maxTravel; j++) {
-                Vector2D dirCustom = dir.vector2D.mult(j);
-                Vector2D newPos = position.copy();
-                newPos = newPos.add(dirCustom);
-                Piece pieceAtTile = board.getElement(newPos.getX(), newPos.getY());
-                if (params.isTileValid(newPos.getX(), newPos.getY())  // Must be walkable tile
-                        && (pieceAtTile == null // Ok if empty tile, we can move there
-                        || pieceAtTile.getPieceAlliance() != alliance)) {  // Ok if enemy piece at tile, we attack
-                    addMove(board, moves, newPos, dirCustom, actionSpace);
-                } else {
-                    // No more valid moves in this direction
-                    break;
-                }
+        int x = position.getX(), y = position.getY();
+        for (int j = 1; j <= maxTravel; j++) {
+            int newX = x + dir.vector2D.getX() * j;
+            int newY = y + dir.vector2D.getY() * j;
+            Piece pieceAtTile = board.getElement(newX, newY);
+            if (!params.isTileValid(newX, newY)  // Must be walkable tile
+                    || pieceAtTile != null && pieceAtTile.getPieceAlliance() == alliance) {  // Can't move onto our own piece
+                return j - 1;
             }
         }
-
-        return moves;
+        return maxTravel;
     }
 
-    private void addMove(GridBoard<Piece> board, List<AbstractAction> moves, Vector2D newPos,
-                            Vector2D dir, ActionSpace actionSpace) {
+    private AbstractAction createMove(GridBoard<Piece> board, Vector2D dir, ActionSpace actionSpace) {
+        Vector2D newPos = position.add(dir);
         Piece pieceAtTile = board.getElement(newPos.getX(), newPos.getY());
         if (pieceAtTile == null) {
             // Just move
             if (actionSpace.context == ActionSpace.Context.Dependent) {
                 // Dependent
-                moves.add(new NormalMove(position, dir));
+                return new NormalMove(position, dir);
             } else {
                 // Independent, default
-                moves.add(new NormalMove(getComponentID(), newPos));
+                return new NormalMove(getComponentID(), newPos);
             }
         } else {
             // Attack
             if (actionSpace.context == ActionSpace.Context.Dependent) {
                 // Dependent
-                moves.add(new AttackMove(position, newPos));
+                return new AttackMove(position, newPos);
             } else {
                 // Independent, default
-                moves.add(new AttackMove(getComponentID(), pieceAtTile.getComponentID()));
+                return new AttackMove(getComponentID(), pieceAtTile.getComponentID());
             }
         }
     }
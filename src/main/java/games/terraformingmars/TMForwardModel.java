@@ -359,6 +359,29 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
         return actions;
     }
 
+    @Override
+    protected AbstractAction _randomAction(AbstractGameState gameState, Random rnd) {
+        // Checking whether an action can be played is most of the cost of _computeAvailableActions(). So instead we
+        // check the possible actions in a random order, and take the first that can be played; each of them is
+        // equally likely to be the first.
+        TMGameState gs = (TMGameState) gameState;
+        int player = gs.getCurrentPlayer();
+        List<AbstractAction> possibleActions = getAllActions(gs);
+        int[] order = new int[possibleActions.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        for (int i = 0; i < order.length; i++) {
+            int j = i + rnd.nextInt(order.length - i);
+            int next = order[j];
+            order[j] = order[i];
+            order[i] = next;
+            TMAction a = (TMAction) possibleActions.get(next);
+            if (a != null && a.canBePlayed(gs)) {
+                return a.getCost() != 0 ? new PayForAction(player, a) : a;
+            }
+        }
+        return null;
+    }
+
     /**
      * Bypass regular computeActions function call to list all actions possible in the current state, some of which
      * might not be playable at the moment. Requirements list on the action informs of why an action is not playable.
@@ -409,7 +432,7 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
                 // Check if any players have decided first action from corporations
                 TMCard corpCard = gs.playerCorporations[player];
                 if (corpCard.firstAction != null && !corpCard.firstActionExecuted) {
-                    possibleActions.add(corpCard.firstAction);
+                    possibleActions.add(corpCard.firstAction.copy());
                     return possibleActions;
                 }
             }
@@ -465,7 +488,10 @@ public class TMForwardModel extends StandardForwardModelWithTurnOrder {
             }
 
             // Use an active card action  - only 1, mark as used, then mark unused at the beginning of next generation
-            possibleActions.addAll(gs.playerExtraActions[player]);
+            // (copies, so that executing or paying for one does not change the state's own action)
+            for (TMAction a : gs.playerExtraActions[player]) {
+                possibleActions.add(a.copy());
+            }
 
             // 8 plants into greenery tile
             possibleActions.add(new PlaceTile(TMTypes.BasicResourceAction.PlantToGreenery, params.getnCostGreeneryPlant(), player, TMTypes.Tile.Greenery, TMTypes.MapTileType.Ground));
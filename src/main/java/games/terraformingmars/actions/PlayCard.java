@@ -6,6 +6,7 @@ import games.terraformingmars.TMGameState;
 import games.terraformingmars.TMTypes;
 import games.terraformingmars.components.TMCard;
 import games.terraformingmars.rules.requirements.PlayableActionRequirement;
+import games.terraformingmars.rules.requirements.Requirement;
 
 
 public class PlayCard extends TMAction {
@@ -17,10 +18,13 @@ public class PlayCard extends TMAction {
         this.setActionCost(TMTypes.Resource.MegaCredit, card.cost, card.getComponentID());
         this.setCardID(card.getComponentID());
 
-        this.requirements.addAll(card.requirements);
+        // Copies of the card's requirements and effects, as those are changed when the card is played
+        for (Requirement<TMGameState> r : card.requirements) {
+            this.requirements.add(r.copy());
+        }
         for (TMAction aa : card.immediateEffects) {
             // All immediate effects must also be playable in order for this card to be playable
-            this.requirements.add(new PlayableActionRequirement(aa));
+            this.requirements.add(new PlayableActionRequirement(aa.copy()));
         }
     }
 
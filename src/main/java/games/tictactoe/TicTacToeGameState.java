@@ -69,6 +69,16 @@ public class TicTacToeGameState extends AbstractGameState implements IPrintable,
         return Objects.equals(gridBoard, that.gridBoard);
     }
 
+    @Override
+    protected long _getStateHash() {
+        return gridBoard.getStateHash();
+    }
+
+    @Override
+    public boolean hasStateHash() {
+        return true;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(super.hashCode(), gridBoard);
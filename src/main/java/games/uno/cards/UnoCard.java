@@ -59,7 +59,13 @@ public class UnoCard extends Card {
 
     @Override
     public Card copy() {
-        return new UnoCard(type, color, number, drawN, componentID);
+        // cards are immutable, so copies of a Deck can share them
+        return this;
+    }
+
+    @Override
+    public boolean isImmutable() {
+        return true;
     }
 
     public boolean isPlayable(UnoGameState gameState) {
@@ -0,0 +1,137 @@
+package players;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.function.LongSupplier;
+
+import static players.PlayerConstants.BUDGET_TIME;
+
+/**
+ * Keeps track of the time and iterations used by one search (one decision).
+ * Reading the clock is not free (thread CPU time needs a system call), and a search iteration in a small game can
+ * take only a few microseconds. So with a time budget the clock is only read every few iterations (at most
+ * params.clockCheckInterval), and more often as the end of the budget gets closer.
+ * With other budgets it is read only at the start and end of the search, to report the speed of the search.
+ * <p>
+ * A time budget stops when no more than marginIterations times the average iteration time is left (or breakMS, if
+ * that is more). The players keep the margins they had before this class: 2 for MCTS, 1 for RMHC and 0 for RHEA.
+ */
+public class BudgetTimer {
+
+    public enum Clock {
+        CPU,  // CPU time of the searching thread, not affected by other threads, so fairer when comparing agents
+        WALL  // System.nanoTime(), which is cheaper to read
+    }
+
+    private static final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    private static final boolean OS_WIN = System.getProperty("os.name").contains("Windows");
+
+    private final boolean timeBudget;
+    private final long budget, breakTime;  // in nanoseconds
+    private final double marginIterations;
+    private final LongSupplier clock;  // in nanoseconds
+    private final int maxCheckInterval;
+
+    private long startTime, elapsed;
+    private int iterations, nextCheck;
+    private boolean stopped;
+
+    /**
+     * @param params           - the budget type, breakMS and clock settings
+     * @param budget           - the budget for this search (which may differ from params.budget)
+     * @param marginIterations - the number of average iterations of time to keep in hand with a time budget
+     */
+    public BudgetTimer(PlayerParameters params, int budget, double marginIterations) {
+        this(params, budget, marginIterations, defaultClock(params));
+    }
+
+    // the clock can be replaced for tests
+    BudgetTimer(PlayerParameters params, int budget, double marginIterations, LongSupplier clock) {
+        timeBudget = params.budgetType == BUDGET_TIME;
+        this.budget = budget * 1000000L;
+        breakTime = params.breakMS * 1000000L;
+        this.marginIterations = marginIterations;
+        this.clock = clock;
+        maxCheckInterval = Math.max(1, params.clockCheckInterval);
+    }
+
+    private static LongSupplier defaultClock(PlayerParameters params) {
+        // as ElapsedCpuTimer, we fall back to nanoTime() where thread CPU time is not available
+        if (params.budgetClock == Clock.CPU && !OS_WIN && bean.isCurrentThreadCpuTimeSupported())
+            return bean::getCurrentThreadCpuTime;
+        return System::nanoTime;
+    }
+
+    private long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Starts the timer for a new search, with no iterations done.
+     */
+    public void start() {
+        iterations = 0;
+        nextCheck = 1;
+        elapsed = 0;
+        stopped = false;
+        startTime = now();
+    }
+
+    /**
+     * Records the end of the search, for elapsedMillis() and getIterationsPerSecond().
+     */
+    public void stop() {
+        elapsed = now() - startTime;
+        stopped = true;
+    }
+
+    /**
+     * Counts one more finished iteration.
+     * @return with a time budget, false once there is not enough time left for another iteration (or less than
+     * breakMS is left). With any other budget this is always true, and the player checks its own budget.
+     */
+    public boolean iterationDone() {
+        iterations++;
+        if (!timeBudget || iterations < nextCheck)
+            return true;
+        elapsed = now() - startTime;
+        long remaining = budget - elapsed;
+        double average = elapsed / (double) iterations;
+        long margin = Math.max(breakTime, (long) (marginIterations * average));
+        if (remaining <= margin)
+            return false;
+        // we go at most half-way to the margin before looking at the clock again
+        long safeIterations = (long) ((remaining - margin) / average / 2);
+        nextCheck = iterations + (int) Math.max(1, Math.min(maxCheckInterval, safeIterations));
+        return true;
+    }
+
+    /**
+     * Reads the clock (whatever the budget type), for checks outside the main loop of iterations.
+     * @return false if this is a time budget, and no more than breakMS is left.
+     */
+    public boolean timeLeft() {
+        elapsed = now() - startTime;
+        return !timeBudget || budget - elapsed > breakTime;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return the time from start() to stop(), or to now if the search is not over
+     */
+    public double elapsedMillis() {
+        if (!stopped)
+            elapsed = now() - startTime;
+        return elapsed / 1000000.0;
+    }
+
+    /**
+     * @return the speed of the search, up to stop()
+     */
+    public double getIterationsPerSecond() {
+        return !stopped || elapsed == 0 ? 0.0 : iterations * 1e9 / elapsed;
+    }
+}
@@ -45,7 +45,7 @@ public class PlayerFactory {
 
     public static AbstractPlayer fromJSONString(String json) {
         try {
-            return fromJSONObject((JSONObject) parser.parse(json));
+            return fromJSONObject((JSONObject) parser().parse(json));
         } catch (ParseException e) {
             throw new AssertionError("Error processing JSON string " + e.getMessage());
         }
@@ -17,6 +17,9 @@ public class PlayerParameters extends TunableParameters {
     // this is intended mainly for competition situations, in which overrunning the time limit leads to disqualification.
     // setting breakMS to some number greater than zero then adds a safety margin
     public int breakMS = 0;
+    // Clock used for time budgets; with a time budget the clock is read at most once every clockCheckInterval iterations
+    public BudgetTimer.Clock budgetClock = BudgetTimer.Clock.CPU;
+    public int clockCheckInterval = 16;
 
     // Heuristic
     public IStateHeuristic gameHeuristic;
@@ -29,6 +32,8 @@ public class PlayerParameters extends TunableParameters {
         addTunableParameter("budgetType", PlayerConstants.BUDGET_FM_CALLS, Arrays.asList(PlayerConstants.values()));
         addTunableParameter("budget", 4000, Arrays.asList(100, 300, 1000, 3000, 10000, 30000, 100000));
         addTunableParameter("breakMS", 0);
+        addTunableParameter("budgetClock", BudgetTimer.Clock.CPU, Arrays.asList(BudgetTimer.Clock.values()));
+        addTunableParameter("clockCheckInterval", 16);
         addTunableParameter("actionSpaceStructure", ActionSpace.Structure.Default, Arrays.asList(ActionSpace.Structure.values()));
         addTunableParameter("actionSpaceFlexibility", ActionSpace.Flexibility.Default, Arrays.asList(ActionSpace.Flexibility.values()));
         addTunableParameter("actionSpaceContext", ActionSpace.Context.Default, Arrays.asList(ActionSpace.Context.values()));
@@ -41,6 +46,8 @@ public class PlayerParameters extends TunableParameters {
         params.budgetType = budgetType;
         params.budget = budget;
         params.breakMS = breakMS;
+        params.budgetClock = budgetClock;
+        params.clockCheckInterval = clockCheckInterval;
         params.gameHeuristic = gameHeuristic;
         params.actionSpace = actionSpace;
         return null;
@@ -50,6 +57,8 @@ public class PlayerParameters extends TunableParameters {
     public void _reset() {
         budget = (int) getParameterValue("budget");
         breakMS = (int) getParameterValue("breakMS");
+        budgetClock = (BudgetTimer.Clock) getParameterValue("budgetClock");
+        clockCheckInterval = (int) getParameterValue("clockCheckInterval");
         budgetType = (PlayerConstants) getParameterValue("budgetType");
         actionSpace = new ActionSpace ((ActionSpace.Structure) getParameterValue("actionSpaceStructure"),
                                         (ActionSpace.Flexibility) getParameterValue("actionSpaceFlexibility"),
@@ -61,12 +70,12 @@ public class PlayerParameters extends TunableParameters {
         if (this == o) return true;
         if (!(o instanceof PlayerParameters)) return false;
         PlayerParameters that = (PlayerParameters) o;
-        return Double.compare(that.exploreEpsilon, exploreEpsilon) == 0 && budget == that.budget && breakMS == that.breakMS && budgetType == that.budgetType && Objects.equals(gameHeuristic, that.gameHeuristic) && Objects.equals(actionSpace, that.actionSpace);
+        return Double.compare(that.exploreEpsilon, exploreEpsilon) == 0 && budget == that.budget && breakMS == that.breakMS && budgetType == that.budgetType && budgetClock == that.budgetClock && clockCheckInterval == that.clockCheckInterval && Objects.equals(gameHeuristic, that.gameHeuristic) && Objects.equals(actionSpace, that.actionSpace);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), exploreEpsilon, budgetType, budget, breakMS, gameHeuristic, actionSpace);
+        return Objects.hash(super.hashCode(), exploreEpsilon, budgetType, budget, breakMS, budgetClock, clockCheckInterval, gameHeuristic, actionSpace);
     }
 
     @Override
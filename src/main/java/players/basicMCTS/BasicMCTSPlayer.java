@@ -4,6 +4,7 @@ import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IStateHeuristic;
+import players.BudgetTimer;
 
 import java.util.List;
 import java.util.Random;
@@ -18,6 +19,7 @@ public class BasicMCTSPlayer extends AbstractPlayer {
 
     Random rnd;
     BasicMCTSParams params;
+    BudgetTimer budgetTimer;  // from the last search
 
     public BasicMCTSPlayer() {
         this(System.currentTimeMillis());
@@ -45,7 +47,7 @@ public class BasicMCTSPlayer extends AbstractPlayer {
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
         // Search for best action from the root
-        BasicTreeNode root = new BasicTreeNode(this, null, gameState, rnd);
+        BasicTreeNode root = new BasicTreeNode(this, null, gameState.copyForSearch(), rnd);
 
         // mctsSearch does all of the hard work
         root.mctsSearch();
@@ -54,6 +56,13 @@ public class BasicMCTSPlayer extends AbstractPlayer {
         return root.bestAction();
     }
 
+    /**
+     * @return The iterations per second in the last decision
+     */
+    public double getIterationsPerSecond() {
+        return budgetTimer == null ? 0.0 : budgetTimer.getIterationsPerSecond();
+    }
+
 
     public void setStateHeuristic(IStateHeuristic heuristic) {
         this.params.heuristic = heuristic;
@@ -2,9 +2,9 @@ package players.basicMCTS;
 
 import core.AbstractGameState;
 import core.actions.AbstractAction;
+import players.BudgetTimer;
 import players.PlayerConstants;
 import players.simple.RandomPlayer;
-import utilities.ElapsedCpuTimer;
 
 import java.util.*;
 
@@ -57,15 +57,9 @@ class BasicTreeNode {
      */
     void mctsSearch() {
 
-        // Variables for tracking time budget
-        double avgTimeTaken;
-        double acumTimeTaken = 0;
-        long remaining;
-        int remainingLimit = player.params.breakMS;
-        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
-        if (player.params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(player.params.budget);
-        }
+        // The timer tracks any time budget, and the speed of the search
+        BudgetTimer budgetTimer = new BudgetTimer(player.params, player.params.budget, 2.0);
+        budgetTimer.start();
 
         // Tracking number of iterations for iteration budget
         int numIters = 0;
@@ -73,9 +67,6 @@ class BasicTreeNode {
         boolean stop = false;
 
         while (!stop) {
-            // New timer for this iteration
-            ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
-
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             BasicTreeNode selected = treePolicy();
             // Monte carlo rollout: return value of MC rollout from the newly added node
@@ -85,14 +76,12 @@ class BasicTreeNode {
             // Finished iteration
             numIters++;
 
-            // Check stopping condition
+            // Check stopping condition (the timer only looks at the clock every few iterations)
             PlayerConstants budgetType = player.params.budgetType;
+            boolean timeLeft = budgetTimer.iterationDone();
             if (budgetType == BUDGET_TIME) {
                 // Time budget
-                acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
-                avgTimeTaken = acumTimeTaken / numIters;
-                remaining = elapsedTimer.remainingTimeMillis();
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
+                stop = !timeLeft;
             } else if (budgetType == BUDGET_ITERATIONS) {
                 // Iteration budget
                 stop = numIters >= player.params.budget;
@@ -101,6 +90,8 @@ class BasicTreeNode {
                 stop = fmCallsCount > player.params.budget;
             }
         }
+        budgetTimer.stop();
+        player.budgetTimer = budgetTimer;
     }
 
     /**
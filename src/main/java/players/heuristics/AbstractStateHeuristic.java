@@ -17,7 +17,7 @@ public abstract class AbstractStateHeuristic implements IStateHeuristic {
 
     public AbstractStateHeuristic(String featureVectorClassName, String coefficientsFile, String defaultHeuristicClassName) {
         try {
-            features = (IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance();
+            features = CachedStateFeatureVector.of((IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance());
         } catch (Exception e) {
             e.printStackTrace();
             throw new AssertionError("Problem with Class : " + featureVectorClassName);
@@ -36,7 +36,7 @@ public abstract class AbstractStateHeuristic implements IStateHeuristic {
     }
 
     public AbstractStateHeuristic(IStateFeatureVector featureVector, String coefficientsFile, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatureVector.of(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         loadModel(coefficientsFile);
     }
@@ -0,0 +1,137 @@
+package players.heuristics;
+
+import core.AbstractGameState;
+import core.interfaces.IStateFeatureVector;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Wraps an IStateFeatureVector so that the features of recent states are remembered, and not extracted again when
+ * they are asked for more than once (for example by a heuristic for each action in a state, or by a heuristic and
+ * a listener that use the same features).
+ * <p>
+ * There is one small cache per thread, shared by all the wrappers. An entry is matched on the class of the wrapped
+ * feature vector, the player, and the state itself (by reference), and also on its game id, reset count and tick,
+ * which between them change whenever the state is set up or has an action applied. A state that is changed in any
+ * other way must not be re-used with the cache.
+ * <p>
+ * Matching on the class means that the separate instances created by heuristics and listeners (often from just the
+ * class name) share their entries. So all instances of a feature vector class must give the same features, as the
+ * feature vectors in the framework (which have no state) do.
+ * <p>
+ * Each thread counts its hits and misses, which are read with getHits() and getMisses() on that thread.
+ */
+public class CachedStateFeatureVector implements IStateFeatureVector {
+
+    private static final int CACHE_SIZE = 16;
+
+    private static class Entry {
+        Class<?> featuresClass;
+        WeakReference<AbstractGameState> state;
+        int gameID, resetCount, tick, playerID;
+        double[] values;
+    }
+
+    private static class Cache {
+        final Entry[] entries = new Entry[CACHE_SIZE];
+        int next;
+        long hits, misses;
+    }
+
+    private static final ThreadLocal<Cache> cache = ThreadLocal.withInitial(Cache::new);
+
+    private final IStateFeatureVector wrapped;
+
+    private CachedStateFeatureVector(IStateFeatureVector wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    /**
+     * @return the feature vector with a cache in front of it (or null if it is null)
+     */
+    public static IStateFeatureVector of(IStateFeatureVector features) {
+        if (features == null || features instanceof CachedStateFeatureVector)
+            return features;
+        return new CachedStateFeatureVector(features);
+    }
+
+    /**
+     * @return the feature vector without any cache
+     */
+    public static IStateFeatureVector unwrap(IStateFeatureVector features) {
+        if (features instanceof CachedStateFeatureVector)
+            return ((CachedStateFeatureVector) features).wrapped;
+        return features;
+    }
+
+    @Override
+    public double[] featureVector(AbstractGameState state, int playerID) {
+        Cache threadCache = cache.get();
+        for (Entry entry : threadCache.entries) {
+            if (entry != null && entry.featuresClass == wrapped.getClass() && entry.playerID == playerID && entry.state.get() == state
+                    && entry.gameID == state.getGameID() && entry.resetCount == state.getResetCount()
+                    && entry.tick == state.getGameTick()) {
+                threadCache.hits++;
+                return entry.values.clone();
+            }
+        }
+        threadCache.misses++;
+        double[] values = wrapped.featureVector(state, playerID);
+        Entry entry = threadCache.entries[threadCache.next];
+        if (entry == null) {
+            entry = new Entry();
+            threadCache.entries[threadCache.next] = entry;
+        }
+        threadCache.next = (threadCache.next + 1) % CACHE_SIZE;
+        entry.featuresClass = wrapped.getClass();
+        entry.state = new WeakReference<>(state);
+        entry.gameID = state.getGameID();
+        entry.resetCount = state.getResetCount();
+        entry.tick = state.getGameTick();
+        entry.playerID = playerID;
+        entry.values = values.clone();
+        return values;
+    }
+
+    @Override
+    public String[] names() {
+        return wrapped.names();
+    }
+
+    /**
+     * @return the number of feature vectors found in the cache on this thread
+     */
+    public static long getHits() {
+        return cache.get().hits;
+    }
+
+    /**
+     * @return the number of feature vectors that had to be extracted on this thread
+     */
+    public static long getMisses() {
+        return cache.get().misses;
+    }
+
+    /**
+     * @return the proportion of the requests on this thread that were found in the cache (zero if there were none)
+     */
+    public static double getHitRate() {
+        Cache threadCache = cache.get();
+        long total = threadCache.hits + threadCache.misses;
+        return total == 0 ? 0.0 : threadCache.hits / (double) total;
+    }
+
+    /**
+     * Sets the hit and miss counts of this thread back to zero
+     */
+    public static void resetStatistics() {
+        Cache threadCache = cache.get();
+        threadCache.hits = 0;
+        threadCache.misses = 0;
+    }
+
+    @Override
+    public String toString() {
+        return wrapped.toString();
+    }
+}
@@ -35,7 +35,7 @@ public class DecisionTreeActionHeuristic implements IActionHeuristic {
             return;  // this is fine; we just use a null value
         }
         drModel = DecisionTreeRegressionModel.load(directory);
-        this.stateFeatures = stateFeatures;
+        this.stateFeatures = CachedStateFeatureVector.of(stateFeatures);
         this.actionFeatures = actionFeatures;
     }
     @Override
@@ -27,7 +27,7 @@ public abstract class GLMActionHeuristic implements IActionHeuristic {
      * @param coefficientsFile
      */
     public GLMActionHeuristic(IStateFeatureVector featureVector, IActionFeatureVector actionFeatureVector, String coefficientsFile) {
-        this.features = featureVector;
+        this.features = CachedStateFeatureVector.of(featureVector);
         this.actionFeatures = actionFeatureVector;
         loadModel(coefficientsFile);
     }
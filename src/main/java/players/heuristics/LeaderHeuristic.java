@@ -17,7 +17,32 @@ public class LeaderHeuristic implements IStateHeuristic {
             }
         }
 
-        score = score - bestOtherScore;
+        return leaderScore(gs, playerId, score - bestOtherScore);
+    }
+
+    // The scores are only found once, with the best and second best of them
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState gs) {
+        double[] scores = new double[gs.getNPlayers()];
+        int best = -1;
+        double secondBestScore = Double.NEGATIVE_INFINITY;
+        for (int p = 0; p < scores.length; p++) {
+            scores[p] = gs.getGameScore(p);
+            if (best == -1 || scores[p] > scores[best]) {
+                if (best != -1)
+                    secondBestScore = scores[best];
+                best = p;
+            } else if (scores[p] > secondBestScore) {
+                secondBestScore = scores[p];
+            }
+        }
+        double[] retValue = new double[scores.length];
+        for (int p = 0; p < scores.length; p++)
+            retValue[p] = leaderScore(gs, p, scores[p] - (p == best ? secondBestScore : scores[best]));
+        return retValue;
+    }
+
+    private double leaderScore(AbstractGameState gs, int playerId, double score) {
         if (gs.getPlayerResults()[playerId] == CoreConstants.GameResult.WIN_GAME || gs.getPlayerResults()[playerId] == CoreConstants.GameResult.LOSE_GAME)
             score *= 1.5;
         return score;
@@ -22,14 +22,29 @@ public class LinearStateBonusHeuristic extends LinearStateHeuristic {
         if (state.isNotTerminalForPlayer(playerId)) {
             return super.evaluateState(state, playerId);
         }
+        return bonus(state, playerId) * super.evaluateState(state, playerId);
+    }
+
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        double[] retValue = super.evaluateAllPlayers(state);
+        for (int p = 0; p < retValue.length; p++) {
+            if (!state.isNotTerminalForPlayer(p))
+                retValue[p] *= bonus(state, p);
+        }
+        return retValue;
+    }
 
+    private double bonus(AbstractGameState state, int playerId) {
         switch (state.getPlayerResults()[playerId]) {
             case WIN_GAME:
-                return 1.5 * super.evaluateState(state, playerId);
+            case WIN_ROUND:
+                return 1.5;
             case LOSE_GAME:
-                return 0.75 * super.evaluateState(state, playerId);
+            case LOSE_ROUND:
+                return 0.75;
             case DRAW_GAME:
-                return super.evaluateState(state, playerId);
+                return 1.0;
             default:
                 throw new AssertionError("Not reachable for " + state.getPlayerResults()[playerId]);
         }
@@ -25,7 +25,24 @@ public class LinearStateHeuristic extends AbstractStateHeuristic {
     public double evaluateState(AbstractGameState state, int playerId) {
         if (coefficients == null)
             return defaultHeuristic.evaluateState(state, playerId);
-        double[] phi = features.featureVector(state, playerId);
+        return value(features.featureVector(state, playerId));
+    }
+
+    /**
+     * The features depend on the player, so each player's feature vector is still extracted (once); but when there
+     * are no coefficients the default heuristic can score all the players at once.
+     */
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        if (coefficients == null)
+            return defaultHeuristic.evaluateAllPlayers(state);
+        double[] retValue = new double[state.getNPlayers()];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = value(features.featureVector(state, p));
+        return retValue;
+    }
+
+    private double value(double[] phi) {
         double retValue = coefficients[0]; // the bias term
         for (int i = 0; i < phi.length; i++) {
             retValue += phi[i] * coefficients[i+1];
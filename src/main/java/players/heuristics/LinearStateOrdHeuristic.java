@@ -28,4 +28,16 @@ public class LinearStateOrdHeuristic extends LinearStateHeuristic {
 
         return -state.getOrdinalPosition(playerId);
     }
+
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        minValue = -state.getNPlayers();
+        maxValue = -1.0;
+        double[] retValue = super.evaluateAllPlayers(state);
+        for (int p = 0; p < retValue.length; p++) {
+            if (!state.isNotTerminalForPlayer(p))
+                retValue[p] = -state.getOrdinalPosition(p);
+        }
+        return retValue;
+    }
 }
@@ -24,11 +24,28 @@ public class LinearStateWinHeuristic extends LinearStateHeuristic {
         if (state.isNotTerminalForPlayer(playerId)) {
             return super.evaluateState(state, playerId);
         }
+        return terminalValue(state, playerId);
+    }
+
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        minValue = 0.0;
+        maxValue = 1.0;
+        double[] retValue = super.evaluateAllPlayers(state);
+        for (int p = 0; p < retValue.length; p++) {
+            if (!state.isNotTerminalForPlayer(p))
+                retValue[p] = terminalValue(state, p);
+        }
+        return retValue;
+    }
 
+    private double terminalValue(AbstractGameState state, int playerId) {
         switch (state.getPlayerResults()[playerId]) {
             case WIN_GAME:
+            case WIN_ROUND:
                 return 1.0;
             case LOSE_GAME:
+            case LOSE_ROUND:
                 return 0.0;
             case DRAW_GAME:
                 return 0.5;
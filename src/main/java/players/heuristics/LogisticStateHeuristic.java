@@ -21,7 +21,24 @@ public class LogisticStateHeuristic extends AbstractStateHeuristic {
     public double evaluateState(AbstractGameState state, int playerId) {
         if (coefficients == null)
             return defaultHeuristic.evaluateState(state, playerId);
-        double[] phi = features.featureVector(state, playerId);
+        return value(features.featureVector(state, playerId));
+    }
+
+    /**
+     * As for LinearStateHeuristic, each player's feature vector is extracted once, and without coefficients the
+     * default heuristic scores all the players at once.
+     */
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        if (coefficients == null)
+            return defaultHeuristic.evaluateAllPlayers(state);
+        double[] retValue = new double[state.getNPlayers()];
+        for (int p = 0; p < retValue.length; p++)
+            retValue[p] = value(features.featureVector(state, p));
+        return retValue;
+    }
+
+    private double value(double[] phi) {
         double retValue = coefficients[0];  // the bias term
         for (int i = 0; i < phi.length; i++) {
             retValue += phi[i] * coefficients[i+1];
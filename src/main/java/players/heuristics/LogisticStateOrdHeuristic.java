@@ -24,7 +24,20 @@ public class LogisticStateOrdHeuristic extends LogisticStateHeuristic {
         if (state.isNotTerminalForPlayer(playerId)) {
             return super.evaluateState(state, playerId);
         }
+        return terminalValue(state, playerId);
+    }
+
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        double[] retValue = super.evaluateAllPlayers(state);
+        for (int p = 0; p < retValue.length; p++) {
+            if (!state.isNotTerminalForPlayer(p))
+                retValue[p] = terminalValue(state, p);
+        }
+        return retValue;
+    }
 
+    private double terminalValue(AbstractGameState state, int playerId) {
         double ordinalPos = state.getOrdinalPosition(playerId);
         double playerCount = state.getNPlayers();
         return (playerCount - ordinalPos) / (playerCount - 1.0);
@@ -18,4 +18,10 @@ public class RandomHeuristic implements IActionHeuristic {
     public double evaluateAction(AbstractAction abstractAction, AbstractGameState abstractGameState) {
         return rnd.nextDouble();
     }
+
+    @Override
+    public RandomHeuristic copy() {
+        // seeded from this one, so that copies are reproducible
+        return new RandomHeuristic(rnd.nextInt());
+    }
 }
@@ -17,7 +17,7 @@ public class SVMStateHeuristic implements IStateHeuristic {
 
     public SVMStateHeuristic(String featureVectorClassName, String svmModelLocation, String defaultHeuristicClassName) {
         try {
-            features = (IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance();
+            features = CachedStateFeatureVector.of((IStateFeatureVector) Class.forName(featureVectorClassName).getConstructor().newInstance());
         } catch (Exception e) {
             e.printStackTrace();
             throw new AssertionError("Problem with Class : " + featureVectorClassName);
@@ -39,12 +39,12 @@ public class SVMStateHeuristic implements IStateHeuristic {
     }
 
     public SVMStateHeuristic(IStateFeatureVector featureVector, String svmModelLocation, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatureVector.of(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         loadModel(svmModelLocation);
     }
     public SVMStateHeuristic(IStateFeatureVector featureVector, svm_model model, IStateHeuristic defaultHeuristic) {
-        this.features = featureVector;
+        this.features = CachedStateFeatureVector.of(featureVector);
         this.defaultHeuristic = defaultHeuristic;
         this.model = model;
     }
@@ -65,16 +65,43 @@ public class SVMStateHeuristic implements IStateHeuristic {
         if (model == null)
             return defaultHeuristic.evaluateState(state, playerId);
         double[] phi = features.featureVector(state, playerId);
-        svm_node[] data = new svm_node[phi.length + 1];
+        return predict(phi, newNodes(phi.length));
+    }
+
+    /**
+     * Each player's feature vector is extracted once, and the nodes passed to the model are shared by all the
+     * players. Without a model the default heuristic scores all the players at once.
+     */
+    @Override
+    public double[] evaluateAllPlayers(AbstractGameState state) {
+        if (model == null)
+            return defaultHeuristic.evaluateAllPlayers(state);
+        double[] retValue = new double[state.getNPlayers()];
+        svm_node[] data = null;
+        for (int p = 0; p < retValue.length; p++) {
+            double[] phi = features.featureVector(state, p);
+            if (data == null)
+                data = newNodes(phi.length);
+            retValue[p] = predict(phi, data);
+        }
+        return retValue;
+    }
+
+    private static svm_node[] newNodes(int nFeatures) {
+        svm_node[] data = new svm_node[nFeatures + 1];
         data[0] = new svm_node(); // bias
         data[0].index = 0;
         data[0].value = 1.0;
-        for (int i = 0; i < phi.length; i++) {
+        for (int i = 0; i < nFeatures; i++) {
             data[i + 1] = new svm_node();
             data[i + 1].index = i + 1;
-            data[i + 1].value = phi[i];
         }
-        double result = svm.svm_predict(model, data);
-        return result;
+        return data;
+    }
+
+    private double predict(double[] phi, svm_node[] data) {
+        for (int i = 0; i < phi.length; i++)
+            data[i + 1].value = phi[i];
+        return svm.svm_predict(model, data);
     }
 }
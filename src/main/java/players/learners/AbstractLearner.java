@@ -1,6 +1,7 @@
 package players.learners;
 
 import core.interfaces.ILearner;
+import evaluation.loggers.BinaryFeatureReader;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -57,13 +58,28 @@ public abstract class AbstractLearner implements ILearner {
         targetType = newTarget;
     }
 
+    private void setHeader(String[] columns) {
+        header = columns;
+        descriptions = new String[header.length - 11];
+        System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+    }
+
+    /**
+     * Loads the data from files written by a FeatureListener, either as tab-separated text from FileStatsLogger, or
+     * from BinaryFeatureLogger.
+     */
     protected void loadData(String... files) {
         List<double[]> data = new ArrayList<>();
         for (String file : files) {
+            if (BinaryFeatureReader.isBinaryFeatureFile(file)) {
+                try (BinaryFeatureReader reader = new BinaryFeatureReader(file)) {
+                    setHeader(reader.getColumns());
+                    data.addAll(reader.readRows());
+                }
+                continue;
+            }
             try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-                header = reader.readLine().split("\\t");
-                descriptions = new String[header.length - 11];
-                System.arraycopy(header, 5, descriptions, 0, descriptions.length);
+                setHeader(reader.readLine().split("\\t"));
                 while (reader.ready()) {
                     double[] datum = Arrays.stream(reader.readLine().split("\\t")).mapToDouble(Double::parseDouble).toArray();
                     data.add(datum);
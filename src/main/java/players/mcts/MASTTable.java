@@ -0,0 +1,196 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.interfaces.IActionKey;
+
+import java.util.Arrays;
+
+/**
+ * MAST (Move-Average Sampling Technique) statistics: the number of visits and the total value of each action, for
+ * each player. Actions are grouped by the IActionKey given (or by the action itself if this is null).
+ * <p>
+ * Each (player, key) pair is given an index when it is first updated, and its statistics are held in primitive arrays
+ * at that index. The index is found through an open-addressing table (linear probing) on the hash of the key, so
+ * neither a look-up nor an update allocates anything (except a copy of the action when it is first seen).
+ */
+public class MASTTable {
+
+    private final IActionKey actionKey;
+    // the open-addressing table: each slot holds the index of an entry plus one (so that zero marks an empty slot)
+    private int[] slots = new int[64];
+    // the entries, with the statistics of each
+    private Object[] keys = new Object[32];
+    private int[] players = new int[32];
+    private int[] hashes = new int[32];
+    private int[] visits = new int[32];
+    private double[] values = new double[32];
+    private int size;
+
+    public MASTTable(IActionKey actionKey) {
+        this.actionKey = actionKey;
+    }
+
+    public IActionKey getActionKey() {
+        return actionKey;
+    }
+
+    private Object key(AbstractAction action) {
+        return actionKey == null ? action : actionKey.key(action);
+    }
+
+    private static int hash(Object key, int player) {
+        int h = (key.hashCode() * 31 + player) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the index of the entry for this key and player, or -1 if there is none
+     */
+    private int find(Object key, int player, int hash) {
+        int mask = slots.length - 1;
+        for (int slot = hash & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+            if (hashes[index] == hash && players[index] == player && keys[index].equals(key))
+                return index;
+        }
+        return -1;
+    }
+
+    private int addEntry(Object key, int player, int hash) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            players = Arrays.copyOf(players, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            visits = Arrays.copyOf(visits, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        keys[size] = key;
+        players[size] = player;
+        hashes[size] = hash;
+        visits[size] = 0;  // these may be left from an entry removed by decay()
+        values[size] = 0.0;
+        size++;
+        if (2 * size > slots.length) {
+            slots = new int[slots.length * 2];
+            rehash();
+        } else {
+            insert(size - 1);
+        }
+        return size - 1;
+    }
+
+    private void insert(int index) {
+        int mask = slots.length - 1;
+        int slot = hashes[index] & mask;
+        while (slots[slot] != 0)
+            slot = (slot + 1) & mask;
+        slots[slot] = index + 1;
+    }
+
+    private void rehash() {
+        Arrays.fill(slots, 0);
+        for (int i = 0; i < size; i++)
+            insert(i);
+    }
+
+    /**
+     * Adds one visit with the given value to the statistics of the action for the player
+     */
+    public void update(int player, AbstractAction action, double value) {
+        Object key = key(action);
+        int hash = hash(key, player);
+        int index = find(key, player, hash);
+        if (index == -1)
+            // the action may be changed later, so we keep a copy of it (an IActionKey is assumed to be immutable)
+            index = addEntry(actionKey == null ? action.copy() : key, player, hash);
+        visits[index]++;
+        values[index] += value;
+    }
+
+    public int getVisits(int player, AbstractAction action) {
+        Object key = key(action);
+        int index = find(key, player, hash(key, player));
+        return index == -1 ? 0 : visits[index];
+    }
+
+    public double getTotalValue(int player, AbstractAction action) {
+        Object key = key(action);
+        int index = find(key, player, hash(key, player));
+        return index == -1 ? 0.0 : values[index];
+    }
+
+    /**
+     * @return the mean value of the action for the player, or defaultValue if it has no visits
+     */
+    public double getMeanValue(int player, AbstractAction action, double defaultValue) {
+        Object key = key(action);
+        int index = find(key, player, hash(key, player));
+        if (index == -1 || visits[index] == 0)
+            return defaultValue;
+        return values[index] / visits[index];
+    }
+
+    /**
+     * Decays all the statistics by gamma (in place), in the same way as Utils.decay(). The visits are rounded down,
+     * and the total value is scaled to keep the same mean. Entries that are left with no visits are removed.
+     * A gamma outside [0, 1) leaves the statistics unchanged.
+     */
+    public void decay(double gamma) {
+        if (gamma < 0.0 || gamma >= 1.0)
+            return;
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            int newVisits = (int) (visits[i] * gamma);
+            if (newVisits == 0)
+                continue;
+            keys[kept] = keys[i];
+            players[kept] = players[i];
+            hashes[kept] = hashes[i];
+            values[kept] = values[i] * newVisits / visits[i];
+            visits[kept] = newVisits;
+            kept++;
+        }
+        Arrays.fill(keys, kept, size, null);
+        size = kept;
+        rehash();
+    }
+
+    /**
+     * Adds all the statistics of other to this table
+     */
+    public void add(MASTTable other) {
+        for (int i = 0; i < other.size; i++) {
+            Object key = other.keys[i];
+            int player = other.players[i];
+            int hash = hash(key, player);
+            int index = find(key, player, hash);
+            if (index == -1)
+                index = addEntry(key, player, hash);
+            visits[index] += other.visits[i];
+            values[index] += other.values[i];
+        }
+    }
+
+    /**
+     * @return a copy with the same statistics (the keys are shared, as they are never changed)
+     */
+    public MASTTable copy() {
+        MASTTable retValue = new MASTTable(actionKey);
+        retValue.slots = slots.clone();
+        retValue.keys = keys.clone();
+        retValue.players = players.clone();
+        retValue.hashes = hashes.clone();
+        retValue.visits = visits.clone();
+        retValue.values = values.clone();
+        retValue.size = size;
+        return retValue;
+    }
+
+    /**
+     * @return the number of (player, action) entries
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -32,7 +32,10 @@ public class MCTSMetrics implements IMetricsCollection {
                 if (visits == 0) visits = 1;
                 records.put("PlayerType", mctsPlayer.toString());
                 records.put("PlayerID", e.state.getCurrentPlayer());
-                records.put("Iterations", root.getVisits());
+                // with root parallelisation we report the iterations summed over all the trees
+                int iterations = mctsPlayer.parallelRoots == null ? root.getVisits() :
+                        Arrays.stream(mctsPlayer.parallelRoots).mapToInt(SingleTreeNode::getVisits).sum();
+                records.put("Iterations", iterations);
                 records.put("MaxDepth", treeStats.depthReached);
                 records.put("MeanLeafDepth", treeStats.meanLeafDepth);
                 records.put("Nodes", treeStats.totalNodes);
@@ -46,6 +49,13 @@ public class MCTSMetrics implements IMetricsCollection {
                 records.put("fmCalls", mctsPlayer.root.fmCallsCount / visits);
                 records.put("copyCalls", mctsPlayer.root.copyCount / visits);
                 records.put("time", mctsPlayer.root.timeTaken);
+                records.put("IterationsPerSecond", mctsPlayer.getIterationsPerSecond());
+                records.put("ReusedVisits", mctsPlayer.getReusedVisits());
+                records.put("AllocatedMB", mctsPlayer.getAllocatedBytes() / (1024.0 * 1024.0));
+                records.put("PooledNodes", mctsPlayer.getPooledNodes());
+                long featureCacheHits = mctsPlayer.getFeatureCacheHits();
+                long featureCacheTotal = featureCacheHits + mctsPlayer.getFeatureCacheMisses();
+                records.put("FeatureCacheHitRate", featureCacheTotal == 0 ? 0.0 : featureCacheHits / (double) featureCacheTotal);
                 return true;
             }
             return false;
@@ -74,6 +84,11 @@ public class MCTSMetrics implements IMetricsCollection {
             cols.put("fmCalls", Integer.class);
             cols.put("copyCalls", Integer.class);
             cols.put("time", Double.class);
+            cols.put("IterationsPerSecond", Double.class);
+            cols.put("ReusedVisits", Integer.class);
+            cols.put("AllocatedMB", Double.class);
+            cols.put("PooledNodes", Integer.class);
+            cols.put("FeatureCacheHitRate", Double.class);
             return cols;
         }
     }
@@ -0,0 +1,57 @@
+package players.mcts;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * An arena for the nodes of one search tree. All nodes handed out since the last reset() are part of the current
+ * tree; reset() clears them, and they are then handed out again for the next search. New nodes are only
+ * constructed (by the wrapped factory) when a tree is larger than any previous one.
+ * <p>
+ * This is only safe if nothing from the previous tree is used after reset() - so it cannot be combined with tree
+ * reuse - and a pool must only be used by one search at a time.
+ */
+public class MCTSNodePool implements Supplier<SingleTreeNode> {
+
+    private final Supplier<? extends SingleTreeNode> factory;
+    private final List<SingleTreeNode> nodes = new ArrayList<>();
+    private int nodesInUse;
+    private int newNodes;
+
+    public MCTSNodePool(Supplier<? extends SingleTreeNode> factory) {
+        this.factory = factory;
+    }
+
+    @Override
+    public SingleTreeNode get() {
+        if (nodesInUse < nodes.size())
+            return nodes.get(nodesInUse++);
+        SingleTreeNode node = factory.get();
+        nodes.add(node);
+        nodesInUse++;
+        newNodes++;
+        return node;
+    }
+
+    /**
+     * Makes all nodes available for re-use. Any tree built from this pool is invalid after this is called.
+     */
+    public void reset() {
+        for (int i = 0; i < nodesInUse; i++)
+            nodes.get(i).clear();
+        nodesInUse = 0;
+        newNodes = 0;
+    }
+
+    /**
+     * @return the number of nodes handed out since the last reset() that were re-used rather than constructed
+     */
+    public int pooledNodes() {
+        return nodesInUse - newNodes;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
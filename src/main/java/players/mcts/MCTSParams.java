@@ -61,6 +61,15 @@ public class MCTSParams extends PlayerParameters {
     public IStateHeuristic heuristic = AbstractGameState::getHeuristicScore;
     public IActionKey MASTActionKey;
     public double MASTDefaultValue = 0.0;
+    public int parallelTrees = 1;  // root parallelisation: the number of independent trees searched concurrently
+    public int sharedTreeThreads = 1;  // tree parallelisation: the number of threads searching one tree, with virtual loss (not with parallelTrees, MAST or MultiTree)
+    public boolean determinisedTrees = false;  // with parallelTrees and Information_Set, each tree searches one determinisation, and the trees vote (PIMC)
+    public boolean reuseTree = false;  // keep the relevant sub-tree from our previous decision
+    public boolean poolNodes = false;  // re-use node objects between decisions (ignored if reuseTree is set)
+    public boolean transpositionTable = false;  // share one node between all paths to the same state (Closed_Loop and OneTree only, in games with hasStateHash())
+    public int transpositionTableSize = 100000;  // the maximum number of nodes entered in the transposition table (the tree can grow beyond this)
+    public int leafBatchSize = 1;  // leaves queued before their final states are evaluated and backed up together (not used with MultiTree or sharedTreeThreads)
+    public double virtualLoss = 1.0;  // the loss applied to the path of each queued leaf, so that the next iterations explore elsewhere
 
     public MCTSParams() {
         this(System.currentTimeMillis());
@@ -107,6 +116,15 @@ public class MCTSParams extends PlayerParameters {
         addTunableParameter("paranoid", false);
         addTunableParameter("MASTActionKey", IActionKey.class);
         addTunableParameter("MASTDefaultValue", 0.0);
+        addTunableParameter("parallelTrees", 1, Arrays.asList(1, 2, 4, 8, 16, 32));
+        addTunableParameter("sharedTreeThreads", 1, Arrays.asList(1, 2, 4, 8, 16, 32));
+        addTunableParameter("determinisedTrees", false);
+        addTunableParameter("reuseTree", false);
+        addTunableParameter("poolNodes", false);
+        addTunableParameter("transpositionTable", false);
+        addTunableParameter("transpositionTableSize", 100000);
+        addTunableParameter("leafBatchSize", 1, Arrays.asList(1, 2, 4, 8, 16, 32));
+        addTunableParameter("virtualLoss", 1.0);
     }
 
     @Override
@@ -157,6 +175,15 @@ public class MCTSParams extends PlayerParameters {
         }
         MASTActionKey = (IActionKey) getParameterValue("MASTActionKey");
         MASTDefaultValue = (double) getParameterValue("MASTDefaultValue");
+        parallelTrees = (int) getParameterValue("parallelTrees");
+        sharedTreeThreads = (int) getParameterValue("sharedTreeThreads");
+        determinisedTrees = (boolean) getParameterValue("determinisedTrees");
+        reuseTree = (boolean) getParameterValue("reuseTree");
+        poolNodes = (boolean) getParameterValue("poolNodes");
+        transpositionTable = (boolean) getParameterValue("transpositionTable");
+        transpositionTableSize = (int) getParameterValue("transpositionTableSize");
+        leafBatchSize = (int) getParameterValue("leafBatchSize");
+        virtualLoss = (double) getParameterValue("virtualLoss");
 
         advantageFunction = (IActionHeuristic) getParameterValue("advantageFunction");
         heuristic = (IStateHeuristic) getParameterValue("heuristic");
@@ -196,7 +223,7 @@ public class MCTSParams extends PlayerParameters {
             case RANDOM:
                 return new RandomPlayer(new Random(getRandomSeed()));
             case MAST:
-                return new MASTPlayer(MASTActionKey, MASTBoltzmann, 0.0, System.currentTimeMillis(), MASTDefaultValue);
+                return new MASTPlayer(MASTActionKey, MASTBoltzmann, 0.0, getRandomSeed(), MASTDefaultValue);
             case CLASS:
                 // we have a bespoke Class to instantiate
                 return JSONUtils.loadClassFromString(details);
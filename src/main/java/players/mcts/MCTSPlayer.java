@@ -8,17 +8,26 @@ import core.interfaces.IActionHeuristic;
 import evaluation.listeners.IGameListener;
 import core.interfaces.IStateHeuristic;
 import evaluation.metrics.Event;
+import players.BudgetTimer;
 import players.IAnyTimePlayer;
+import evaluation.optimisation.TunableParameters;
+import players.heuristics.CachedStateFeatureVector;
 import players.heuristics.CoarseTunableHeuristic;
-import utilities.Pair;
+import utilities.ThreadPools;
 import utilities.Utils;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.MultiTree;
+import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
+import static players.mcts.MCTSEnums.SelectionPolicy.ROBUST;
+import static players.PlayerConstants.BUDGET_TIME;
 
 public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
 
@@ -31,9 +40,26 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
     protected AbstractPlayer rolloutStrategy;
     protected boolean debug = false;
     protected SingleTreeNode root;
-    List<Map<Object, Pair<Integer, Double>>> MASTStats;
+    // Only used with root parallelisation; one root per tree (and root is then the first of these)
+    protected SingleTreeNode[] parallelRoots;
+    // Only used with determinised trees (PIMC): the number of trees that voted for each action in the last decision
+    private Map<AbstractAction, Integer> votes;
+    // Only used with a shared tree: the timer of each thread in the last search
+    private BudgetTimer[] searchTimers;
+    // Tree reuse: the size of the history when we made our last decision, and how many visits we retained
+    private int historyAtLastDecision;
+    private int reusedVisits;
+    // Node pooling: one pool per tree (so only the first is used unless we have root parallelisation)
+    private MCTSNodePool[] nodePools;
+    // Allocation during the last search (summed over all threads), and the number of nodes taken from the pools
+    private long allocatedBytes;
+    private int pooledNodes;
+    // Feature vectors found in (and missing from) the feature cache during the last search, summed over all threads
+    private long featureCacheHits, featureCacheMisses;
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    MASTTable MASTStats;
     private AbstractPlayer opponentModel;
-    private IActionHeuristic advantageFunction;
+    IActionHeuristic advantageFunction;
 
     public MCTSPlayer() {
         this(System.currentTimeMillis());
@@ -65,6 +91,8 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (advantageFunction instanceof AbstractPlayer)
             ((AbstractPlayer) advantageFunction).initializePlayer(state);
         MASTStats = null;
+        root = null;
+        historyAtLastDecision = 0;
     }
 
     /**
@@ -81,26 +109,73 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         };
     }
 
+    /**
+     * The factory used for the nodes of the search tree. If params.poolNodes is set then this is a MCTSNodePool
+     * around getFactory(), so that nodes are re-used from one decision to the next.
+     */
+    Supplier<? extends SingleTreeNode> nodeFactory() {
+        return nodeFactory(0);
+    }
+
+    private Supplier<? extends SingleTreeNode> nodeFactory(int tree) {
+        if (!params.poolNodes || params.reuseTree)
+            return getFactory();
+        if (nodePools == null)
+            nodePools = new MCTSNodePool[Math.max(1, params.parallelTrees)];
+        if (tree >= nodePools.length)
+            nodePools = Arrays.copyOf(nodePools, tree + 1);
+        if (nodePools[tree] == null)
+            nodePools[tree] = new MCTSNodePool(getFactory());
+        return nodePools[tree];
+    }
+
     @Override
     public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> actions) {
-        // Search for best action from the root
-        if (params.opponentTreePolicy == MultiTree)
-            root = new MultiTreeNode(this, gameState, rnd);
-        else
-            root = SingleTreeNode.createRootNode(this, gameState, rnd, getFactory());
-
+        long startBytes = threadAllocatedBytes();
+        long startHits = CachedStateFeatureVector.getHits(), startMisses = CachedStateFeatureVector.getMisses();
+        // the tree from our last decision is discarded here if we are pooling nodes
+        if (nodePools != null)
+            for (MCTSNodePool pool : nodePools)
+                if (pool != null) pool.reset();
+
+        // the statistics from earlier decisions count for less
         if (MASTStats != null)
-            root.MASTStatistics = MASTStats.stream()
-                    .map(m -> Utils.decay(m, params.MASTGamma))
-                    .collect(Collectors.toList());
+            MASTStats.decay(params.MASTGamma);
 
-        if (rolloutStrategy instanceof IMASTUser) {
-            ((IMASTUser) rolloutStrategy).setStats(root.MASTStatistics);
-        }
-        if (opponentModel instanceof IMASTUser) {
-            ((IMASTUser) opponentModel).setStats(root.MASTStatistics);
+        // Search for best action from the root
+        if (params.parallelTrees > 1 && params.sharedTreeThreads > 1)
+            throw new IllegalArgumentException("parallelTrees and sharedTreeThreads cannot be used together");
+        if (params.parallelTrees > 1 && params.opponentTreePolicy != MultiTree) {
+            searchTimers = null;
+            parallelRoots = parallelSearch(gameState);
+            root = parallelRoots[0];
+        } else {
+            SingleTreeNode reusedRoot = params.reuseTree ? reusableRoot(gameState) : null;
+            parallelRoots = null;
+            if (reusedRoot != null)
+                root = reusedRoot;
+            else if (params.opponentTreePolicy == MultiTree)
+                root = new MultiTreeNode(this, gameState, rnd);
+            else
+                root = SingleTreeNode.createRootNode(this, gameState, rnd, nodeFactory());
+            initialiseMAST(root, rolloutStrategy, opponentModel, false);
+            if (params.sharedTreeThreads > 1 && params.opponentTreePolicy != MultiTree) {
+                sharedTreeSearch(root);
+            } else {
+                searchTimers = null;
+                root.mctsSearch();
+                allocatedBytes = 0;
+                featureCacheHits = 0;
+                featureCacheMisses = 0;
+            }
         }
-        root.mctsSearch();
+        allocatedBytes += threadAllocatedBytes() - startBytes;
+        featureCacheHits += CachedStateFeatureVector.getHits() - startHits;
+        featureCacheMisses += CachedStateFeatureVector.getMisses() - startMisses;
+        pooledNodes = 0;
+        if (nodePools != null)
+            for (MCTSNodePool pool : nodePools)
+                if (pool != null) pooledNodes += pool.pooledNodes();
 
         if (advantageFunction instanceof ITreeProcessor)
             ((ITreeProcessor) advantageFunction).process(root);
@@ -114,13 +189,302 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         if (debug)
             System.out.println(root.toString());
 
-        MASTStats = root.MASTStatistics;
+        MASTStats = parallelRoots == null ? root.MASTStatistics : mergeMASTStatistics(parallelRoots);
 
         if (root.children.size() > 2 * actions.size() && !params.actionSpace.equals(gameState.getCoreGameParameters().actionSpace))
             throw new AssertionError(String.format("Unexpectedly large number of children: %d with action size of %d", root.children.size(), actions.size()) );
-        return root.bestAction();
+        historyAtLastDecision = gameState.getHistory().size();
+        return parallelRoots == null ? root.bestAction() : bestActionAcross(parallelRoots);
+    }
+
+    /**
+     * Looks for the node in the tree from our previous decision that corresponds to the current state. This is
+     * found by following our last action, and then all the actions taken since by other players (as recorded in
+     * the history of the state).
+     * This is only supported for OneTree search; with the other opponent tree policies the nodes do not map onto
+     * the full trajectory of actions.
+     *
+     * @return the re-rooted node, or null if there is no suitable node (and we need a new tree)
+     */
+    private SingleTreeNode reusableRoot(AbstractGameState gameState) {
+        reusedVisits = 0;
+        if (root == null || parallelRoots != null || params.opponentTreePolicy != OneTree)
+            return null;
+        List<AbstractAction> history = gameState.getHistory();
+        if (history.size() <= historyAtLastDecision)
+            return null; // no history is available (in competition mode for example)
+        SingleTreeNode newRoot = root.findDescendant(history.subList(historyAtLastDecision, history.size()), gameState.getCurrentPlayer());
+        if (newRoot == null || newRoot.terminalNode)
+            return null;
+        if (params.information == Closed_Loop && gameState.hashCode() != newRoot.state.hashCode())
+            return null;  // the stored state is from a different outcome of a random event
+        // (we use hashCode() rather than equals() as the latter is not safe for all game parameters)
+        newRoot.makeRoot(this, gameState, rnd);
+        reusedVisits = newRoot.getVisits();
+        return newRoot;
+    }
+
+    /**
+     * @return The number of visits in the sub-tree that was retained from the previous decision (zero if none was)
+     */
+    public int getReusedVisits() {
+        return reusedVisits;
+    }
+
+    /**
+     * @return The bytes allocated during the last decision (by all the search threads); zero if the JVM does not
+     * support measurement of this
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return The number of feature vectors found in the feature cache during the last decision (by all the search
+     * threads); see CachedStateFeatureVector
+     */
+    public long getFeatureCacheHits() {
+        return featureCacheHits;
+    }
+
+    /**
+     * @return The number of feature vectors that had to be extracted during the last decision (by all the search
+     * threads)
+     */
+    public long getFeatureCacheMisses() {
+        return featureCacheMisses;
+    }
+
+    /**
+     * @return The search iterations per second in the last decision (summed over the trees, or threads, searching in
+     * parallel)
+     */
+    public double getIterationsPerSecond() {
+        if (searchTimers != null)
+            return Arrays.stream(searchTimers).mapToDouble(BudgetTimer::getIterationsPerSecond).sum();
+        SingleTreeNode[] trees = parallelRoots == null ? new SingleTreeNode[]{root} : parallelRoots;
+        double total = 0.0;
+        for (SingleTreeNode tree : trees)
+            if (tree != null && tree.budgetTimer != null)
+                total += tree.budgetTimer.getIterationsPerSecond();
+        return total;
+    }
+
+    /**
+     * @return The number of nodes in the last search tree(s) that were re-used from a node pool
+     */
+    public int getPooledNodes() {
+        return pooledNodes;
+    }
+
+    private static long threadAllocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadBean;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Gives the tree the MAST statistics from earlier decisions (if there are any); these are copied if there are
+     * several trees, as each then updates its own
+     */
+    private void initialiseMAST(SingleTreeNode tree, AbstractPlayer rollout, AbstractPlayer oppModel, boolean copy) {
+        if (MASTStats != null)
+            tree.MASTStatistics = copy ? MASTStats.copy() : MASTStats;
+
+        if (rollout instanceof IMASTUser) {
+            ((IMASTUser) rollout).setStats(tree.MASTStatistics);
+        }
+        if (oppModel instanceof IMASTUser) {
+            ((IMASTUser) oppModel).setStats(tree.MASTStatistics);
+        }
+    }
+
+    /**
+     * Root parallelisation. We search params.parallelTrees independent trees concurrently from the same root state.
+     * Each tree has its own worker (with its own Random, forward model, rollout/opponent policies and heuristic) so
+     * that nothing mutable is shared between threads.
+     * For a time budget every tree gets the full budget (so we get more iterations in the same wall-clock time);
+     * for all other budget types the budget is split between the trees, so that the total number of
+     * iterations/FM calls/copies is unchanged.
+     * With params.determinisedTrees (and Information_Set) this is an ensemble of determinisations (PIMC): each tree
+     * is given its own determinisation of the root state, and searches only that.
+     *
+     * @return the root of each tree after search; these are only combined when we pick the final action
+     */
+    protected SingleTreeNode[] parallelSearch(AbstractGameState gameState) {
+        int nTrees = params.parallelTrees;
+        int treeBudget = params.budgetType == BUDGET_TIME ? params.budget : Math.max(1, params.budget / nTrees);
+        List<Callable<SingleTreeNode>> tasks = new ArrayList<>();
+        long[] workerBytes = new long[nTrees];
+        long[] workerHits = new long[nTrees], workerMisses = new long[nTrees];
+        boolean determinised = usesDeterminisedTrees();
+        for (int i = 0; i < nTrees; i++) {
+            // workers are set up on this thread, so that the seeds they use (and any determinisations) are reproducible
+            MCTSPlayer worker = createSearchWorker(rnd.nextLong());
+            AbstractGameState workerState = determinised ? gameState.copy(gameState.getCurrentPlayer()) : gameState.copy();
+            SingleTreeNode tree = SingleTreeNode.createRootNode(worker, workerState, worker.rnd, nodeFactory(i));
+            tree.fixedDeterminisation = determinised;
+            initialiseMAST(tree, worker.rolloutStrategy, worker.opponentModel, true);
+            int treeIndex = i;
+            tasks.add(() -> {
+                long startBytes = threadAllocatedBytes();
+                long startHits = CachedStateFeatureVector.getHits(), startMisses = CachedStateFeatureVector.getMisses();
+                tree.mctsSearch(treeBudget);
+                workerBytes[treeIndex] = threadAllocatedBytes() - startBytes;
+                workerHits[treeIndex] = CachedStateFeatureVector.getHits() - startHits;
+                workerMisses[treeIndex] = CachedStateFeatureVector.getMisses() - startMisses;
+                return tree;
+            });
+        }
+        SingleTreeNode[] retValue = runInParallel(tasks, "parallel MCTS search").toArray(new SingleTreeNode[0]);
+        allocatedBytes = Arrays.stream(workerBytes).sum();
+        featureCacheHits = Arrays.stream(workerHits).sum();
+        featureCacheMisses = Arrays.stream(workerMisses).sum();
+        return retValue;
+    }
+
+    /**
+     * Tree parallelisation. We search the one tree with params.sharedTreeThreads threads, each with its own worker
+     * (as for root parallelisation) for the rollouts; see SingleTreeNode.sharedTreeSearch().
+     */
+    private void sharedTreeSearch(SingleTreeNode tree) {
+        if (params.useMAST)
+            throw new IllegalArgumentException("MAST is not supported with sharedTreeThreads");
+        int nThreads = params.sharedTreeThreads;
+        List<Callable<BudgetTimer>> tasks = new ArrayList<>();
+        long[] workerBytes = new long[nThreads];
+        long[] workerHits = new long[nThreads], workerMisses = new long[nThreads];
+        for (int i = 0; i < nThreads; i++) {
+            MCTSPlayer worker = createSearchWorker(rnd.nextLong());
+            int threadIndex = i;
+            tasks.add(() -> {
+                long startBytes = threadAllocatedBytes();
+                long startHits = CachedStateFeatureVector.getHits(), startMisses = CachedStateFeatureVector.getMisses();
+                BudgetTimer timer = tree.sharedTreeSearch(worker);
+                workerBytes[threadIndex] = threadAllocatedBytes() - startBytes;
+                workerHits[threadIndex] = CachedStateFeatureVector.getHits() - startHits;
+                workerMisses[threadIndex] = CachedStateFeatureVector.getMisses() - startMisses;
+                return timer;
+            });
+        }
+        tree.setSharedTree(true);
+        try {
+            searchTimers = runInParallel(tasks, "shared tree MCTS search").toArray(new BudgetTimer[0]);
+        } finally {
+            tree.setSharedTree(false);
+        }
+        tree.timeTaken = Arrays.stream(searchTimers).mapToDouble(BudgetTimer::elapsedMillis).max().orElse(0.0);
+        allocatedBytes = Arrays.stream(workerBytes).sum();
+        featureCacheHits = Arrays.stream(workerHits).sum();
+        featureCacheMisses = Arrays.stream(workerMisses).sum();
+    }
+
+    /**
+     * Runs the tasks on a pool with a thread for each, which is shut down once they are done (or one fails)
+     *
+     * @return the results, in the order of the tasks
+     */
+    private <T> List<T> runInParallel(List<Callable<T>> tasks, String description) {
+        ExecutorService pool = ThreadPools.newDaemonPool(tasks.size(), "MCTS-" + this);
+        try {
+            List<Future<T>> results = new ArrayList<>();
+            for (Callable<T> task : tasks)
+                results.add(pool.submit(task));
+            List<T> retValue = new ArrayList<>();
+            for (Future<T> result : results)
+                retValue.add(ThreadPools.get(result, description));
+            return retValue;
+        } finally {
+            pool.shutdownNow();
+        }
     }
 
+    private MCTSPlayer createSearchWorker(long seed) {
+        MCTSPlayer worker = new MCTSPlayer(params, toString());
+        worker.rnd = new Random(seed);
+        worker.rolloutStrategy = rolloutStrategy.copy();
+        worker.opponentModel = opponentModel.copy();
+        if (heuristic instanceof TunableParameters)
+            worker.heuristic = (IStateHeuristic) ((TunableParameters) heuristic).copy();
+        else
+            worker.heuristic = heuristic;  // other heuristics are assumed to be stateless
+        if (advantageFunction != null)
+            worker.advantageFunction = advantageFunction.copy();
+        worker.setForwardModel(getForwardModel().copy());
+        return worker;
+    }
+
+    private boolean usesDeterminisedTrees() {
+        return params.determinisedTrees && params.information == Information_Set;
+    }
+
+    /**
+     * The statistics for each action are summed across all the trees, and then the selection policy is applied
+     * to these totals (TREE is treated as SIMPLE, as the tree policies are specific to a single tree).
+     * With determinised trees each tree instead votes for its own best action.
+     */
+    protected AbstractAction bestActionAcross(SingleTreeNode[] roots) {
+        if (usesDeterminisedTrees())
+            return voteAcross(roots);
+        Map<AbstractAction, Integer> visits = new LinkedHashMap<>();
+        Map<AbstractAction, Double> values = new HashMap<>();
+        for (SingleTreeNode tree : roots) {
+            for (AbstractAction action : tree.children.keySet()) {
+                if (tree.children.get(action) == null) continue;
+                visits.merge(action, tree.actionVisits(action), Integer::sum);
+                values.merge(action, tree.actionTotValue(action, tree.decisionPlayer), Double::sum);
+            }
+        }
+        if (visits.isEmpty())
+            return roots[0].bestAction();  // nothing expanded at all (very small budget)
+        boolean robust = params.selectionPolicy == ROBUST && new HashSet<>(visits.values()).size() > 1;
+        AbstractAction bestAction = null;
+        double bestValue = -Double.MAX_VALUE;
+        for (AbstractAction action : visits.keySet()) {
+            double actionValue = robust ? visits.get(action) : values.get(action) / (visits.get(action) + params.epsilon);
+            actionValue = Utils.noise(actionValue, params.epsilon, rnd.nextDouble());
+            if (actionValue > bestValue) {
+                bestValue = actionValue;
+                bestAction = action;
+            }
+        }
+        return bestAction;
+    }
+
+    /**
+     * Each tree (searching one determinisation) votes for the action it would choose on its own, and we take the
+     * action with most votes. Ties are broken by the total visits to the action across all the trees.
+     */
+    private AbstractAction voteAcross(SingleTreeNode[] roots) {
+        votes = new LinkedHashMap<>();
+        for (SingleTreeNode tree : roots) {
+            AbstractAction vote = tree.bestAction();
+            if (vote != null)
+                votes.merge(vote, 1, Integer::sum);
+        }
+        AbstractAction bestAction = null;
+        int bestVotes = 0;
+        int bestVisits = -1;
+        for (Map.Entry<AbstractAction, Integer> entry : votes.entrySet()) {
+            int visits = Arrays.stream(roots).mapToInt(t -> t.actionVisits(entry.getKey())).sum();
+            if (entry.getValue() > bestVotes || (entry.getValue() == bestVotes && visits > bestVisits)) {
+                bestAction = entry.getKey();
+                bestVotes = entry.getValue();
+                bestVisits = visits;
+            }
+        }
+        return bestAction;
+    }
+
+    private MASTTable mergeMASTStatistics(SingleTreeNode[] roots) {
+        MASTTable retValue = roots[0].MASTStatistics.copy();
+        for (int i = 1; i < roots.length; i++)
+            retValue.add(roots[i].MASTStatistics);
+        return retValue;
+    }
 
     public AbstractPlayer getOpponentModel(int playerID) {
         return opponentModel;
@@ -134,7 +498,6 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
             ((IGameListener) heuristic).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
         if (advantageFunction instanceof IGameListener)
             ((IGameListener) advantageFunction).onEvent(Event.createEvent(Event.GameEvent.GAME_OVER, state));
-
     }
 
     @Override
@@ -160,14 +523,28 @@ public class MCTSPlayer extends AbstractPlayer implements IAnyTimePlayer {
         Map<AbstractAction, Map<String, Object>> retValue = new LinkedHashMap<>();
 
         if (root != null && root.getVisits() > 1) {
-            for (AbstractAction action : root.children.keySet()) {
-                int visits = Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToInt(SingleTreeNode::getVisits).sum();
-                double visitProportion = visits / (double) root.getVisits();
-                double meanValue =  Arrays.stream(root.children.get(action)).filter(Objects::nonNull).mapToDouble(n -> n.getTotValue()[root.decisionPlayer]).sum()/ visits;
+            SingleTreeNode[] trees = parallelRoots == null ? new SingleTreeNode[]{root} : parallelRoots;
+            int totalVisits = Arrays.stream(trees).mapToInt(SingleTreeNode::getVisits).sum();
+            // an action may only have been expanded in some of the trees
+            Set<AbstractAction> allActions = new LinkedHashSet<>();
+            for (SingleTreeNode tree : trees)
+                allActions.addAll(tree.children.keySet());
+            if (parallelRoots != null && usesDeterminisedTrees())
+                allActions.addAll(votes.keySet());
+            for (AbstractAction action : allActions) {
+                int visits = Arrays.stream(trees).mapToInt(t -> t.actionVisits(action)).sum();
+                double visitProportion = visits / (double) totalVisits;
+                double meanValue = visits == 0 ? 0.0 : Arrays.stream(trees).mapToDouble(t -> t.actionTotValue(action, t.decisionPlayer)).sum() / visits;
                 double heuristicValue = heuristic != null ? heuristic.evaluateState(root.state, root.decisionPlayer) : 0.0;
                 double advantageValue = advantageFunction != null ? advantageFunction.evaluateAction(action, root.state) : 0.0;
 
                 Map<String, Object> actionValues = new HashMap<>();
+                if (parallelRoots != null) {
+                    // the visits in each tree (with determinised trees, the visit distribution of each determinisation)
+                    actionValues.put("treeVisits", Arrays.stream(trees).mapToInt(t -> t.actionVisits(action)).toArray());
+                    if (usesDeterminisedTrees())
+                        actionValues.put("votes", votes.getOrDefault(action, 0));
+                }
                 actionValues.put("visits", visits);
                 actionValues.put("visitProportion", visitProportion);
                 actionValues.put("meanValue", meanValue);
@@ -10,7 +10,6 @@ import utilities.Utils;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static utilities.Utils.entropyOf;
 
@@ -42,6 +41,7 @@ public class MultiTreeNode extends SingleTreeNode {
         this.params = player.params;
         this.forwardModel = player.getForwardModel();
         this.heuristic = player.heuristic;
+        this.advantageFunction = player.advantageFunction;
         this.rnd = rnd;
         this.opponentModels = new AbstractPlayer[state.getNPlayers()];
         mctsPlayer = player;
@@ -52,21 +52,12 @@ public class MultiTreeNode extends SingleTreeNode {
                 opponentModels[p] = player.getOpponentModel(p);
         }
         // only root node maintains MAST statistics
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
-        MASTFunction = (a, s) -> {
-            Map<Object, Pair<Integer, Double>> MAST = MASTStatistics.get(decisionPlayer);
-            if (MAST.containsKey(a)) {
-                Pair<Integer, Double> stats = MAST.get(a);
-                return stats.b / (stats.a + params.epsilon);
-            }
-            return 0.0;
-        };
+        MASTStatistics = new MASTTable(params.MASTActionKey);
+        MASTFunction = (a, s) -> MASTStatistics.getMeanValue(decisionPlayer, a, 0.0);
         instantiate(null, null, state);
 
         roots = new SingleTreeNode[state.getNPlayers()];
-        roots[this.decisionPlayer] = SingleTreeNode.createRootNode(player, state, rnd, player.getFactory());
+        roots[this.decisionPlayer] = SingleTreeNode.createRootNode(player, state, rnd, player.nodeFactory());
         if (params.paranoid)
             roots[this.decisionPlayer].paranoidPlayer = decisionPlayer;
         currentLocation = new SingleTreeNode[state.getNPlayers()];
@@ -85,8 +76,7 @@ public class MultiTreeNode extends SingleTreeNode {
         AbstractGameState currentState = this.openLoopState;  // this will have been set correctly before calling this method
         SingleTreeNode currentNode;
 
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> heuristic.evaluateState(currentState, i)).toArray();
+        double[] startingValues = startingValues();
 
         if (!currentState.isNotTerminal())
             return;
@@ -99,8 +89,13 @@ public class MultiTreeNode extends SingleTreeNode {
         for (int i = 0; i < currentLocation.length; i++)
             currentLocation[i] = roots[i];
 
-        actionsInTree = new ArrayList<>();
-        actionsInRollout = new ArrayList<>();
+        if (actionsInTree == null) {
+            actionsInTree = new ArrayList<>();
+            actionsInRollout = new ArrayList<>();
+        } else {
+            actionsInTree.clear();
+            actionsInRollout.clear();
+        }
 
         // Keep iterating while the state reached is not terminal and the depth of the tree is not exceeded
         do {
@@ -109,7 +104,7 @@ public class MultiTreeNode extends SingleTreeNode {
             int currentActor = currentState.getCurrentPlayer();
             if (roots[currentActor] == null) {
                 // their first action in search; set a root for their tree
-                SingleTreeNode pseudoRoot = SingleTreeNode.createRootNode(mctsPlayer, currentState.copy(), rnd, mctsPlayer.getFactory());
+                SingleTreeNode pseudoRoot = SingleTreeNode.createRootNode(mctsPlayer, currentState.copy(), rnd, mctsPlayer.nodeFactory());
                 pseudoRoot.decisionPlayer = currentActor;
                 if (params.paranoid)
                     pseudoRoot.paranoidPlayer = decisionPlayer;
@@ -122,17 +117,15 @@ public class MultiTreeNode extends SingleTreeNode {
                 // all actions after the expansion for a player are rollout actions
                 // note that different players will enter rollout at different times, which is why
                 // we cannot have a simple rollout() method as in SingleTree search
-                AbstractPlayer agent = opponentModels[currentActor];
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(currentState, mctsPlayer.params.actionSpace);
-                if (availableActions.isEmpty())
+                AbstractAction chosen = rolloutPolicyAction(currentState);
+                if (chosen == null)
                     throw new AssertionError("We should always have something to choose from");
 
-                AbstractAction chosen = agent.getAction(currentState, availableActions);
                 actionsInRollout.add(new Pair<>(currentActor, chosen));
                 if (debug)
                     System.out.printf("Rollout action chosen for P%d - %s %n", currentActor, chosen);
 
-                advance(currentState, chosen, true);
+                advance(currentState, chosen);
             } else {  // in the tree still for this player
                 // currentNode is the last node that this actor was at in their tree
                 currentNode = currentLocation[currentActor];
@@ -148,14 +141,14 @@ public class MultiTreeNode extends SingleTreeNode {
                     expansionActionTaken[currentActor] = true;
                     if (debug)
                         System.out.printf("Expansion action chosen for P%d - %s %n", currentActor, chosen);
-                    advance(currentState, chosen, false);
+                    advance(currentState, chosen);
                     // we will create the new node once we get back to a point when it is this player's action again
                 } else {
                     chosen = currentNode.treePolicyAction(true);
                     lastAction[currentActor] = chosen;
                     if (debug)
                         System.out.printf("Tree action chosen for P%d - %s %n", currentActor, chosen);
-                    advance(currentState, chosen, false);
+                    advance(currentState, chosen);
                 }
                 actionsInTree.add(new Pair<>(currentActor, chosen));
                 if (currentLocation[currentActor].depth >= params.maxTreeDepth)
@@ -172,10 +165,10 @@ public class MultiTreeNode extends SingleTreeNode {
         }
 
         // Evaluate final state and return normalised score
-        double[] finalValues = new double[state.getNPlayers()];
+        double[] finalValues = heuristic.evaluateAllPlayers(currentState);
 
         for (int i = 0; i < finalValues.length; i++) {
-            finalValues[i] = heuristic.evaluateState(currentState, i) - (params.nodesStoreScoreDelta ? startingValues[i] : 0);
+            finalValues[i] -= startingValues[i];
         }
         for (SingleTreeNode singleTreeNode : currentLocation) {
             if (singleTreeNode != null)
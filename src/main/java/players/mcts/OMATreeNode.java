@@ -117,6 +117,13 @@ public class OMATreeNode extends SingleTreeNode {
         }
     }
 
+    @Override
+    protected void clear() {
+        super.clear();
+        OMAParent = Optional.empty();
+        OMAChildren.clear();
+    }
+
     public Optional<OMATreeNode> getOMAParent() {
         return OMAParent;
     }
@@ -2,8 +2,11 @@ package players.mcts;
 
 import core.*;
 import core.actions.AbstractAction;
+import core.interfaces.IActionHeuristic;
 import core.interfaces.IStateHeuristic;
+import players.BudgetTimer;
 import players.PlayerConstants;
+import players.simple.RandomPlayer;
 import utilities.*;
 
 import java.util.*;
@@ -13,6 +16,7 @@ import java.util.stream.IntStream;
 import static java.util.stream.Collectors.*;
 import static players.PlayerConstants.*;
 import static players.mcts.MCTSEnums.Information.Closed_Loop;
+import static players.mcts.MCTSEnums.Information.Information_Set;
 import static players.mcts.MCTSEnums.OpponentTreePolicy.*;
 import static players.mcts.MCTSEnums.RolloutTermination.DEFAULT;
 import static players.mcts.MCTSEnums.SelectionPolicy.*;
@@ -21,7 +25,6 @@ import static utilities.Utils.*;
 
 public class SingleTreeNode {
 
-    private final Map<AbstractAction, Integer> nValidVisits = new HashMap<>();
     // State in this node (closed loop)
     protected AbstractGameState state;
     // State in this node (open loop - this is updated by onward trajectory....be very careful about using)
@@ -32,6 +35,7 @@ public class SingleTreeNode {
     protected AbstractPlayer[] opponentModels;
     protected Random rnd;
     protected IStateHeuristic heuristic;
+    protected IActionHeuristic advantageFunction;
     // Number of FM calls and State copies up until this node
     protected int fmCallsCount;
     protected int copyCount;
@@ -42,10 +46,6 @@ public class SingleTreeNode {
     // Number of visits to this node
     protected int nVisits;
     protected int rolloutActionsTaken;
-    // variables to track rollout - these were originally local in rollout(); but
-    // having them on the node reduces verbiage in passing to advance() to check rollout termination in some edge cases
-    // (specifically when using SelfOnly trees, with START/END_TURN/ROUND rollout termination conditions
-    protected int rolloutDepth, roundAtStartOfRollout, turnAtStartOfRollout, lastActorInRollout;
     List<AbstractAction> actionsFromOpenLoopState = new ArrayList<>();
     Map<AbstractAction, Double> advantagesOfActionsFromOLS = new HashMap<>();
     // Depth of this node
@@ -55,6 +55,7 @@ public class SingleTreeNode {
     int round, turn, turnOwner;
     boolean terminalNode;
     double timeTaken;
+    BudgetTimer budgetTimer;  // for the last search from this node
     double highReward = Double.NEGATIVE_INFINITY;
     double lowReward = Double.POSITIVE_INFINITY;
     // Root node of tree
@@ -65,48 +66,273 @@ public class SingleTreeNode {
     // could be by any player - each of which would transition to a different Node OpenLoop search. (Closed Loop will
     // only ever have one position in the array populated: and similarly if we are using a SelfOnly tree).
     Map<AbstractAction, SingleTreeNode[]> children = new HashMap<>();
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
-    ToDoubleBiFunction<AbstractAction, AbstractGameState> advantageFunction = (a, s) -> advantagesOfActionsFromOLS.getOrDefault(a, 0.0);
+    // Statistics for each action from this node, summed over all the child nodes for that action (from the
+    // perspective of decisionPlayer). These are kept in step with the child nodes during backUp(), so that selection
+    // is a scan over primitive arrays rather than a set of look-ups in children.
+    // An action's position in these arrays is fixed when it is first seen (see actionIndex)
+    private final Map<AbstractAction, Integer> actionIndex = new HashMap<>();
+    private int[] actionVisitCounts = new int[8];
+    private int[] actionValidVisits = new int[8];
+    private double[] actionValueSums = new double[8];
+    private double[] actionSquareSums = new double[8];
+    // the index of each element of actionsFromOpenLoopState (same order)
+    private int[] openLoopIndices = NO_INDICES;
+    private static final int[] NO_INDICES = new int[0];
+    // the prior value (from the advantage function or MAST) of each element of actionsFromOpenLoopState (same order).
+    // With progressive widening the actions are sorted by this once when they are set, in descending order
+    private double[] openLoopPriors = NO_PRIORS;
+    private static final double[] NO_PRIORS = new double[0];
+    // With progressive widening, the actions (in the order from the forward model) and priors they were last sorted
+    // from. With Open_Loop the actions are set on every visit, and these are usually unchanged, so the last sort holds.
+    // newPriors is the buffer the priors are computed into, to be compared with sortedFromPriors
+    private List<AbstractAction> sortedFromActions = Collections.emptyList();
+    private double[] sortedFromPriors = NO_PRIORS;
+    private double[] newPriors = NO_PRIORS;
+    // the index of actionToReach in the parent's arrays
+    private int indexInParent = -1;
+    MASTTable MASTStatistics; // (player, action) -> (visits, totValue)
     ToDoubleBiFunction<AbstractAction, AbstractGameState> MASTFunction;
     // The total value of all trajectories through this node (one element per player)
     private double[] totValue;
     private double[] totSquares;
     private Supplier<? extends SingleTreeNode> factory;
-    // Total value of this node
+    // The trajectory of the current iteration (only used on the root; the lists are re-used for each iteration)
     List<Pair<Integer, AbstractAction>> actionsInTree;
     List<Pair<Integer, AbstractAction>> actionsInRollout;
+    // Only used on the root, and only with params.transpositionTable. A node can then have several parents, so
+    // backUp() follows the path of the current iteration (the nodes, and the index of the action taken from each)
+    TranspositionTable transpositions;
+    private List<SingleTreeNode> pathInTree;
+    private int[] pathActions = NO_INDICES;
+    // Only used on the root, and only during a search with params.leafBatchSize > 1: the leaves waiting to be evaluated
+    private List<QueuedLeaf> leafQueue;
+    // Only used on the root: set while several threads search the tree at once (params.sharedTreeThreads), and the
+    // number of iterations they have started
+    private boolean sharedTree;
+    private int sharedIterations;
+    // Only used on the root. If set, the root state is already a determinisation, and is searched as it is instead
+    // of being redeterminised on each iteration (with Information_Set)
+    boolean fixedDeterminisation;
+    // Only used on the root: the heuristic values of the root state, when these are the same for every iteration
+    private double[] rootStartingValues;
+    // Only used on the root, when the starting values are found on each iteration: their sum over all iterations
+    private double[] startingValueSums;
+    private int startingValueCount;
 
     protected SingleTreeNode() {
 
     }
 
+    /**
+     * Returns the node to the state of a newly constructed one, so that it can be re-used from a MCTSNodePool.
+     * This also releases all references to game states and other nodes.
+     * Sub-classes with their own statistics need to clear these as well.
+     */
+    protected void clear() {
+        state = null;
+        openLoopState = null;
+        root = null;
+        parent = null;
+        actionToReach = null;
+        fmCallsCount = 0;
+        copyCount = 0;
+        paranoidPlayer = -1;
+        nVisits = 0;
+        rolloutActionsTaken = 0;
+        timeTaken = 0.0;
+        highReward = Double.NEGATIVE_INFINITY;
+        lowReward = Double.POSITIVE_INFINITY;
+        actionsFromOpenLoopState = Collections.emptyList();
+        advantagesOfActionsFromOLS.clear();
+        children.clear();
+        int nActions = actionIndex.size();
+        Arrays.fill(actionVisitCounts, 0, nActions, 0);
+        Arrays.fill(actionValidVisits, 0, nActions, 0);
+        Arrays.fill(actionValueSums, 0, nActions, 0.0);
+        Arrays.fill(actionSquareSums, 0, nActions, 0.0);
+        actionIndex.clear();
+        openLoopIndices = NO_INDICES;
+        openLoopPriors = NO_PRIORS;
+        sortedFromActions = Collections.emptyList();
+        sortedFromPriors = NO_PRIORS;
+        newPriors = NO_PRIORS;
+        indexInParent = -1;
+        MASTStatistics = null;
+        MASTFunction = null;
+        if (actionsInTree != null) {
+            actionsInTree.clear();
+            actionsInRollout.clear();
+        }
+        transpositions = null;
+        fixedDeterminisation = false;
+        rootStartingValues = null;
+        startingValueSums = null;
+        startingValueCount = 0;
+        if (pathInTree != null)
+            pathInTree.clear();
+        leafQueue = null;
+        sharedTree = false;
+        sharedIterations = 0;
+    }
+
     // Called in tree expansion
     public static SingleTreeNode createRootNode(MCTSPlayer player, AbstractGameState state, Random rnd, Supplier<? extends SingleTreeNode> factory) {
         SingleTreeNode retValue = factory.get();
         retValue.factory = factory;
         retValue.decisionPlayer = state.getCurrentPlayer();
-        retValue.params = player.params;
-        retValue.forwardModel = player.getForwardModel();
-        retValue.heuristic = player.heuristic;
-        retValue.rnd = rnd;
-        retValue.opponentModels = new AbstractPlayer[state.getNPlayers()];
-        for (int p = 0; p < retValue.opponentModels.length; p++) {
-            if (p == retValue.decisionPlayer)
-                retValue.opponentModels[p] = player.rolloutStrategy;
+        retValue.setRootInformation(player, state, rnd);
+        retValue.instantiate(null, null, state);
+        if (usesTranspositions(retValue.params, state))
+            retValue.transpositions = new TranspositionTable(retValue.params.transpositionTableSize);
+        return retValue;
+    }
+
+    /**
+     * Transpositions need the state at each node (so Closed Loop), a node for every action by any player, and a
+     * game with a full 64-bit state hash (as nodes are matched on the hash alone).
+     */
+    private static boolean usesTranspositions(MCTSParams params, AbstractGameState state) {
+        return params.transpositionTable && params.information == Closed_Loop && params.opponentTreePolicy == OneTree
+                && state.hasStateHash();
+    }
+
+    private void setRootInformation(MCTSPlayer player, AbstractGameState state, Random rnd) {
+        rootStartingValues = null;
+        startingValueSums = null;
+        startingValueCount = 0;
+        params = player.params;
+        forwardModel = player.getForwardModel();
+        heuristic = player.heuristic;
+        advantageFunction = player.advantageFunction;
+        this.rnd = rnd;
+        opponentModels = rolloutPolicies(player, state.getNPlayers(), decisionPlayer);
+        // only root node maintains MAST statistics
+        MASTStatistics = new MASTTable(params.MASTActionKey);
+        // this reads the field each time, as MCTSPlayer replaces the table with the one kept from earlier decisions
+        MASTFunction = (a, s) -> MASTStatistics.getMeanValue(s.getCurrentPlayer(), a, params.MASTDefaultValue);
+    }
+
+    /**
+     * The rollout policy of the decision player, and the opponent model of every other player (indexed by player id)
+     */
+    private static AbstractPlayer[] rolloutPolicies(MCTSPlayer player, int nPlayers, int decisionPlayer) {
+        AbstractPlayer[] retValue = new AbstractPlayer[nPlayers];
+        for (int p = 0; p < nPlayers; p++) {
+            if (p == decisionPlayer)
+                retValue[p] = player.rolloutStrategy;
             else
-                retValue.opponentModels[p] = player.getOpponentModel(p);
-            retValue.opponentModels[p].getParameters().actionSpace = player.params.actionSpace;  // TODO makes sense?
+                retValue[p] = player.getOpponentModel(p);
+            retValue[p].getParameters().actionSpace = player.params.actionSpace;  // TODO makes sense?
         }
-        // only root node maintains MAST statistics
-        retValue.MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            retValue.MASTStatistics.add(new HashMap<>());
-        MASTActionHeuristic MASTHeuristic = new MASTActionHeuristic(retValue.MASTStatistics, retValue.params.MASTActionKey, retValue.params.MASTDefaultValue);
-        retValue.MASTFunction = MASTHeuristic::evaluateAction;
-        retValue.instantiate(null, null, state);
         return retValue;
     }
 
+    /**
+     * Follows the trajectory of actions down the tree from this node.
+     * Where an action can lead to nodes for different players, we pick the one from which the next action in the
+     * trajectory has been tried; and for the very last action the node of the player who is to act next.
+     *
+     * @param trajectory - the actions taken (by all players) from this node
+     * @param nextPlayer - the player who acts after the last action in the trajectory
+     * @return the matching node, or null if the trajectory leaves the tree
+     */
+    SingleTreeNode findDescendant(List<AbstractAction> trajectory, int nextPlayer) {
+        SingleTreeNode node = this;
+        for (int i = 0; i < trajectory.size() && node != null; i++) {
+            SingleTreeNode[] nodeArray = node.children.get(trajectory.get(i));
+            if (nodeArray == null)
+                return null;
+            if (i == trajectory.size() - 1) {
+                node = nodeArray[nextPlayer];
+            } else {
+                AbstractAction nextAction = trajectory.get(i + 1);
+                node = Arrays.stream(nodeArray)
+                        .filter(n -> n != null && n.children.get(nextAction) != null)
+                        .findFirst().orElse(null);
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Converts this node into the root of its own tree (detaching it from its current parent), keeping all the
+     * statistics in the sub-tree. This is used to re-use the relevant part of the tree from a previous decision.
+     * <p>
+     * With params.nodesStoreScoreDelta the values in the tree are relative to the starting values of the old root,
+     * so they are all shifted to be relative to the starting values of the new root (which the values from new
+     * iterations will be). When the root state is redeterminised on each iteration, the mean of the old starting
+     * values is used (and the heuristic value of the new state), so this is then only approximate.
+     *
+     * @param player - the MCTSPlayer making the new decision
+     * @param state  - the state at the new decision
+     * @param rnd    - random number generator to use
+     */
+    void makeRoot(MCTSPlayer player, AbstractGameState state, Random rnd) {
+        SingleTreeNode oldRoot = root;
+        double[] oldBaseline = oldRoot.meanStartingValues();
+        int depthOffset = depth;
+        parent = null;
+        actionToReach = null;
+        setRootInformation(player, state, rnd);
+        lowReward = oldRoot.lowReward;
+        highReward = oldRoot.highReward;
+        fmCallsCount = 0;
+        copyCount = 0;
+        rolloutActionsTaken = 0;
+        for (SingleTreeNode node : allNodesInTree()) {
+            node.root = this;
+            node.depth -= depthOffset;
+            node.params = params;
+            node.heuristic = heuristic;
+            node.advantageFunction = advantageFunction;
+            node.opponentModels = opponentModels;
+            node.forwardModel = forwardModel;
+            node.rnd = rnd;
+        }
+        if (oldRoot.transpositions != null) {
+            // the keys include the depth of each node, which has changed
+            transpositions = new TranspositionTable(params.transpositionTableSize);
+            for (SingleTreeNode node : allNodesInTree())
+                transpositions.put(TranspositionTable.key(node.state, node.depth), node);
+        }
+        if (params.information != Closed_Loop) {
+            // in Closed Loop the state stored on the node must be equal to the new state (and we keep it, as it is
+            // the ancestor of all the states stored further down the tree)
+            copyCount++;
+            this.state = state.copyForSearch();
+        }
+        setActionsFromOpenLoopState(this.state);
+
+        if (params.nodesStoreScoreDelta && oldBaseline != null) {
+            double[] newBaseline = usesFixedStartingValues() ? startingValues() : heuristic.evaluateAllPlayers(this.state);
+            double[] difference = new double[oldBaseline.length];
+            for (int i = 0; i < difference.length; i++)
+                difference[i] = oldBaseline[i] - newBaseline[i];
+            // the values are updated in the same way as by backUp() (with the old root's tree policy)
+            double[] shift = new double[difference.length];
+            oldRoot.increments(difference, shift, new double[difference.length]);
+            for (SingleTreeNode node : allNodesInTree())
+                node.shiftValues(shift);
+            lowReward += Arrays.stream(difference).min().orElse(0.0);
+            highReward += Arrays.stream(difference).max().orElse(0.0);
+        }
+    }
+
+    /**
+     * Adds shift to the value of every visit to this node and its actions (and updates the squared values to match)
+     */
+    private void shiftValues(double[] shift) {
+        for (int j = 0; j < shift.length; j++) {
+            totSquares[j] += 2 * shift[j] * totValue[j] + nVisits * shift[j] * shift[j];
+            totValue[j] += nVisits * shift[j];
+        }
+        double actionShift = shift[decisionPlayer];
+        for (int i = 0; i < actionIndex.size(); i++) {
+            actionSquareSums[i] += 2 * actionShift * actionValueSums[i] + actionVisitCounts[i] * actionShift * actionShift;
+            actionValueSums[i] += actionVisitCounts[i] * actionShift;
+        }
+    }
+
     public static SingleTreeNode createChildNode(SingleTreeNode parent, AbstractAction actionToReach, AbstractGameState state,
                                                  Supplier<? extends SingleTreeNode> factory) {
         SingleTreeNode retValue = factory.get();
@@ -120,6 +346,7 @@ public class SingleTreeNode {
         this.root = parent == null ? this : parent.root;
         this.params = root.params;
         this.heuristic = root.heuristic;
+        this.advantageFunction = root.advantageFunction;
         this.opponentModels = root.opponentModels;
         this.forwardModel = root.forwardModel;
         this.rnd = root.rnd;
@@ -134,15 +361,28 @@ public class SingleTreeNode {
         if (parent != null) {
             depth = parent.depth + 1;
             factory = parent.factory;
+            indexInParent = parent.actionIndex.get(actionToReach);
         } else {
             depth = 0;
+            indexInParent = -1;
         }
 
-        totValue = new double[state.getNPlayers()];
-        totSquares = new double[state.getNPlayers()];
-        if (params.information != Closed_Loop && (params.maintainMasterState || depth == 0)) {
+        if (totValue == null || totValue.length != state.getNPlayers()) {
+            totValue = new double[state.getNPlayers()];
+            totSquares = new double[state.getNPlayers()];
+        } else {
+            // a node from a MCTSNodePool
+            Arrays.fill(totValue, 0.0);
+            Arrays.fill(totSquares, 0.0);
+        }
+        if (depth == 0) {
+            // The root state is a search copy, so that no state used in search records history text or copies history.
+            // With open loop we also need to make sure the reference state is never changed
+            root.copyCount++;
+            this.state = state.copyForSearch();
+        } else if (params.information != Closed_Loop && params.maintainMasterState) {
             // if we're using open loop, then we need to make sure the reference state is never changed
-            // however this is only used at the root - and we can switch the copy off for other nodes for performance
+            // however we can switch the copy off for the other nodes for performance
             // these master copies *are* required if we want to do something funky with the final tree, and gather
             // features from the nodes - if we are gathering Expert Iteration data or Learning an Advantage function
             root.copyCount++;
@@ -172,100 +412,317 @@ public class SingleTreeNode {
         // so check the MCTSParams as well
         openLoopState = actionState;
         if (actionState.getCurrentPlayer() == this.decisionPlayer && actionState.isNotTerminalForPlayer(decisionPlayer)) {
-            actionsFromOpenLoopState = forwardModel.computeAvailableActions(actionState, params.actionSpace);
+            List<AbstractAction> actions = forwardModel.computeAvailableActions(actionState, params.actionSpace);
             //      System.out.printf("Setting OLS actions for P%d (%d)%n%s%n", decisionPlayer, actionState.getCurrentPlayer(),
 //                actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
-            if (actionsFromOpenLoopState.size() != actionsFromOpenLoopState.stream().distinct().count())
+            if (actions.size() != actions.stream().distinct().count())
                 throw new AssertionError("Duplicate actions found in action list: " +
-                        actionsFromOpenLoopState.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
+                        actions.stream().map(a -> "\t" + a.toString() + "\n").collect(joining()));
+            int nActions = actions.size();
+            boolean widening = params.progressiveWideningConstant >= 1.0;
+            double[] priors = widening ? newPriors : openLoopPriors;
+            if (priors.length != nActions)
+                priors = new double[nActions];
             if (params.expansionPolicy == MAST) {
-                advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                        .collect(toMap(a -> a, a -> root.MASTFunction.applyAsDouble(a, actionState)));
+                advantagesOfActionsFromOLS = new HashMap<>();
+                for (int i = 0; i < nActions; i++) {
+                    AbstractAction action = actions.get(i);
+                    priors[i] = root.MASTFunction.applyAsDouble(action, actionState);
+                    advantagesOfActionsFromOLS.put(action, priors[i]);
+                }
+            } else if (advantageFunction != null) {
+                double[] actionValues = advantageFunction.evaluateAllActions(actions, actionState);
+                advantagesOfActionsFromOLS = new HashMap<>();
+                for (int i = 0; i < nActions; i++) {
+                    advantagesOfActionsFromOLS.put(actions.get(i), actionValues[i]);
+                    priors[i] = actionValues[i];
+                }
             } else {
-                if (params.advantageFunction != null) {
-                    // advantagesOfActionsFromOLS = actionsFromOpenLoopState.stream()
-                    //        .collect(toMap(a -> a, a -> params.advantageFunction.evaluateAction(a, actionState)));
-                    double[] actionValues = params.advantageFunction.evaluateAllActions(actionsFromOpenLoopState, actionState);
-                    advantagesOfActionsFromOLS = new HashMap<>();
-                    for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
-                        advantagesOfActionsFromOLS.put(actionsFromOpenLoopState.get(i), actionValues[i]);
-                    }
+                Arrays.fill(priors, 0.0);
+            }
+            if (widening) {
+                if (actions.equals(sortedFromActions) && Arrays.equals(priors, sortedFromPriors)) {
+                    // the sorted actions, priors and indices are the same as on the last visit
+                    newPriors = priors;
+                    return;
                 }
+                sortedFromActions = actions;
+                newPriors = sortedFromPriors;  // reused as the buffer next time
+                sortedFromPriors = priors;
+                sortByPriors(actions, priors);
+            } else {
+                actionsFromOpenLoopState = actions;
+                openLoopPriors = priors;
             }
-            for (AbstractAction action : actionsFromOpenLoopState) {
-                if (!children.containsKey(action)) {
-                    children.put(action.copy(), null); // mark a new node to be expanded
+            openLoopIndices = new int[nActions];
+            for (int i = 0; i < actionsFromOpenLoopState.size(); i++) {
+                AbstractAction action = actionsFromOpenLoopState.get(i);
+                Integer index = actionIndex.get(action);
+                if (index == null) {
+                    AbstractAction actionCopy = action.copy();
+                    children.put(actionCopy, null); // mark a new node to be expanded
                     // This *does* rely on a good equals method being implemented for Actions
                     if (!children.containsKey(action))
                         throw new AssertionError("We have an action that does not obey the equals/hashcode contract" + action);
+                    index = addActionIndex(actionCopy);
                 }
+                openLoopIndices[i] = index;
             }
         }
     }
 
+    private int addActionIndex(AbstractAction action) {
+        int index = actionIndex.size();
+        actionIndex.put(action, index);
+        if (index == actionVisitCounts.length) {
+            int newLength = index * 2;
+            actionVisitCounts = Arrays.copyOf(actionVisitCounts, newLength);
+            actionValidVisits = Arrays.copyOf(actionValidVisits, newLength);
+            actionValueSums = Arrays.copyOf(actionValueSums, newLength);
+            actionSquareSums = Arrays.copyOf(actionSquareSums, newLength);
+        }
+        return index;
+    }
+
+    /**
+     * Sets actionsFromOpenLoopState (and openLoopPriors) to the actions in descending order of prior value, so that
+     * progressive widening just takes the first N of them on each visit. Actions with equal priors keep their original
+     * order. The arguments are not changed (but may be used as they are if already in order).
+     */
+    private void sortByPriors(List<AbstractAction> actions, double[] priors) {
+        int n = priors.length;
+        boolean sorted = true;
+        for (int i = 1; i < n && sorted; i++)
+            sorted = priors[i] <= priors[i - 1];
+        if (sorted) {
+            actionsFromOpenLoopState = actions;
+            openLoopPriors = priors;
+            return;
+        }
+        int[] order = descendingOrder(priors);
+        List<AbstractAction> sortedActions = new ArrayList<>(n);
+        double[] sortedPriors = new double[n];
+        for (int i = 0; i < n; i++) {
+            sortedActions.add(actions.get(order[i]));
+            sortedPriors[i] = priors[order[i]];
+        }
+        actionsFromOpenLoopState = sortedActions;
+        openLoopPriors = sortedPriors;
+    }
+
+    /**
+     * @return the indices of values in descending order of value (a stable merge sort, so equal values keep their order)
+     */
+    static int[] descendingOrder(double[] values) {
+        int n = values.length;
+        int[] order = new int[n];
+        int[] buffer = new int[n];
+        for (int i = 0; i < n; i++)
+            order[i] = i;
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n), hi = Math.min(lo + 2 * width, n);
+                int i = lo, j = mid, k = lo;
+                while (i < mid && j < hi)
+                    buffer[k++] = values[order[j]] > values[order[i]] ? order[j++] : order[i++];
+                while (i < mid)
+                    buffer[k++] = order[i++];
+                while (j < hi)
+                    buffer[k++] = order[j++];
+            }
+            int[] temp = order;
+            order = buffer;
+            buffer = temp;
+        }
+        return order;
+    }
+
     /**
      * Performs full MCTS search, using the defined budget limits.
      */
     public void mctsSearch() {
+        mctsSearch(params.budget);
+    }
 
-        // Variables for tracking time budget
-        double avgTimeTaken;
-        timeTaken = 0.0;
-        long remaining;
-        int remainingLimit = params.breakMS;
-        ElapsedCpuTimer elapsedTimer = new ElapsedCpuTimer();
-        if (params.budgetType == BUDGET_TIME) {
-            elapsedTimer.setMaxTimeMillis(params.budget);
-        }
+    /**
+     * Performs full MCTS search with the specified budget (interpreted according to params.budgetType).
+     * This is used directly by root parallelisation, where the overall budget is shared across several trees.
+     */
+    public void mctsSearch(int budget) {
+
+        // The timer tracks any time budget, and the speed of the search for the metrics
+        budgetTimer = new BudgetTimer(params, budget, 2.0);
+        budgetTimer.start();
 
         // Tracking number of iterations for iteration budget
         int numIters = 0;
         rolloutActionsTaken = 0;
+        // MultiTree has its own iterations, so never queues leaves
+        if (params.leafBatchSize > 1 && params.opponentTreePolicy != MultiTree)
+            leafQueue = new ArrayList<>(params.leafBatchSize);
         boolean stop = false;
         while (!stop) {
-            switch (params.information) {
-                case Closed_Loop:
-                    openLoopState = state;
-                    break;
-                case Open_Loop:
-                    openLoopState = state.copy();
-                    copyCount++;
-                    break;
-                case Information_Set:
-                    openLoopState = state.copy(decisionPlayer);
-                    copyCount++;
-                    break;
-            }
-
-            // New timer for this iteration
-            ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
+            resetOpenLoopState();
 
             // Selection + expansion: navigate tree until a node not fully expanded is found, add a new node to the tree
             oneSearchIteration();
 
             // Finished iteration
             numIters++;
-            //       System.out.printf("MCTS Iteration %d, timeLeft: %d\n", numIters, elapsedTimer.remainingTimeMillis());
-            // Check stopping condition
-            PlayerConstants budgetType = params.budgetType;
-            if (budgetType == BUDGET_TIME) {
+            // Check stopping condition (the timer only looks at the clock every few iterations)
+            boolean timeLeft = budgetTimer.iterationDone();
+            if (params.budgetType == BUDGET_TIME) {
                 // Time budget
-                timeTaken += (elapsedTimerIteration.elapsedMillis());
-                avgTimeTaken = timeTaken / numIters;
-                remaining = elapsedTimer.remainingTimeMillis();
-                stop = remaining <= 2 * avgTimeTaken || remaining <= remainingLimit;
-            } else if (budgetType == BUDGET_ITERATIONS) {
-                // Iteration budget
-                stop = numIters >= params.budget;
-            } else if (budgetType == BUDGET_FM_CALLS) {
-                // FM calls budget
-                stop = fmCallsCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_COPY_CALLS) {
-                stop = copyCount > params.budget || numIters > params.budget;
-            } else if (budgetType == BUDGET_FMANDCOPY_CALLS) {
-                stop = (copyCount + fmCallsCount) > params.budget || numIters > params.budget;
+                stop = !timeLeft;
+            } else {
+                stop = budgetUsed(numIters, budget);
             }
         }
+        if (leafQueue != null) {
+            backUpQueuedLeaves();
+            leafQueue = null;
+        }
+        budgetTimer.stop();
+        timeTaken = budgetTimer.elapsedMillis();
+    }
+
+    /**
+     * Tree parallelisation: this thread is one of several searching this tree at once (this is called on the root).
+     * Selection, expansion and back up hold the lock on the root. The rollout and the evaluation of where it ends do
+     * not, and use the worker's own forward model, policies and heuristic. Until an iteration is backed up its path
+     * carries a virtual loss, which steers the other threads elsewhere.
+     * A time budget applies to each thread in full; any other budget is shared between the threads.
+     *
+     * @param worker - holds the forward model, policies and heuristic for this thread
+     * @return the timer of this thread, with the iterations it did
+     */
+    BudgetTimer sharedTreeSearch(MCTSPlayer worker) {
+        BudgetTimer timer = new BudgetTimer(params, params.budget, 2.0);
+        timer.start();
+        AbstractPlayer[] policies = rolloutPolicies(worker, state.getNPlayers(), decisionPlayer);
+        List<Pair<Integer, AbstractAction>> treeActions = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            QueuedLeaf iteration;
+            AbstractGameState startState;
+            int lastActorInTree;
+            synchronized (this) {
+                if (params.budgetType != BUDGET_TIME && budgetUsed(sharedIterations, params.budget))
+                    break;
+                sharedIterations++;
+                resetOpenLoopState();
+                double[] startingValues = startingValues();
+                treeActions.clear();
+                SingleTreeNode selected = treePolicy(treeActions);
+                lastActorInTree = treeActions.isEmpty() ? decisionPlayer : treeActions.get(treeActions.size() - 1).a;
+                // the next iteration gives the nodes on the path a different open loop state, but not this one
+                startState = selected.openLoopState;
+                iteration = pendingLeaf(selected, startingValues, treeActions);
+            }
+            Rollout rollout = new Rollout(worker.getForwardModel(), policies, new ArrayList<>(), lastActorInTree, startState);
+            AbstractGameState finalState = iteration.leaf.playRollout(startState, rollout);
+            double[] delta = relativeValues(worker.heuristic.evaluateAllPlayers(finalState), iteration.startingValues);
+            synchronized (this) {
+                fmCallsCount += rollout.fmCalls;
+                copyCount += rollout.copies;
+                rolloutActionsTaken += rollout.actions.size();
+                iteration.rolloutActions = rollout.actions;
+                backUpLeaf(iteration, delta);
+            }
+            boolean timeLeft = timer.iterationDone();
+            if (params.budgetType == BUDGET_TIME && !timeLeft)
+                break;
+        }
+        timer.stop();
+        return timer;
+    }
+
+    /**
+     * Marks the start (or end) of a search by several threads on this tree, with sharedTreeSearch()
+     */
+    void setSharedTree(boolean shared) {
+        sharedTree = shared;
+        sharedIterations = 0;
+        if (shared)
+            rolloutActionsTaken = 0;
+    }
+
+    /**
+     * Sets the state of the root for a new iteration: the state itself with Closed Loop, and otherwise a copy (or a
+     * new determinisation) that the iteration can change
+     */
+    private void resetOpenLoopState() {
+        switch (params.information) {
+            case Closed_Loop:
+                openLoopState = state;
+                break;
+            case Open_Loop:
+                openLoopState = state.copy();
+                copyCount++;
+                break;
+            case Information_Set:
+                openLoopState = fixedDeterminisation ? state.copy() : state.copy(decisionPlayer);
+                copyCount++;
+                break;
+        }
+    }
+
+    /**
+     * @return true once numIters iterations (and the forward model calls and copies counted so far) use up the
+     * budget; this is not used for a time budget
+     */
+    private boolean budgetUsed(int numIters, int budget) {
+        switch (params.budgetType) {
+            case BUDGET_ITERATIONS:
+                return numIters >= budget;
+            case BUDGET_FM_CALLS:
+                return fmCallsCount > budget || numIters > budget;
+            case BUDGET_COPY_CALLS:
+                return copyCount > budget || numIters > budget;
+            case BUDGET_FMANDCOPY_CALLS:
+                return (copyCount + fmCallsCount) > budget || numIters > budget;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The heuristic values of openLoopState at the start of an iteration, which the values at the end of the rollout
+     * are relative to (or zero if params.nodesStoreScoreDelta is false).
+     * Unless we redeterminise the root state on each iteration, these are the same every time, so are only found once.
+     */
+    protected double[] startingValues() {
+        if (rootStartingValues != null)
+            return rootStartingValues;
+        double[] retValue = params.nodesStoreScoreDelta ? heuristic.evaluateAllPlayers(openLoopState) : new double[openLoopState.getNPlayers()];
+        if (usesFixedStartingValues()) {
+            rootStartingValues = retValue;
+        } else {
+            if (startingValueSums == null)
+                startingValueSums = new double[retValue.length];
+            for (int i = 0; i < retValue.length; i++)
+                startingValueSums[i] += retValue[i];
+            startingValueCount++;
+        }
+        return retValue;
+    }
+
+    private boolean usesFixedStartingValues() {
+        return params.information != Information_Set || fixedDeterminisation || !params.nodesStoreScoreDelta;
+    }
+
+    /**
+     * @return the starting values that the values in the tree are relative to (their mean if these differ from one
+     * iteration to the next), or null if there have been no iterations
+     */
+    private double[] meanStartingValues() {
+        if (rootStartingValues != null)
+            return rootStartingValues;
+        if (startingValueCount == 0)
+            return null;
+        double[] retValue = new double[startingValueSums.length];
+        for (int i = 0; i < retValue.length; i++)
+            retValue[i] = startingValueSums[i] / startingValueCount;
+        return retValue;
     }
 
     /**
@@ -273,11 +730,15 @@ public class SingleTreeNode {
      * Its result is purely stored in the tree generated from root
      */
     protected void oneSearchIteration() {
-        double[] startingValues = IntStream.range(0, openLoopState.getNPlayers())
-                .mapToDouble(i -> heuristic.evaluateState(openLoopState, i)).toArray();
+        double[] startingValues = startingValues();
 
-        actionsInTree = new ArrayList<>();
-        actionsInRollout = new ArrayList<>();
+        if (actionsInTree == null) {
+            actionsInTree = new ArrayList<>();
+            actionsInRollout = new ArrayList<>();
+        } else {
+            actionsInTree.clear();
+            actionsInRollout.clear();
+        }
 
         SingleTreeNode selected = treePolicy(actionsInTree);
         if (selected == this && openLoopState.isNotTerminalForPlayer(decisionPlayer) && nVisits > 3)
@@ -288,6 +749,17 @@ public class SingleTreeNode {
 
         // Monte carlo rollout: return value of MC rollout from the newly added node
         int lastActorInTree = actionsInTree.isEmpty() ? decisionPlayer : actionsInTree.get(actionsInTree.size() - 1).a;
+        if (leafQueue != null) {
+            // the final state is evaluated (and the tree updated) later, along with the rest of the batch
+            QueuedLeaf queued = pendingLeaf(selected, startingValues, actionsInTree);
+            queued.finalState = selected.playRollout(lastActorInTree);
+            queued.rolloutActions = new ArrayList<>(actionsInRollout);
+            leafQueue.add(queued);
+            rolloutActionsTaken += actionsInRollout.size();
+            if (leafQueue.size() >= params.leafBatchSize)
+                backUpQueuedLeaves();
+            return;
+        }
         double[] delta = selected.rollout(startingValues, lastActorInTree);
         // Back up the value of the rollout through the tree
         rolloutActionsTaken += actionsInRollout.size();
@@ -296,6 +768,101 @@ public class SingleTreeNode {
         updateMASTStatistics(actionsInTree, actionsInRollout, delta);
     }
 
+    /**
+     * Records the path of an iteration that has reached this leaf, and applies a virtual loss to it, so that the
+     * iterations that follow before it is backed up are steered elsewhere (this is called on the root).
+     */
+    private QueuedLeaf pendingLeaf(SingleTreeNode leaf, double[] startingValues, List<Pair<Integer, AbstractAction>> treeActions) {
+        SingleTreeNode[] path;
+        int[] edges;
+        if (transpositions != null) {
+            path = pathInTree.toArray(new SingleTreeNode[0]);
+            edges = Arrays.copyOf(pathActions, path.length - 1);
+        } else {
+            int length = 1;
+            for (SingleTreeNode n = leaf; n != this; n = n.parent)
+                length++;
+            path = new SingleTreeNode[length];
+            edges = new int[length - 1];
+            SingleTreeNode n = leaf;
+            for (int i = length - 1; i > 0; i--) {
+                path[i] = n;
+                edges[i - 1] = n.indexInParent;
+                n = n.parent;
+            }
+            path[0] = this;
+        }
+        // the valid actions are those of the state on this iteration, so are counted now rather than on back up
+        if (params.information != Closed_Loop)
+            for (SingleTreeNode n : path)
+                n.countValidVisits();
+        QueuedLeaf retValue = new QueuedLeaf(leaf, startingValues, new ArrayList<>(treeActions), path, edges);
+        addVirtualLoss(path, edges, 1);
+        return retValue;
+    }
+
+    /**
+     * Adds (sign = 1) or removes (sign = -1) a virtual visit with a result of -params.virtualLoss for every player to
+     * the nodes and edges of a path
+     */
+    private void addVirtualLoss(SingleTreeNode[] path, int[] edges, int sign) {
+        double[] loss = new double[state.getNPlayers()];
+        Arrays.fill(loss, -params.virtualLoss);
+        double[] increments = new double[loss.length];
+        double[] squaredIncrements = new double[loss.length];
+        increments(loss, increments, squaredIncrements);
+        // the virtual results are normalised along with the real ones (and may be the only results seen so far)
+        for (double increment : increments) {
+            lowReward = Math.min(lowReward, increment);
+            highReward = Math.max(highReward, increment);
+        }
+        for (int i = 0; i < path.length; i++) {
+            SingleTreeNode n = path[i];
+            n.nVisits += sign;
+            for (int j = 0; j < loss.length; j++) {
+                n.totValue[j] += sign * increments[j];
+                n.totSquares[j] += sign * squaredIncrements[j];
+            }
+            if (i < edges.length) {
+                n.actionVisitCounts[edges[i]] += sign;
+                n.actionValueSums[edges[i]] += sign * increments[n.decisionPlayer];
+                n.actionSquareSums[edges[i]] += sign * squaredIncrements[n.decisionPlayer];
+            }
+        }
+    }
+
+    /**
+     * Removes the virtual losses of all the queued leaves, evaluates their final states in one batch, and backs up
+     * the results (this is called on the root)
+     */
+    private void backUpQueuedLeaves() {
+        List<AbstractGameState> finalStates = new ArrayList<>(leafQueue.size());
+        for (QueuedLeaf queued : leafQueue)
+            finalStates.add(queued.finalState);
+        double[][] values = heuristic.evaluateAllPlayers(finalStates);
+        for (int i = 0; i < values.length; i++) {
+            QueuedLeaf queued = leafQueue.get(i);
+            backUpLeaf(queued, relativeValues(values[i], queued.startingValues));
+        }
+        leafQueue.clear();
+    }
+
+    /**
+     * Removes the virtual loss from the path of a pending iteration, and backs up its result (this is called on the
+     * root)
+     */
+    private void backUpLeaf(QueuedLeaf queued, double[] delta) {
+        addVirtualLoss(queued.path, queued.edges, -1);
+        if (transpositions != null) {
+            // backUp() follows the path of the current iteration
+            pathInTree.clear();
+            Collections.addAll(pathInTree, queued.path);
+            pathActions = queued.edges;
+        }
+        queued.leaf.backUp(delta);
+        updateMASTStatistics(queued.treeActions, queued.rolloutActions, delta);
+    }
+
     protected void updateMASTStatistics(List<Pair<Integer, AbstractAction>> tree, List<Pair<Integer, AbstractAction>> rollout, double[] value) {
         if (params.useMAST) {
             List<Pair<Integer, AbstractAction>> MASTActions = new ArrayList<>();
@@ -316,50 +883,34 @@ public class SingleTreeNode {
     }
 
     /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
+     * @return the total visits to all child nodes reached by this action (zero for an action not seen)
      */
     public int actionVisits(AbstractAction action) {
-        int retValue = 0;
-        SingleTreeNode[] nodes = children.get(action);
-        if (nodes != null) {
-            for (SingleTreeNode node : nodes) {
-                if (node != null)
-                    retValue += node.nVisits;
-            }
-        }
-        return retValue;
+        Integer index = actionIndex.get(action);
+        return index == null ? 0 : actionVisitCounts[index];
     }
 
-    private int validVisitsFor(AbstractAction action) {
+    private int validVisitsFor(int actionIndex) {
         if (params.information == Closed_Loop)
             return nVisits;
-        return nValidVisits.getOrDefault(action, 1);
+        return Math.max(1, actionValidVisits[actionIndex]);
     }
 
     /**
-     * Uses plain java loop instead of streams for performance
-     * (this is called often enough it can make a measurable difference)
+     * The statistics for decisionPlayer are held on this node; for any other player we need to sum over the
+     * child nodes (this is only needed for reporting, and not during search).
      */
     public double actionTotValue(AbstractAction action, int playerId) {
-        double retValue = 0.0;
-        SingleTreeNode[] nodes = children.get(action);
-        if (nodes != null) {
-            for (SingleTreeNode node : nodes) {
-                if (node != null)
-                    retValue += node.totValue[playerId];
-            }
+        if (playerId == decisionPlayer) {
+            Integer index = actionIndex.get(action);
+            return index == null ? 0.0 : actionValueSums[index];
         }
-        return retValue;
-    }
-
-    private double actionSquaredValue(AbstractAction action, int playerId) {
         double retValue = 0.0;
         SingleTreeNode[] nodes = children.get(action);
         if (nodes != null) {
             for (SingleTreeNode node : nodes) {
                 if (node != null)
-                    retValue += node.totSquares[playerId];
+                    retValue += node.totValue[playerId];
             }
         }
         return retValue;
@@ -367,12 +918,11 @@ public class SingleTreeNode {
 
     /**
      * Uses only by TreeStatistics and bestAction() after mctsSearch()
-     * For this reason not converted to old-style java loop as there would be no performance gain
      */
     int[] actionVisits() {
-        return children.values().stream()
-                .filter(Objects::nonNull)
-                .mapToInt(arr -> Arrays.stream(arr).filter(Objects::nonNull).mapToInt(n -> n.nVisits).sum())
+        return children.entrySet().stream()
+                .filter(e -> e.getValue() != null)
+                .mapToInt(e -> actionVisitCounts[actionIndex.get(e.getKey())])
                 .toArray();
     }
 
@@ -387,6 +937,12 @@ public class SingleTreeNode {
 
         SingleTreeNode cur = this;
         int actingPlayer = cur.decisionPlayer;
+        if (transpositions != null) {
+            if (pathInTree == null)
+                pathInTree = new ArrayList<>();
+            pathInTree.clear();
+            pathInTree.add(this);
+        }
 
         // Keep iterating while the state reached is not terminal and the depth of the tree is not exceeded
         while (cur.openLoopState.isNotTerminalForPlayer(actingPlayer) && cur.depth < params.maxTreeDepth && cur.actionsFromOpenLoopState.size() > 0) {
@@ -402,9 +958,19 @@ public class SingleTreeNode {
                     // Because OLS = state in this case, so we need to copy it before updating it and
                     // using it to populate a new node.
                 }
-                cur.advance(nextState, chosen, false);
+                cur.advance(nextState, chosen);
                 // then create the new node
-                return cur.expandNode(chosen, nextState);
+                SingleTreeNode expanded = cur.expandNode(chosen, nextState);
+                if (transpositions != null) {
+                    addToPath(cur, chosen, expanded);
+                    if (expanded.nVisits > 0) {
+                        // we have joined a node already in the tree by a transposition, so we carry on down from it
+                        treeActions.add(new Pair<>(actingPlayer, chosen));
+                        cur = expanded;
+                        continue;
+                    }
+                }
+                return expanded;
             } else {
                 // Move to next child given by UCT function
                 AbstractAction chosen = cur.treePolicyAction(true);
@@ -412,9 +978,12 @@ public class SingleTreeNode {
                     // We do not need to copy the state, as we advance this as we descend the tree.
                     // In open loop we never re-use the state...the only purpose of storing it on the Node is
                     // to pick it up in the next uct() call as we descend the tree
-                    cur.advance(cur.openLoopState, chosen, false);
+                    cur.advance(cur.openLoopState, chosen);
                 }
-                cur = cur.nextNodeInTree(chosen);
+                SingleTreeNode next = cur.nextNodeInTree(chosen);
+                if (transpositions != null)
+                    addToPath(cur, chosen, next);
+                cur = next;
                 // else we keep cur, but will exit immediately
                 treeActions.add(new Pair<>(actingPlayer, chosen));
             }
@@ -422,14 +991,22 @@ public class SingleTreeNode {
         return cur;
     }
 
+    private void addToPath(SingleTreeNode from, AbstractAction action, SingleTreeNode to) {
+        int step = pathInTree.size() - 1;
+        if (step == pathActions.length)
+            pathActions = Arrays.copyOf(pathActions, Math.max(8, step * 2));
+        pathActions[step] = from.actionIndex.get(action);
+        pathInTree.add(to);
+    }
+
     protected List<AbstractAction> actionsToConsider(List<AbstractAction> allAvailable, int usedElsewhere) {
         if (!allAvailable.isEmpty() && params.progressiveWideningConstant >= 1.0) {
             int actionsToConsider = (int) Math.floor(params.progressiveWideningConstant * Math.pow(nVisits + 1, params.progressiveWideningExponent));
             actionsToConsider = Math.min(actionsToConsider - usedElsewhere, allAvailable.size());
             // takes account of the expanded actions
             if (actionsToConsider <= 0) return new ArrayList<>();
-            // sort in advantage order (descending)
-            allAvailable.sort(Comparator.comparingDouble(a -> -advantagesOfActionsFromOLS.getOrDefault(a, 0.0)));
+            // the actions are already in descending order of prior value (see sortByPriors()), as is any
+            // sub-list of them, so further children are unlocked in that order as the visits increase
             return allAvailable.subList(0, actionsToConsider);
         }
         return allAvailable;
@@ -462,11 +1039,12 @@ public class SingleTreeNode {
 
         AbstractAction chosen = null;
 
-        ToDoubleBiFunction<AbstractAction, AbstractGameState> valueFunction = params.expansionPolicy == MAST ? MASTFunction : advantageFunction;
-        if (valueFunction != null) {
+        boolean useMAST = params.expansionPolicy == MAST;
+        if (!useMAST || MASTFunction != null) {
             double bestValue = Double.NEGATIVE_INFINITY;
             for (AbstractAction action : notChosen) {
-                double estimate = valueFunction.applyAsDouble(action, openLoopState);
+                double estimate = useMAST ? MASTFunction.applyAsDouble(action, openLoopState)
+                        : advantagesOfActionsFromOLS.getOrDefault(action, 0.0);
                 if (estimate > bestValue) {
                     bestValue = estimate;
                     chosen = action;
@@ -484,7 +1062,19 @@ public class SingleTreeNode {
     protected SingleTreeNode expandNode(AbstractAction actionCopy, AbstractGameState nextState) {
         // then instantiate a new node
         int nextPlayer = params.opponentTreePolicy.selfOnlyTree ? decisionPlayer : nextState.getCurrentPlayer();
-        SingleTreeNode tn = SingleTreeNode.createChildNode(this, actionCopy, nextState, factory);
+        TranspositionTable transpositions = root.transpositions;
+        SingleTreeNode tn = null;
+        long key = 0;
+        if (transpositions != null) {
+            // if we have already reached this state by another route, then we use the same node
+            key = TranspositionTable.key(nextState, depth + 1);
+            tn = transpositions.get(key);
+        }
+        if (tn == null) {
+            tn = SingleTreeNode.createChildNode(this, actionCopy, nextState, factory);
+            if (transpositions != null)
+                transpositions.put(key, tn);
+        }
         SingleTreeNode[] nodeArray = new SingleTreeNode[nextState.getNPlayers()];
         nodeArray[nextPlayer] = tn; // we store this by id of the player who will take their turn next
         children.put(actionCopy, nodeArray);
@@ -502,16 +1092,24 @@ public class SingleTreeNode {
      * @param gs  - current game state
      * @param act - action to apply
      */
-    protected void advance(AbstractGameState gs, AbstractAction act, boolean inRollout) {
+    protected void advance(AbstractGameState gs, AbstractAction act) {
         // we execute a copy(), because this can change the action, so we then don't find the node later!
-        if (inRollout) {
-            rolloutDepth++;
-            lastActorInRollout = gs.getCurrentPlayer();
-        }
         forwardModel.next(gs, act.copy());
         root.fmCallsCount++;
         if (params.opponentTreePolicy == SelfOnly && gs.getCurrentPlayer() != decisionPlayer)
-            advanceToTurnOfPlayer(gs, decisionPlayer, inRollout);
+            advanceToTurnOfPlayer(gs, decisionPlayer, null);
+    }
+
+    /**
+     * As advance(), for an action in a rollout
+     */
+    protected void advance(AbstractGameState gs, AbstractAction act, Rollout rollout) {
+        rollout.depth++;
+        rollout.lastActor = gs.getCurrentPlayer();
+        rollout.forwardModel.next(gs, act.copy());
+        rollout.fmCalls++;
+        if (params.opponentTreePolicy == SelfOnly && gs.getCurrentPlayer() != decisionPlayer)
+            advanceToTurnOfPlayer(gs, decisionPlayer, rollout);
     }
 
     /**
@@ -519,24 +1117,31 @@ public class SingleTreeNode {
      * This is used when we are only tracking our ourselves in the tree.
      *
      * @param id
+     * @param rollout - the rollout this is part of, or null if we are still in the tree
      */
-    protected void advanceToTurnOfPlayer(AbstractGameState gs, int id, boolean inRollout) {
+    protected void advanceToTurnOfPlayer(AbstractGameState gs, int id, Rollout rollout) {
         // For the moment we only have one opponent model - that of a random player
         AbstractAction action = null;
-        while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(inRollout && finishRollout(gs))) {
+        while (gs.getCurrentPlayer() != id && gs.isNotTerminalForPlayer(id) && !(rollout != null && finishRollout(gs, rollout))) {
             //       AbstractGameState preGS = gs.copy();
-            AbstractPlayer oppModel = opponentModels[gs.getCurrentPlayer()];
-            List<AbstractAction> availableActions = forwardModel.computeAvailableActions(gs, params.actionSpace);
-            if (availableActions.isEmpty())
-                throw new AssertionError("Should always have at least one action possible..." + (action != null? " Last action: " + action : ""));
-            action = oppModel.getAction(gs, availableActions);
-            if (inRollout) {
-                rolloutDepth++;
-                root.actionsInRollout.add(new Pair<>(gs.getCurrentPlayer(), action));
-                lastActorInRollout = gs.getCurrentPlayer();
+            AbstractAction previous = action;
+            if (rollout == null) {
+                action = rolloutPolicyAction(gs);
+            } else {
+                action = rolloutPolicyAction(gs, rollout.policies, rollout.forwardModel);
+            }
+            if (action == null)
+                throw new AssertionError("Should always have at least one action possible..." + (previous != null? " Last action: " + previous : ""));
+            if (rollout == null) {
+                forwardModel.next(gs, action);
+                root.fmCallsCount++;
+            } else {
+                rollout.depth++;
+                rollout.actions.add(new Pair<>(gs.getCurrentPlayer(), action));
+                rollout.lastActor = gs.getCurrentPlayer();
+                rollout.forwardModel.next(gs, action);
+                rollout.fmCalls++;
             }
-            forwardModel.next(gs, action);
-            root.fmCallsCount++;
         }
     }
 
@@ -550,6 +1155,8 @@ public class SingleTreeNode {
         if (params.opponentTreePolicy == SelfOnly && openLoopState != null && openLoopState.getCurrentPlayer() != decisionPlayer)
             throw new AssertionError("An error has occurred. SelfOnly should only call uct when we are moving.");
 
+        // availableActions is either actionsFromOpenLoopState, or the first N elements of it with progressive widening
+        // so the i-th element has its statistics at openLoopIndices[i]
         List<AbstractAction> availableActions = actionsToConsider(actionsFromOpenLoopState, 0);
         if (availableActions.isEmpty())
             throw new AssertionError("We need to have at least one option");
@@ -611,6 +1218,14 @@ public class SingleTreeNode {
         }
     }
 
+    // In Closed Loop there is only one node for each action
+    SingleTreeNode closedLoopChild(AbstractAction action) {
+        for (SingleTreeNode node : children.get(action))
+            if (node != null)
+                return node;
+        throw new AssertionError("No child node for " + action);
+    }
+
     private AbstractAction ucb(List<AbstractAction> availableActions) {
         // Find child with highest UCB value
         AbstractAction bestAction = null;
@@ -619,16 +1234,21 @@ public class SingleTreeNode {
         double nodeValue = totValue[decisionPlayer] / nVisits;
         // nodeValue is the value of the state, V(s), and is used as a baseline when we use an Advantage function later
 
-        for (AbstractAction action : availableActions) {
-            SingleTreeNode[] childArray = children.get(action);
-            if (childArray == null)
-                throw new AssertionError("Should not be here with a null child array");
+        for (int i = 0; i < availableActions.size(); i++) {
+            AbstractAction action = availableActions.get(i);
+            int index = openLoopIndices[i];
 
             // Find child value
-            double hvVal = actionTotValue(action, decisionPlayer);
+            double hvVal = actionValueSums[index];
 
-            int actionVisits = actionVisits(action);
+            int actionVisits = actionVisitCounts[index];
             double childValue = hvVal / (actionVisits + params.epsilon);
+            if (root.transpositions != null && actionVisits > 0) {
+                // The child node may be shared with other paths, and then has more visits than this edge, so
+                // (as in UCD) we use its mean value, and keep the edge visits for exploration
+                SingleTreeNode child = closedLoopChild(action);
+                childValue = child.totValue[decisionPlayer] / child.nVisits;
+            }
 
             // consider OMA term
             if (params.opponentTreePolicy == OMA_All || params.opponentTreePolicy == OMA) {
@@ -655,7 +1275,7 @@ public class SingleTreeNode {
             // consider any progressive bias term
             if (params.biasVisits > 0) {
                 double beta = Math.sqrt(params.biasVisits / (double) (params.biasVisits + 3 * actionVisits));
-                childValue = (1.0 - beta) * childValue + beta * (advantagesOfActionsFromOLS.getOrDefault(action, 0.0) + nodeValue);
+                childValue = (1.0 - beta) * childValue + beta * (openLoopPriors[i] + nodeValue);
             }
 
             if (params.normaliseRewards) {
@@ -663,7 +1283,7 @@ public class SingleTreeNode {
             }
 
             // default to standard UCB
-            int effectiveTotalVisits = validVisitsFor(action) + 1;
+            int effectiveTotalVisits = validVisitsFor(index) + 1;
             double explorationTerm = params.K * Math.sqrt(Math.log(effectiveTotalVisits) / (actionVisits + params.epsilon));
             // unless we are using a variant
             switch (params.treePolicy) {
@@ -673,13 +1293,13 @@ public class SingleTreeNode {
                 case UCB_Tuned:
                     double range = root.highReward - root.lowReward;
                     if (range < 1e-6) range = 1e-6;
-                    double meanSq = actionSquaredValue(action, decisionPlayer) / (actionVisits + params.epsilon);
+                    double meanSq = actionSquareSums[index] / (actionVisits + params.epsilon);
                     double standardVar = 0.25;
                     if (params.normaliseRewards) {
                         // we also need to standardise the sum of squares to calculate the variance
                         meanSq = (meanSq
                                 + root.lowReward * root.lowReward
-                                - 2 * root.lowReward * actionTotValue(action, decisionPlayer) / (actionVisits + params.epsilon)
+                                - 2 * root.lowReward * hvVal / (actionVisits + params.epsilon)
                         ) / (range * range);
                     } else {
                         // we need to modify the standard variance as it is not on a 0..1 basis (which is where 0.25 comes from)
@@ -753,7 +1373,9 @@ public class SingleTreeNode {
         double regret = potentialValue - totValue[decisionPlayer];
         if (regret < 0.0 && params.treePolicy == MCTSEnums.TreePolicy.RM_Plus) {
             // in this case we set our regret to zero if it is negative
-            // by updating the node statistics
+            // by updating the node statistics (and the copy of them on our parent)
+            if (parent != null && parent.decisionPlayer == decisionPlayer)
+                parent.actionValueSums[indexInParent] += potentialValue - totValue[decisionPlayer];
             totValue[decisionPlayer] = potentialValue;
         }
         if (params.treePolicy == MCTSEnums.TreePolicy.Hedge) {
@@ -791,13 +1413,32 @@ public class SingleTreeNode {
      * @return - value of rollout.
      */
     protected double[] rollout(double[] startingValues, int lastActor) {
-        rolloutDepth = 0; // counting from end of tree
-        lastActorInRollout = lastActor;
-        roundAtStartOfRollout = openLoopState.getRoundCounter();
-        turnAtStartOfRollout = openLoopState.getTurnCounter();
+        return relativeValues(heuristic.evaluateAllPlayers(playRollout(lastActor)), startingValues);
+    }
 
+    /**
+     * Plays out the rollout from this node (in line with the rollout policy), without evaluating where it ends.
+     *
+     * @return - the state at the end of the rollout.
+     */
+    protected AbstractGameState playRollout(int lastActor) {
+        Rollout rollout = new Rollout(forwardModel, opponentModels, root.actionsInRollout, lastActor, openLoopState);
+        AbstractGameState retValue = playRollout(openLoopState, rollout);
+        root.fmCallsCount += rollout.fmCalls;
+        root.copyCount += rollout.copies;
+        return retValue;
+    }
+
+    /**
+     * Plays out a rollout from this node, starting from startState (which it may change).
+     * This reads nothing from the tree that changes during search, so that with a shared tree it can run while other
+     * threads update the tree.
+     *
+     * @return - the state at the end of the rollout.
+     */
+    protected AbstractGameState playRollout(AbstractGameState startState, Rollout rollout) {
         // If rollouts are enabled, select actions for the rollout in line with the rollout policy
-        AbstractGameState rolloutState = openLoopState;
+        AbstractGameState rolloutState = startState;
         if (params.rolloutLength > 0 || params.rolloutTermination != DEFAULT) {
             // even if rollout length is zero, we may rollout a few actions to reach the end of our turn, or the start of our next turn
             if (params.information == Closed_Loop) {
@@ -805,30 +1446,52 @@ public class SingleTreeNode {
                 // model at each action. Hence the current state on the node is the one we have been using up to now.
                 /// Hence we do not need to copy it.
                 rolloutState = state.copy();
-                root.copyCount++;
+                rollout.copies++;
             }
 
             AbstractAction next = null;
-            while (!finishRollout(rolloutState)) {
-                List<AbstractAction> availableActions = forwardModel.computeAvailableActions(rolloutState, params.actionSpace);
-                if (availableActions.isEmpty()) {
-                    throw new AssertionError("No actions available in rollout!" + (next != null? " Last action: " + next.toString() : ""));
+            while (!finishRollout(rolloutState, rollout)) {
+                AbstractAction previous = next;
+                next = rolloutPolicyAction(rolloutState, rollout.policies, rollout.forwardModel);
+                if (next == null) {
+                    throw new AssertionError("No actions available in rollout!" + (previous != null? " Last action: " + previous.toString() : ""));
                 }
-                next = opponentModels[rolloutState.getCurrentPlayer()].getAction(rolloutState, availableActions);
-                lastActorInRollout = rolloutState.getCurrentPlayer();
-                root.actionsInRollout.add(new Pair<>(lastActorInRollout, next));
-                advance(rolloutState, next, true);
+                rollout.actions.add(new Pair<>(rolloutState.getCurrentPlayer(), next));
+                advance(rolloutState, next, rollout);
             }
         }
-        // Evaluate final state and return normalised score
-        double[] retValue = new double[rolloutState.getNPlayers()];
+        return rolloutState;
+    }
 
-        for (int i = 0; i < retValue.length; i++) {
-            retValue[i] = heuristic.evaluateState(rolloutState, i) - startingValues[i];
-            if (Double.isNaN(retValue[i]))
+    /**
+     * The heuristic values of the final state of a rollout, relative to those at the start of the iteration
+     * (this modifies and returns values)
+     */
+    private static double[] relativeValues(double[] values, double[] startingValues) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] -= startingValues[i];
+            if (Double.isNaN(values[i]))
                 throw new AssertionError("Illegal heuristic value - should be a number");
         }
-        return retValue;
+        return values;
+    }
+
+    /**
+     * The action chosen by the rollout policy (or opponent model) of the player to move. A random policy chooses
+     * straight from the forward model, without creating all the available actions.
+     *
+     * @return - null if no actions are available
+     */
+    protected AbstractAction rolloutPolicyAction(AbstractGameState gs) {
+        return rolloutPolicyAction(gs, opponentModels, forwardModel);
+    }
+
+    private AbstractAction rolloutPolicyAction(AbstractGameState gs, AbstractPlayer[] policies, AbstractForwardModel model) {
+        AbstractPlayer policy = policies[gs.getCurrentPlayer()];
+        if (policy instanceof RandomPlayer)
+            return ((RandomPlayer) policy).getRandomAction(gs, model, params.actionSpace);
+        List<AbstractAction> availableActions = model.computeAvailableActions(gs, params.actionSpace);
+        return availableActions.isEmpty() ? null : policy.getAction(gs, availableActions);
     }
 
     /**
@@ -837,20 +1500,20 @@ public class SingleTreeNode {
      * @param rollerState - current state
      * @return - true if rollout finished, false otherwise
      */
-    private boolean finishRollout(AbstractGameState rollerState) {
+    private boolean finishRollout(AbstractGameState rollerState, Rollout rollout) {
         if (!rollerState.isNotTerminal())
             return true;
         int currentActor = rollerState.getTurnOwner();
-        if (rolloutDepth >= params.rolloutLength) {
+        if (rollout.depth >= params.rolloutLength) {
             switch (params.rolloutTermination) {
                 case DEFAULT:
                     return true;
                 case END_TURN:
-                    return lastActorInRollout == root.decisionPlayer && currentActor != root.decisionPlayer;
+                    return rollout.lastActor == root.decisionPlayer && currentActor != root.decisionPlayer;
                 case START_TURN:
-                    return lastActorInRollout != root.decisionPlayer && currentActor == root.decisionPlayer;
+                    return rollout.lastActor != root.decisionPlayer && currentActor == root.decisionPlayer;
                 case END_ROUND:
-                    return rollerState.getRoundCounter() != roundAtStartOfRollout;
+                    return rollerState.getRoundCounter() != rollout.roundAtStart;
             }
         }
         return false;
@@ -863,9 +1526,10 @@ public class SingleTreeNode {
      */
     protected void backUp(double[] result) {
         SingleTreeNode n = this;
-        double[] squaredResults = new double[result.length];
-        for (int i = 0; i < result.length; i++)
-            squaredResults[i] = result[i] * result[i];
+        // the increments to the statistics depend on the tree type, but are the same for every node
+        double[] increments = new double[result.length];
+        double[] squaredIncrements = new double[result.length];
+        root.increments(result, increments, squaredIncrements);
 
         if (params.normaliseRewards || params.treePolicy == MCTSEnums.TreePolicy.UCB_Tuned) {
             DoubleSummaryStatistics stats = Arrays.stream(result).summaryStatistics();
@@ -874,54 +1538,84 @@ public class SingleTreeNode {
             if (n.root.highReward < stats.getMax())
                 n.root.highReward = stats.getMax();
         }
-        while (n != null) {
-            if (params.discardStateAfterEachIteration) {
-                n.openLoopState = null; // releases for Garbage Collection
-                if (n.depth > 0 && !params.maintainMasterState)
-                    n.state = null;
+        if (root.transpositions != null) {
+            // UCD-style: every node on the path of this iteration is updated (whichever parent it was reached from),
+            // but only the edges that were actually taken
+            List<SingleTreeNode> path = root.pathInTree;
+            for (int i = path.size() - 1; i >= 0; i--) {
+                path.get(i).backUpNode(increments, squaredIncrements);
+                if (i > 0)
+                    path.get(i - 1).backUpAction(root.pathActions[i - 1], increments, squaredIncrements);
             }
-            n.nVisits++;
-            // Here we look at actionsFromOpenLoopState to see which ones were valid
-            // when we passed through, and keep track of valid visits
-            if (params.information != Closed_Loop)
-                for (AbstractAction action : n.actionsFromOpenLoopState) {
-                    if (!n.nValidVisits.containsKey(action))
-                        n.nValidVisits.put(action, 1);
-                    else
-                        n.nValidVisits.put(action, n.nValidVisits.get(action) + 1);
+            return;
+        }
+        while (n != null) {
+            n.backUpNode(increments, squaredIncrements);
+            SingleTreeNode p = n.parent;
+            if (p != null)
+                p.backUpAction(n.indexInParent, increments, squaredIncrements);
+            n = p;
+        }
+    }
+
+    /**
+     * The increments to the value (and squared value) of each player in every node on the path of an iteration with
+     * this result. These depend on the tree type (this is called on the root).
+     */
+    private void increments(double[] result, double[] increments, double[] squaredIncrements) {
+        switch (params.opponentTreePolicy) {
+            case SelfOnly:
+                for (int j = 0; j < result.length; j++) {
+                    increments[j] = result[decisionPlayer];
+                    squaredIncrements[j] = result[decisionPlayer] * result[decisionPlayer];
                 }
-            switch (params.opponentTreePolicy) {
-                case SelfOnly:
+                break;
+            case OneTree:
+            case MultiTree:
+            case OMA_All:
+            case OMA:
+                if (params.paranoid) {
+                    int paranoid = paranoidPlayer == -1 ? decisionPlayer : paranoidPlayer;
                     for (int j = 0; j < result.length; j++) {
-                        n.totValue[j] += result[root.decisionPlayer];
-                        n.totSquares[j] += squaredResults[root.decisionPlayer];
+                        increments[j] = j == paranoid ? result[paranoid] : -result[paranoid];
+                        squaredIncrements[j] = result[paranoid] * result[paranoid];
                     }
-                    break;
-                case OneTree:
-                case MultiTree:
-                case OMA_All:
-                case OMA:
-                    if (params.paranoid) {
-                        int paranoid = root.paranoidPlayer == -1 ? root.decisionPlayer : root.paranoidPlayer;
-                        for (int j = 0; j < result.length; j++) {
-                            if (j == paranoid) {
-                                n.totValue[j] += result[paranoid];
-                                n.totSquares[j] += squaredResults[paranoid];
-                            } else {
-                                n.totValue[j] -= result[paranoid];
-                                n.totSquares[j] += squaredResults[paranoid];
-                            }
-                        }
-                    } else {
-                        for (int j = 0; j < result.length; j++) {
-                            n.totValue[j] += result[j];
-                            n.totSquares[j] += squaredResults[j];
-                        }
+                } else {
+                    for (int j = 0; j < result.length; j++) {
+                        increments[j] = result[j];
+                        squaredIncrements[j] = result[j] * result[j];
                     }
-                    break;
-            }
-            n = n.parent;
+                }
+                break;
+        }
+    }
+
+    private void backUpNode(double[] increments, double[] squaredIncrements) {
+        if (params.discardStateAfterEachIteration) {
+            openLoopState = null; // releases for Garbage Collection
+            if (depth > 0 && !params.maintainMasterState)
+                state = null;
         }
+        nVisits++;
+        // Here we look at actionsFromOpenLoopState to see which ones were valid
+        // when we passed through, and keep track of valid visits (queued leaves have done this already)
+        if (params.information != Closed_Loop && root.leafQueue == null && !root.sharedTree)
+            countValidVisits();
+        for (int j = 0; j < increments.length; j++) {
+            totValue[j] += increments[j];
+            totSquares[j] += squaredIncrements[j];
+        }
+    }
+
+    private void countValidVisits() {
+        for (int i = 0; i < actionsFromOpenLoopState.size(); i++)
+            actionValidVisits[openLoopIndices[i]]++;
+    }
+
+    private void backUpAction(int index, double[] increments, double[] squaredIncrements) {
+        actionVisitCounts[index]++;
+        actionValueSums[index] += increments[decisionPlayer];
+        actionSquareSums[index] += squaredIncrements[decisionPlayer];
     }
 
 
@@ -929,11 +1623,7 @@ public class SingleTreeNode {
         for (Pair<Integer, AbstractAction> pair : rolloutActions) {
             AbstractAction action = pair.b;
             int player = pair.a;
-            Object actionKey = params.MASTActionKey == null ? action.copy() : params.MASTActionKey.key(action);
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(actionKey, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta[player];   // value
-            MASTStatistics.get(player).put(actionKey, stats);
+            MASTStatistics.update(player, action, delta[player]);
         }
     }
 
@@ -1058,10 +1748,14 @@ public class SingleTreeNode {
 
     public List<SingleTreeNode> allNodesInTree() {
         List<SingleTreeNode> retValue = new ArrayList<>();
+        // with transpositions a node can be reached from several parents, so we only include it once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         Queue<SingleTreeNode> nodeQueue = new ArrayDeque<>();
         nodeQueue.add(this);
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (!seen.add(node))
+                continue;
             retValue.add(node);
             nodeQueue.addAll(node.getChildren().values().stream()
                     .filter(Objects::nonNull)
@@ -1095,7 +1789,7 @@ public class SingleTreeNode {
         for (AbstractAction action : sortedActions) {
             String actionName = action.toString();
             int actionVisits = actionVisits(action);
-            int effectiveVisits = validVisitsFor(action);
+            int effectiveVisits = validVisitsFor(actionIndex.get(action));
             if (actionName.length() > 50)
                 actionName = actionName.substring(0, 50);
             valueString = String.format("%.2f", actionTotValue(action, decisionPlayer) / actionVisits);
@@ -1112,4 +1806,47 @@ public class SingleTreeNode {
         return retValue.toString();
     }
 
+
+    // An iteration that has reached its leaf, and is waiting to be backed up (with a virtual loss on its path until
+    // then); the rollout and its final state are filled in once played
+    private static class QueuedLeaf {
+        final SingleTreeNode leaf;
+        final double[] startingValues;
+        final List<Pair<Integer, AbstractAction>> treeActions;
+        // the nodes from the root to the leaf, and the index of the action taken from each (but the leaf)
+        final SingleTreeNode[] path;
+        final int[] edges;
+        List<Pair<Integer, AbstractAction>> rolloutActions;
+        AbstractGameState finalState;
+
+        QueuedLeaf(SingleTreeNode leaf, double[] startingValues, List<Pair<Integer, AbstractAction>> treeActions,
+                   SingleTreeNode[] path, int[] edges) {
+            this.leaf = leaf;
+            this.startingValues = startingValues;
+            this.treeActions = treeActions;
+            this.path = path;
+            this.edges = edges;
+        }
+    }
+
+    // The state of one rollout, and the forward model and policies it uses. This is kept off the nodes, as with a
+    // shared tree several threads can be rolling out from the same node at once (each with its own model and policies)
+    protected static class Rollout {
+        final AbstractForwardModel forwardModel;
+        final AbstractPlayer[] policies;
+        final List<Pair<Integer, AbstractAction>> actions;
+        final int roundAtStart, turnAtStart;
+        int depth, lastActor;  // depth counts from the end of the tree
+        int fmCalls, copies;
+
+        Rollout(AbstractForwardModel forwardModel, AbstractPlayer[] policies, List<Pair<Integer, AbstractAction>> actions,
+                int lastActor, AbstractGameState startState) {
+            this.forwardModel = forwardModel;
+            this.policies = policies;
+            this.actions = actions;
+            this.lastActor = lastActor;
+            roundAtStart = startState.getRoundCounter();
+            turnAtStart = startState.getTurnCounter();
+        }
+    }
 }
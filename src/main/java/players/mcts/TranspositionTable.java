@@ -0,0 +1,107 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import utilities.Zobrist;
+
+/**
+ * The nodes of one search tree, keyed on the state they represent (see AbstractGameState.getStateHash()). When
+ * the same state is reached by a different sequence of actions, the existing node is used instead of a duplicate,
+ * so the tree becomes a directed acyclic graph.
+ * <p>
+ * The key includes the depth of the node, so a transposition is only found between nodes at the same depth. This
+ * means that all edges go one level down, and there are no cycles in the graph (for games such as Chinese Checkers,
+ * in which a position can repeat).
+ * <p>
+ * Nodes are matched on the key alone, so the table is only used for games whose getStateHash() is a full 64-bit
+ * hash (see AbstractGameState.hasStateHash()).
+ * <p>
+ * At most maxSize nodes are entered in the table; after this new nodes are still added to the tree, but are not
+ * entered, so they are not found as transpositions. The table does not bound the size of the tree.
+ * <p>
+ * The table uses open addressing on primitive long keys (with linear probing), so a lookup does not box the key.
+ */
+public class TranspositionTable {
+
+    private final int maxSize;
+    // a slot is empty if its node is null (so any key, including 0, can be held)
+    private long[] keys = new long[16];
+    private SingleTreeNode[] nodes = new SingleTreeNode[16];
+    private int size;
+    private int hits;
+
+    public TranspositionTable(int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("Transposition table must hold at least one node: " + maxSize);
+        this.maxSize = maxSize;
+    }
+
+    public static long key(AbstractGameState state, int depth) {
+        return Zobrist.key(state.getStateHash(), depth, state.getCurrentPlayer());
+    }
+
+    /**
+     * @return the node for this key, or null if there is none
+     */
+    public SingleTreeNode get(long key) {
+        SingleTreeNode node = nodes[slot(key)];
+        if (node != null)
+            hits++;
+        return node;
+    }
+
+    /**
+     * Enters the node for this key (replacing any node already there). Once the table is full a new key is ignored.
+     */
+    public void put(long key, SingleTreeNode node) {
+        int slot = slot(key);
+        if (nodes[slot] != null) {
+            nodes[slot] = node;
+            return;
+        }
+        if (size >= maxSize)
+            return;
+        keys[slot] = key;
+        nodes[slot] = node;
+        size++;
+        // we keep the table at most half full, so that probe sequences stay short
+        if (size * 2 > keys.length)
+            grow();
+    }
+
+    /**
+     * @return the slot that holds this key, or the empty slot where it would go
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        // the keys are Zobrist hashes, so the low bits are already well mixed
+        int i = (int) (key ^ (key >>> 32)) & mask;
+        while (nodes[i] != null && keys[i] != key)
+            i = (i + 1) & mask;
+        return i;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        SingleTreeNode[] oldNodes = nodes;
+        keys = new long[oldKeys.length * 2];
+        nodes = new SingleTreeNode[oldNodes.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldNodes[i] != null) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                nodes[slot] = oldNodes[i];
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of times that an existing node was found for a new state
+     */
+    public int getHits() {
+        return hits;
+    }
+}
@@ -36,8 +36,12 @@ public class TreeStatistics {
         int maxActions = 0;
         int totalActions = 0;
         int oneAction = 0;
+        // with transpositions a node can be reached from several parents, so we only count it once
+        Set<SingleTreeNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
         while (!nodeQueue.isEmpty()) {
             SingleTreeNode node = nodeQueue.poll();
+            if (!seen.add(node))
+                continue;
             if (node.depth < maxDepth) {
                 nodesAtDepth[node.depth]++;
                 if (node.terminalNode)
@@ -23,6 +23,7 @@ public class RHEAMetrics implements IMetricsCollection {
                 stats.put("copyCalls", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.copyCalls / rheaPlayer.numIters);
                 stats.put("time", rheaPlayer.timeTaken);
                 stats.put("timePerIteration", rheaPlayer.timePerIteration);
+                stats.put("iterationsPerSecond", rheaPlayer.budgetTimer.getIterationsPerSecond());
                 stats.put("initTime", rheaPlayer.initTime);
                 stats.put("hiReward", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.population.get(0).value);
                 stats.put("loReward", rheaPlayer.numIters == 0 ? 0 : rheaPlayer.population.get(rheaPlayer.population.size() - 1).value);
@@ -49,6 +50,7 @@ public class RHEAMetrics implements IMetricsCollection {
             stats.put("copyCalls", Integer.class);
             stats.put("time", Double.class);
             stats.put("timePerIteration", Double.class);
+            stats.put("iterationsPerSecond", Double.class);
             stats.put("initTime", Double.class);
             stats.put("hiReward", Double.class);
             stats.put("loReward", Double.class);
@@ -3,21 +3,20 @@ package players.rhea;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import players.BudgetTimer;
 import players.PlayerConstants;
 import players.mcts.MASTPlayer;
+import players.mcts.MASTTable;
 import players.simple.RandomPlayer;
-import utilities.ElapsedCpuTimer;
 import utilities.Pair;
-import utilities.Utils;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class RHEAPlayer extends AbstractPlayer {
     private static final AbstractPlayer randomPlayer = new RandomPlayer();
     private final Random randomGenerator;
     RHEAParams params;
-    List<Map<Object, Pair<Integer, Double>>> MASTStatistics; // a list of one Map per player. Action -> (visits, totValue)
+    MASTTable MASTStatistics; // (player, action) -> (visits, totValue)
     protected List<RHEAIndividual> population = new ArrayList<>();
     // Budgets
     protected double timePerIteration = 0, timeTaken = 0, initTime = 0;
@@ -25,6 +24,7 @@ public class RHEAPlayer extends AbstractPlayer {
     protected int fmCalls = 0;
     protected int copyCalls = 0;
     protected int repairCount, nonRepairCount;
+    protected BudgetTimer budgetTimer;
     private MASTPlayer mastPlayer;
 
     public RHEAPlayer() {
@@ -44,16 +44,15 @@ public class RHEAPlayer extends AbstractPlayer {
 
     @Override
     public void initializePlayer(AbstractGameState state) {
-        MASTStatistics = new ArrayList<>();
-        for (int i = 0; i < state.getNPlayers(); i++)
-            MASTStatistics.add(new HashMap<>());
+        MASTStatistics = new MASTTable(null);
         population = new ArrayList<>();
     }
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
-        timer.setMaxTimeMillis(params.budget);
+        // as before BudgetTimer, RHEA only stops when breakMS is left
+        budgetTimer = new BudgetTimer(params, params.budget, 0.0);  // New timer for this game tick
+        budgetTimer.start();
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
@@ -61,15 +60,10 @@ public class RHEAPlayer extends AbstractPlayer {
         nonRepairCount = 0;
 
         if (params.useMAST) {
-            if (MASTStatistics == null) {
-                MASTStatistics = new ArrayList<>();
-                for (int i = 0; i < stateObs.getNPlayers(); i++)
-                    MASTStatistics.add(new HashMap<>());
-            } else {
-                MASTStatistics = MASTStatistics.stream()
-                        .map(m -> Utils.decay(m, params.discountFactor))
-                        .collect(Collectors.toList());
-            }
+            if (MASTStatistics == null)
+                MASTStatistics = new MASTTable(null);
+            else
+                MASTStatistics.decay(params.discountFactor);
             mastPlayer = new MASTPlayer(null, 1.0, 0.0, System.currentTimeMillis(), 0.0);
             mastPlayer.setStats(MASTStatistics);
         }
@@ -77,10 +71,10 @@ public class RHEAPlayer extends AbstractPlayer {
         if (params.shiftLeft && !population.isEmpty()) {
             population.forEach(i -> i.value = Double.NEGATIVE_INFINITY);  // so that any we don't have time to shift are ignored when picking an action
             for (RHEAIndividual genome : population) {
-                if (!budgetLeft(timer)) break;
+                if (!budgetLeft()) break;
                 System.arraycopy(genome.actions, 1, genome.actions, 0, genome.actions.length - 1);
                 // we shift all actions along, and then rollout with repair
-                genome.gameStates[0] = stateObs.copy();
+                genome.gameStates[0] = stateObs.copyForSearch();
                 Pair<Integer, Integer> calls = genome.rollout(getForwardModel(), 0, getPlayerID(), true);
                 fmCalls += calls.a;
                 copyCalls += calls.b;
@@ -88,7 +82,7 @@ public class RHEAPlayer extends AbstractPlayer {
         } else {
             population = new ArrayList<>();
             for (int i = 0; i < params.populationSize; ++i) {
-                if (!budgetLeft(timer)) break;
+                if (!budgetLeft()) break;
                 population.add(new RHEAIndividual(params.horizon, params.discountFactor, getForwardModel(), stateObs,
                         getPlayerID(), randomGenerator, params.heuristic, params.useMAST ? mastPlayer : randomPlayer));
                 fmCalls += population.get(i).length;
@@ -97,13 +91,17 @@ public class RHEAPlayer extends AbstractPlayer {
         }
 
         population.sort(Comparator.naturalOrder());
-        initTime = timer.elapsedMillis();
+        initTime = budgetTimer.elapsedMillis();
         // Run evolution
-        while (budgetLeft(timer)) {
+        boolean keepIterating = budgetLeft();
+        while (keepIterating) {
             runIteration();
+            // the timer only looks at the clock every few iterations
+            keepIterating = budgetTimer.iterationDone() && (params.budgetType == PlayerConstants.BUDGET_TIME || budgetLeft());
         }
 
-        timeTaken = timer.elapsedMillis();
+        budgetTimer.stop();
+        timeTaken = budgetTimer.elapsedMillis();
         timePerIteration = numIters == 0 ? 0.0 : (timeTaken - initTime) / numIters;
         // Return first action of best individual
         AbstractAction retValue = population.get(0).actions[0];
@@ -113,10 +111,9 @@ public class RHEAPlayer extends AbstractPlayer {
         return retValue;
     }
 
-    private boolean budgetLeft(ElapsedCpuTimer timer) {
+    private boolean budgetLeft() {
         if (params.budgetType == PlayerConstants.BUDGET_TIME) {
-            long remaining = timer.remainingTimeMillis();
-            return remaining > params.breakMS;
+            return budgetTimer.timeLeft();
         } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
             return fmCalls < params.budget;
         } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
@@ -282,10 +279,7 @@ public class RHEAPlayer extends AbstractPlayer {
             AbstractAction action = rolloutActions[i];
             if (action == null)
                 break;
-            Pair<Integer, Double> stats = MASTStatistics.get(player).getOrDefault(action, new Pair<>(0, 0.0));
-            stats.a++;  // visits
-            stats.b += delta;   // value
-            MASTStatistics.get(player).put(action.copy(), stats);
+            MASTStatistics.update(player, action, delta);
         }
     }
 
@@ -24,7 +24,7 @@ public class Individual implements Comparable {
         this.discountFactor = discountFactor;
         actions = new AbstractAction[L];
         gameStates = new AbstractGameState[L+1];
-        gameStates[0] = gs.copy();
+        gameStates[0] = gs.copyForSearch();
         this.heuristic = heuristic;
 
         // Rollout with random actions and assign fitness value
@@ -4,8 +4,8 @@ import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
 import core.interfaces.IStateHeuristic;
+import players.BudgetTimer;
 import players.PlayerConstants;
-import utilities.ElapsedCpuTimer;
 
 import java.util.*;
 
@@ -17,7 +17,7 @@ public class RMHCPlayer extends AbstractPlayer {
     private final Random randomGenerator;
 
     // Budgets
-    private double avgTimeTaken = 0, acumTimeTaken = 0;
+    private BudgetTimer budgetTimer;
     private int numIters = 0;
     private int fmCalls = 0;
     private int copyCalls = 0;
@@ -50,9 +50,8 @@ public class RMHCPlayer extends AbstractPlayer {
 
     @Override
     public AbstractAction _getAction(AbstractGameState stateObs, List<AbstractAction> possibleActions) {
-        ElapsedCpuTimer timer = new ElapsedCpuTimer();  // New timer for this game tick
-        avgTimeTaken = 0;
-        acumTimeTaken = 0;
+        budgetTimer = new BudgetTimer(params, params.budget, 1.0);  // New timer for this game tick
+        budgetTimer.start();
         numIters = 0;
         fmCalls = 0;
         copyCalls = 0;
@@ -66,10 +65,10 @@ public class RMHCPlayer extends AbstractPlayer {
         while (keepIterating) {
             runIteration(stateObs);
 
-            // Check budget depending on budget type
+            // Check budget depending on budget type (the timer only looks at the clock every few iterations)
+            boolean timeLeft = budgetTimer.iterationDone();
             if (params.budgetType == PlayerConstants.BUDGET_TIME) {
-                long remaining = timer.remainingTimeMillis();
-                keepIterating = remaining > avgTimeTaken && remaining > params.breakMS;
+                keepIterating = timeLeft;
             } else if (params.budgetType == PlayerConstants.BUDGET_FM_CALLS) {
                 keepIterating = fmCalls < params.budget;
             } else if (params.budgetType == PlayerConstants.BUDGET_COPY_CALLS) {
@@ -80,11 +79,19 @@ public class RMHCPlayer extends AbstractPlayer {
                 keepIterating = numIters < params.budget;
             }
         }
+        budgetTimer.stop();
 
         // Return first action of best individual
         return bestIndividual.actions[0];
     }
 
+    /**
+     * @return The iterations per second in the last decision
+     */
+    public double getIterationsPerSecond() {
+        return budgetTimer == null ? 0.0 : budgetTimer.getIterationsPerSecond();
+    }
+
     @Override
     public RMHCPlayer copy() {
         RMHCParams newParams = (RMHCParams) params.copy();
@@ -98,8 +105,6 @@ public class RMHCPlayer extends AbstractPlayer {
      * @param stateObs - current game state
      */
     private void runIteration(AbstractGameState stateObs) {
-        ElapsedCpuTimer elapsedTimerIteration = new ElapsedCpuTimer();
-
         // Create new individual through mutation
         Individual newIndividual = new Individual(bestIndividual);
         copyCalls += newIndividual.length;
@@ -113,8 +118,6 @@ public class RMHCPlayer extends AbstractPlayer {
 
         // Update budgets
         numIters++;
-        acumTimeTaken += (elapsedTimerIteration.elapsedMillis());
-        avgTimeTaken = acumTimeTaken / numIters;
     }
 
 //    public static void main(String[] args){
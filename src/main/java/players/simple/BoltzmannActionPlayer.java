@@ -25,7 +25,7 @@ public class BoltzmannActionPlayer extends AbstractPlayer {
 
     final public double temperature;
     final public double epsilon;
-    final Random rnd;
+    protected final Random rnd;
 
     protected IActionHeuristic actionHeuristic;
 
@@ -1,8 +1,10 @@
 package players.simple;
 
+import core.AbstractForwardModel;
 import core.AbstractGameState;
 import core.AbstractPlayer;
 import core.actions.AbstractAction;
+import core.actions.ActionSpace;
 
 import java.util.List;
 import java.util.Random;
@@ -29,6 +31,20 @@ public class RandomPlayer extends AbstractPlayer {
         return actions.get(randomAction);
     }
 
+    /**
+     * The same choice as getAction(state, forwardModel.computeAvailableActions(state, actionSpace)), but without
+     * creating all the available actions where the game supports this (and there are no decorators, which
+     * need the whole list).
+     *
+     * @return the action chosen, or null if there are no actions available
+     */
+    public AbstractAction getRandomAction(AbstractGameState state, AbstractForwardModel forwardModel, ActionSpace actionSpace) {
+        if (decorators.isEmpty())
+            return forwardModel.randomAction(state, actionSpace, rnd);
+        List<AbstractAction> actions = forwardModel.computeAvailableActions(state, actionSpace);
+        return actions.isEmpty() ? null : getAction(state, actions);
+    }
+
     @Override
     public String toString() {
         return "Random";
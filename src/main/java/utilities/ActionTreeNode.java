@@ -3,8 +3,7 @@ package utilities;
 import core.actions.AbstractAction;
 import org.json.simple.JSONObject;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 public class ActionTreeNode {
 
@@ -15,6 +14,13 @@ public class ActionTreeNode {
     int SubNodes;
     ActionTreeNode parent;
 
+    // Only for the top node of a tree: its leaves, and their values, which are kept up to date as the values change
+    private List<ActionTreeNode> leafNodes;
+    private int[] leafMask;
+    // Only for a leaf: the leafMask of the top node (if it has been created), and the index of this leaf in it
+    private int[] mask;
+    private int leafIndex;
+
     // Constructors
     public ActionTreeNode() {
         this.children = new ArrayList<ActionTreeNode>();
@@ -41,9 +47,15 @@ public class ActionTreeNode {
     // Methods for Flattening
 
     public int[] getActionMask() {
-        List<Integer> vals = this.flattenValues();
-        vals.remove(0);
-        return vals.stream().mapToInt(i -> i).toArray();
+        // the values of all the nodes below this one, breadth first
+        int[] values = new int[SubNodes];
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>(children);
+        for (int i = 0; i < values.length; i++) {
+            ActionTreeNode node = nodes.poll();
+            values[i] = node.value;
+            nodes.addAll(node.children);
+        }
+        return values;
     }
 
     public List<String> getActionMaskNames() {
@@ -53,28 +65,54 @@ public class ActionTreeNode {
     }
 
     // Searches the tree breadth first for all leaf nodes and returns them
+    // For the top node of a tree these are found once, and the same (unmodifiable) list returned until the tree changes
     public List<ActionTreeNode> getLeafNodes(){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
-        List<ActionTreeNode> leafNodes = new ArrayList<ActionTreeNode>();
+        if (parent != null)
+            return findLeafNodes();
+        if (leafNodes == null) {
+            leafNodes = Collections.unmodifiableList(findLeafNodes());
+            leafMask = new int[leafNodes.size()];
+            for (int i = 0; i < leafMask.length; i++) {
+                ActionTreeNode leaf = leafNodes.get(i);
+                leaf.mask = leafMask;
+                leaf.leafIndex = i;
+                leafMask[i] = leaf.value;
+            }
+        }
+        return leafNodes;
+    }
+
+    private List<ActionTreeNode> findLeafNodes(){
+        List<ActionTreeNode> leaves = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
-        while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
-            if(node.children.size() == 0){
-                leafNodes.add(node);
+        while (!nodes.isEmpty()) {
+            ActionTreeNode node = nodes.poll();
+            if (node.children.isEmpty()) {
+                leaves.add(node);
             } else {
                 nodes.addAll(node.children);
             }
         }
-        return leafNodes;
+        return leaves;
+    }
+
+    // The values of the leaf nodes (in the order of getLeafNodes()), for the top node of a tree.
+    // This is the array that is kept up to date, not a copy, so must not be modified.
+    public int[] getLeafMask(){
+        if (parent != null)
+            throw new IllegalArgumentException("Only the top node of a tree has a leaf mask");
+        getLeafNodes();
+        return leafMask;
     }
 
     public List<ActionTreeNode> flattenTree(){
         List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
-        List<ActionTreeNode> nodes1 = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes1 = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
         nodes1.add(this);
-        while (nodes1.size() > 0) {
-            ActionTreeNode node = nodes1.remove(0);
+        while (!nodes1.isEmpty()) {
+            ActionTreeNode node = nodes1.poll();
             nodes.add(node);
             nodes1.addAll(node.children);
         }
@@ -83,10 +121,10 @@ public class ActionTreeNode {
 
     public List<String> flattenNames(){
         List<String> names = new ArrayList<String>();
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
-        while (nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+        while (!nodes.isEmpty()){
+            ActionTreeNode node = nodes.poll();
             names.add(node.name);
             nodes.addAll(node.children);
         }
@@ -95,10 +133,10 @@ public class ActionTreeNode {
 
     public List<Integer> flattenValues(){
         List<Integer> values = new ArrayList<Integer>();
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
-        while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+        while (!nodes.isEmpty()){
+            ActionTreeNode node = nodes.poll();
             values.add(node.value);
             nodes.addAll(node.children);
         }
@@ -107,14 +145,16 @@ public class ActionTreeNode {
 
     // Reset all the nodes in the tree, keeps structure only sets value and action to 0/null
     public void resetTree(){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
-        nodes.add(this);
-        while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
-            node.value = 0;
-            node.action = null;
-            nodes.addAll(node.children);
-        }
+        assignValue(0);
+        action = null;
+        for (ActionTreeNode child : children)
+            child.resetTree();
+    }
+
+    private void assignValue(int value){
+        this.value = value;
+        if (mask != null)
+            mask[leafIndex] = value;
     }
 
     public ActionTreeNode findChildrenByName(String name){
@@ -122,14 +162,14 @@ public class ActionTreeNode {
     }
     // sets the value of the node to 1 if it is found
     public ActionTreeNode findChildrenByName(String name, boolean setAvailable){
-        List<ActionTreeNode> nodes = new ArrayList<ActionTreeNode>();
+        Deque<ActionTreeNode> nodes = new ArrayDeque<ActionTreeNode>();
         nodes.add(this);
-        while(nodes.size() > 0){
-            ActionTreeNode node = nodes.remove(0);
+        while (!nodes.isEmpty()){
+            ActionTreeNode node = nodes.poll();
             nodes.addAll(node.children);
             if (node.name.equals(name)){
                 if(setAvailable){
-                    node.value = 1;
+                    node.assignValue(1);
                 }
                 return node;
             }
@@ -156,26 +196,28 @@ public class ActionTreeNode {
 
     // Add Child Functions
     public ActionTreeNode addChild(){
-        ActionTreeNode child = new ActionTreeNode();
-        this.children.add(child);
-        child.parent = this;
-        child.updateSubNodes();
-        return child;
+        return addChild(new ActionTreeNode());
     }
 
     public ActionTreeNode addChild(int value){
-        ActionTreeNode child = new ActionTreeNode(value);
-        this.children.add(child);
-        child.parent = this;
-        child.updateSubNodes();
-        return child;
+        return addChild(new ActionTreeNode(value));
     }
 
     public ActionTreeNode addChild(int value, String name){
-        ActionTreeNode child = new ActionTreeNode(value, name);
+        return addChild(new ActionTreeNode(value, name));
+    }
+
+    private ActionTreeNode addChild(ActionTreeNode child){
         this.children.add(child);
         child.parent = this;
         child.updateSubNodes();
+        // this node is no longer a leaf, and the leaves of the tree have changed
+        mask = null;
+        ActionTreeNode top = this;
+        while (top.parent != null)
+            top = top.parent;
+        top.leafNodes = null;
+        top.leafMask = null;
         return child;
     }
 
@@ -206,8 +248,8 @@ public class ActionTreeNode {
 
     public AbstractAction getAction() {return action;}
     public void setAction(AbstractAction action) {
-        this.value = 1;
-        this.parent.value = 1;
+        assignValue(1);
+        this.parent.assignValue(1);
         this.action = action;
     }
     public AbstractAction getActionByVector(int[] vector){
@@ -221,7 +263,7 @@ public class ActionTreeNode {
         return value;
     }
     public void setValue(int value) {
-        this.value = value;
+        assignValue(value);
     }
     public String getName() {
         return name;
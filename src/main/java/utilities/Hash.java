@@ -1,34 +1,27 @@
 package utilities;
 
-import java.util.HashMap;
-
+/**
+ * Maps component names to the integer keys used to look them up. The key is just the String hash code, so this
+ * needs no state, and can be used from any number of game threads at once. Names that are looked up often
+ * should be hashed once into a constant (see e.g. PandemicConstants).
+ */
 public class Hash
 {
-    private static Hash hash;
-
-    private HashMap<String, Integer> hashmap;
+    private static final Hash hash = new Hash();
 
     public static Hash GetInstance()
     {
-        if(hash == null)
-            hash = new Hash();
         return hash;
     }
 
     private Hash()
     {
-        hashmap = new HashMap<>();
     }
 
 
     public int hash(String key)
     {
-        if(hashmap.containsKey(key))
-            return hashmap.get(key);
-
-        int newValue = key.hashCode();
-        hashmap.put(key, newValue);
-        return newValue;
+        return key.hashCode();
     }
 
 }
@@ -18,12 +18,17 @@ import static java.util.stream.Collectors.*;
 
 public class JSONUtils {
 
-    public static final JSONParser parser = new JSONParser();
+    // JSONParser keeps state while parsing, so each thread gets its own
+    private static final ThreadLocal<JSONParser> parsers = ThreadLocal.withInitial(JSONParser::new);
+
+    public static JSONParser parser() {
+        return parsers.get();
+    }
 
     public static JSONObject loadJSONFile(String fileName) {
         try {
             FileReader reader = new FileReader(fileName);
-            return (JSONObject) parser.parse(reader);
+            return (JSONObject) parser().parse(reader);
         } catch (IOException | ParseException e) {
             throw new AssertionError("Error processing file " + fileName + " : " + e.getMessage() + " : " + e);
         }
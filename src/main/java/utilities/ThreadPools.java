@@ -0,0 +1,48 @@
+package utilities;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Helpers for the thread pools used to run games, searches and evaluations in parallel.
+ */
+public abstract class ThreadPools {
+
+    /**
+     * A fixed size pool of daemon threads, so that a pool that is never shut down does not stop the JVM from exiting.
+     *
+     * @param nThreads - number of threads in the pool
+     * @param name     - name given to each thread
+     */
+    public static ExecutorService newDaemonPool(int nThreads, String name) {
+        return Executors.newFixedThreadPool(nThreads, r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Waits for the result of a task, and rethrows anything the task threw (wrapped in an AssertionError if it was
+     * a checked exception).
+     *
+     * @param result - the task's future
+     * @param task   - description of the work, for the error messages
+     */
+    public static <T> T get(Future<T> result, String task) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssertionError("Interrupted during " + task, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new AssertionError("Error during " + task, e.getCause());
+        }
+    }
+}
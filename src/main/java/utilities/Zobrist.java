@@ -0,0 +1,30 @@
+package utilities;
+
+/**
+ * Keys for Zobrist hashing of game states. The hash of a state is the XOR of one key for each (feature, value)
+ * pair in the state, so when a feature changes the hash is updated by XOR-ing out the old key and XOR-ing in the new.
+ * <p>
+ * Rather than a table of random numbers we derive each key from its (feature, value) pair with the SplitMix64 mixing
+ * function, so boards of any size need no table, and every copy of a state uses the same keys.
+ * Keys built from component IDs are only stable within one run.
+ */
+public final class Zobrist {
+
+    private Zobrist() {
+    }
+
+    public static long key(long feature, long value) {
+        return mix(mix(feature) + value);
+    }
+
+    public static long key(long feature, long subFeature, long value) {
+        return mix(mix(mix(feature) + subFeature) + value);
+    }
+
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
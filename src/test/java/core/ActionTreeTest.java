@@ -0,0 +1,78 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.interfaces.ITreeActionSpace;
+import games.GameType;
+import org.junit.Test;
+import utilities.ActionTreeNode;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class ActionTreeTest {
+
+    /**
+     * Plays a random game, checking at each decision that the leaf mask kept by the tree matches the values of the
+     * leaves, and that the available leaves have actions
+     */
+    private void checkLeafMask(GameType gameType, int nSteps) {
+        Game game = gameType.createGameInstance(2, 395);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        ITreeActionSpace treeFM = (ITreeActionSpace) fm;
+        ActionTreeNode root = treeFM.initActionTree(state);
+        Random rnd = new Random(3934);
+        for (int step = 0; step < nSteps && state.isNotTerminal(); step++) {
+            root = treeFM.updateActionTree(root, state);
+            int[] mask = root.getLeafMask();
+            List<ActionTreeNode> leaves = root.getLeafNodes();
+            assertEquals(leaves.size(), mask.length);
+            for (int i = 0; i < mask.length; i++) {
+                assertEquals(leaves.get(i).getValue(), mask[i]);
+                if (mask[i] == 1)
+                    assertNotNull(leaves.get(i).getAction());
+            }
+            int[] tree = root.getActionMask();
+            List<Integer> values = root.flattenValues();
+            assertEquals(values.size() - 1, tree.length);
+            for (int i = 0; i < tree.length; i++)
+                assertEquals((int) values.get(i + 1), tree[i]);
+
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+
+    @Test
+    public void stratego() {
+        checkLeafMask(GameType.Stratego, 100);
+    }
+
+    @Test
+    public void sushiGo() {
+        checkLeafMask(GameType.SushiGo, 100);
+    }
+
+    @Test
+    public void loveLetter() {
+        checkLeafMask(GameType.LoveLetter, 100);
+    }
+
+    @Test
+    public void treeChangesAfterAddingChildren() {
+        ActionTreeNode root = new ActionTreeNode(0, "root");
+        ActionTreeNode a = root.addChild(0, "a");
+        root.addChild(1, "b");
+        assertArrayEquals(new int[]{0, 1}, root.getLeafMask());
+        a.addChild(0, "a0").setValue(1);
+        a.addChild(0, "a1");
+        assertEquals(Arrays.asList("b", "a0", "a1"), root.getLeafNodes().stream().map(ActionTreeNode::getName).collect(Collectors.toList()));
+        assertArrayEquals(new int[]{1, 1, 0}, root.getLeafMask());
+        root.resetTree();
+        assertArrayEquals(new int[]{0, 0, 0}, root.getLeafMask());
+        root.findChildrenByName("a1", true);
+        assertArrayEquals(new int[]{0, 0, 1}, root.getLeafMask());
+    }
+}
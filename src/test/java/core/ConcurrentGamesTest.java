@@ -0,0 +1,56 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentGamesTest {
+
+    static final GameType[] games = {GameType.Pandemic, GameType.LoveLetter, GameType.TicTacToe, GameType.Uno};
+    static final int nGames = 64;
+
+    private String playGame(int index) {
+        GameType gameType = games[index % games.length];
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(index)), new RandomPlayer(new Random(index + 100)));
+        Game game = gameType.createGameInstance(players.size(), 500 + index);
+        game.reset(players);
+        game.run();
+        AbstractGameState state = game.getGameState();
+        StringBuilder result = new StringBuilder(gameType.name());
+        result.append(Arrays.toString(state.getPlayerResults())).append(" after ").append(state.getGameTick());
+        for (int p = 0; p < players.size(); p++)
+            result.append(" ").append(state.getGameScore(p));
+        return result.toString();
+    }
+
+    @Test
+    public void concurrentGamesMatchSerialGames() throws Exception {
+        List<String> serial = new ArrayList<>();
+        for (int i = 0; i < nGames; i++)
+            serial.add(playGame(i));
+
+        // all the games are started together, so they create components and look up hashes at the same time
+        ExecutorService pool = Executors.newFixedThreadPool(nGames);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < nGames; i++) {
+                int index = i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return playGame(index);
+                }));
+            }
+            start.countDown();
+            for (int i = 0; i < nGames; i++)
+                assertEquals(serial.get(i), futures.get(i).get(5, TimeUnit.MINUTES));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package core;
+
+import games.GameType;
+import org.junit.Test;
+import players.python.PythonAgent;
+import players.simple.RandomPlayer;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PyTAGBatchTest {
+
+    static final int nEnvs = 5;
+
+    /**
+     * Plays random valid actions for nSteps, and returns the contents of all the buffers after each step
+     */
+    private List<String> playBatch(GameType gameType, int nThreads, int nSteps) throws Exception {
+        List<AbstractPlayer> players = Arrays.asList(new PythonAgent(), new RandomPlayer(new Random(42)));
+        PyTAGBatch batch = new PyTAGBatch(gameType, null, players, nEnvs, 395, true, nThreads);
+        Random rnd = new Random(3934);
+        List<String> trace = new ArrayList<>();
+        try {
+            batch.reset();
+            int actionSpace = batch.getActionSpace();
+            assertTrue(actionSpace > 0);
+            int nDone = 0;
+            for (int step = 0; step < nSteps; step++) {
+                ByteBuffer masks = batch.getActionMasks();
+                int[] actions = new int[nEnvs];
+                for (int env = 0; env < nEnvs; env++) {
+                    List<Integer> valid = new ArrayList<>();
+                    for (int a = 0; a < actionSpace; a++)
+                        if (masks.get(env * actionSpace + a) == 1)
+                            valid.add(a);
+                    assertFalse(valid.isEmpty());
+                    actions[env] = valid.get(rnd.nextInt(valid.size()));
+                }
+                batch.step(actions);
+                for (int env = 0; env < nEnvs; env++)
+                    nDone += batch.getDones().get(env);
+                trace.add(Arrays.toString(contents(batch.getObservations())) + Arrays.toString(contents(masks))
+                        + Arrays.toString(contents(batch.getRewards())) + Arrays.toString(contents(batch.getDones())));
+            }
+            assertTrue(nDone > 0);
+        } finally {
+            batch.close();
+        }
+        return trace;
+    }
+
+    private static byte[] contents(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.capacity()];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = buffer.get(i);
+        return bytes;
+    }
+
+    @Test
+    public void observationsMatchSingleEnvironment() throws Exception {
+        List<AbstractPlayer> players = Arrays.asList(new PythonAgent(), new RandomPlayer(new Random(42)));
+        PyTAGBatch batch = new PyTAGBatch(GameType.TicTacToe, null, players, nEnvs, 395, true, 1);
+        batch.reset();
+        for (int env = 0; env < nEnvs; env++) {
+            double[] expected = batch.getEnv(env).getObservationVector();
+            for (int j = 0; j < expected.length; j++)
+                assertEquals(expected[j], batch.getObservations().asDoubleBuffer().get(env * batch.getObservationSpace() + j), 0.0);
+            int[] mask = batch.getEnv(env).getActionMask();
+            for (int a = 0; a < mask.length; a++)
+                assertEquals(mask[a], batch.getActionMasks().get(env * batch.getActionSpace() + a));
+        }
+    }
+
+    @Test
+    public void actionMaskIsACopy() throws Exception {
+        List<AbstractPlayer> players = Arrays.asList(new PythonAgent(), new RandomPlayer(new Random(42)));
+        PyTAG env = new PyTAG(GameType.TicTacToe, null, players, 395, true);
+        env.reset();
+        int[] mask = env.getActionMask();
+        int[] view = env.getActionMaskView();
+        assertArrayEquals(view, mask);
+        assertNotSame(view, mask);
+        assertSame(view, env.getActionMaskView());
+
+        mask[0] = 1 - mask[0];
+        assertArrayEquals(view, env.getActionMask());
+        int[] before = env.getActionMask();
+        env.step(env.sampleRNDAction(view, new Random(3)));
+        // the view follows the state, while the copy taken before the step does not
+        assertFalse(Arrays.equals(before, env.getActionMaskView()));
+        assertArrayEquals(env.getActionMask(), env.getActionMaskView());
+    }
+
+    @Test
+    public void parallelStepsMatchSerialSteps() throws Exception {
+        List<String> serial = playBatch(GameType.TicTacToe, 1, 30);
+        List<String> parallel = playBatch(GameType.TicTacToe, 3, 30);
+        assertEquals(serial, parallel);
+    }
+
+    @Test
+    public void loveLetter() throws Exception {
+        assertEquals(playBatch(GameType.LoveLetter, 1, 50), playBatch(GameType.LoveLetter, 2, 50));
+    }
+}
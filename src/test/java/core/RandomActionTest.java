@@ -0,0 +1,78 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class RandomActionTest {
+
+    static final int maxDecisions = 300;
+
+    /**
+     * Plays a random game, checking at each decision that the actions from randomAction() are available actions,
+     * and that (where there are few enough to be sure of it) all the available actions are chosen sometimes.
+     */
+    private void checkRandomActions(GameType gameType, int nPlayers) {
+        Game game = gameType.createGameInstance(nPlayers, 395);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        Random rnd = new Random(3934);
+        for (int i = 0; i < maxDecisions && state.isNotTerminal(); i++) {
+            List<AbstractAction> available = fm.computeAvailableActions(state);
+            Set<AbstractAction> chosen = new HashSet<>();
+            int nSamples = available.size() <= 10 ? 200 : 20;
+            for (int s = 0; s < nSamples; s++) {
+                AbstractAction action = fm.randomAction(state, rnd);
+                assertTrue(gameType + ": " + action + " is not available", available.contains(action));
+                chosen.add(action);
+            }
+            if (available.size() <= 10)
+                assertEquals(gameType + ": not all actions chosen", new HashSet<>(available), chosen);
+            fm.next(state, fm.randomAction(state, rnd));
+        }
+    }
+
+    @Test
+    public void catan() {
+        checkRandomActions(GameType.Catan, 3);
+    }
+
+    @Test
+    public void chineseCheckers() {
+        checkRandomActions(GameType.ChineseCheckers, 2);
+    }
+
+    @Test
+    public void dominion() {
+        checkRandomActions(GameType.Dominion, 3);
+    }
+
+    @Test
+    public void stratego() {
+        checkRandomActions(GameType.Stratego, 2);
+    }
+
+    @Test
+    public void terraformingMars() {
+        checkRandomActions(GameType.TerraformingMars, 2);
+    }
+
+    @Test
+    public void defaultIsSameAsRandomPlayer() {
+        Game game = GameType.LoveLetter.createGameInstance(3, 395);
+        AbstractForwardModel fm = game.getForwardModel();
+        AbstractGameState state = game.getGameState();
+        Random rnd = new Random(3934);
+        RandomPlayer player = new RandomPlayer(new Random(3934));
+        while (state.isNotTerminal()) {
+            AbstractAction action = fm.randomAction(state, rnd);
+            assertEquals(player.getAction(state, fm.computeAvailableActions(state)), action);
+            fm.next(state, action);
+        }
+    }
+}
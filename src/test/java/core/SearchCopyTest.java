@@ -0,0 +1,73 @@
+package core;
+
+import core.actions.AbstractAction;
+import games.GameType;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SearchCopyTest {
+
+    AbstractGameState state;
+    AbstractForwardModel forwardModel;
+
+    @Before
+    public void setup() {
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(3023)), new RandomPlayer(new Random(244)));
+        Game game = new Game(GameType.TicTacToe, players, new TicTacToeForwardModel(), new TicTacToeGameState(new TicTacToeGameParameters(330245), players.size()));
+        state = game.getGameState();
+        forwardModel = game.getForwardModel();
+        advance(state, 2);
+    }
+
+    private void advance(AbstractGameState gs, int moves) {
+        for (int i = 0; i < moves; i++)
+            forwardModel.next(gs, forwardModel.computeAvailableActions(gs).get(0));
+    }
+
+    @Test
+    public void searchCopyKeepsHistoryButNoText() {
+        int textSize = state.getHistoryAsText().size();
+        AbstractGameState searchState = state.copyForSearch();
+        assertTrue(searchState.isSearchCopy());
+        assertFalse(state.isSearchCopy());
+        assertEquals(state.getHistory(), searchState.getHistory());
+        assertTrue(searchState.getHistoryAsText().isEmpty());
+
+        advance(searchState, 2);
+        assertEquals(4, searchState.getHistory().size());
+        assertEquals(state.getHistory(), searchState.getHistory().subList(0, 2));
+        assertTrue(searchState.getHistoryAsText().isEmpty());
+        // and the original state is unaffected
+        assertEquals(2, state.getHistory().size());
+        assertEquals(textSize, state.getHistoryAsText().size());
+    }
+
+    @Test
+    public void copiesOfSearchCopyShareHistoryIndependently() {
+        AbstractGameState searchState = state.copyForSearch();
+        advance(searchState, 1);
+        AbstractGameState copyA = searchState.copy();
+        AbstractGameState copyB = searchState.copy(0);
+        assertTrue(copyA.isSearchCopy());
+        assertTrue(copyB.isSearchCopy());
+
+        List<AbstractAction> actionsForB = forwardModel.computeAvailableActions(copyB);
+        forwardModel.next(copyA, forwardModel.computeAvailableActions(copyA).get(0));
+        forwardModel.next(copyB, actionsForB.get(actionsForB.size() - 1));
+
+        assertEquals(3, searchState.getHistory().size());
+        assertEquals(4, copyA.getHistory().size());
+        assertEquals(4, copyB.getHistory().size());
+        assertEquals(searchState.getHistory(), copyA.getHistory().subList(0, 3));
+        assertEquals(searchState.getHistory(), copyB.getHistory().subList(0, 3));
+        assertNotEquals(copyA.getHistory().get(3), copyB.getHistory().get(3));
+    }
+}
@@ -0,0 +1,110 @@
+package core;
+
+import core.actions.AbstractAction;
+import core.components.GridBoard;
+import core.components.Token;
+import games.GameType;
+import games.chinesecheckers.CCGameState;
+import games.chinesecheckers.components.StarBoard;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class StateHashTest {
+
+    private AbstractGameState newGame(GameType gameType, int nPlayers) {
+        return gameType.createGameInstance(nPlayers, 237).getGameState();
+    }
+
+    private AbstractForwardModel forwardModel(GameType gameType, int nPlayers) {
+        return gameType.createGameInstance(nPlayers, 237).getForwardModel();
+    }
+
+    private void playAndCheck(GameType gameType, int nPlayers, boolean statesCannotRepeat) {
+        AbstractGameState state = newGame(gameType, nPlayers);
+        AbstractForwardModel fm = forwardModel(gameType, nPlayers);
+        Random rnd = new Random(34);
+        Set<Long> hashes = new HashSet<>();
+        for (int i = 0; i < 300 && state.isNotTerminal(); i++) {
+            long hash = state.getStateHash();
+            assertEquals(hash, state.copy().getStateHash());
+            if (statesCannotRepeat)
+                assertTrue(hashes.add(hash));
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+    }
+
+    @Test
+    public void copiesHaveSameHashAndEachMoveChangesIt() {
+        playAndCheck(GameType.TicTacToe, 2, true);
+        playAndCheck(GameType.Connect4, 2, true);
+        playAndCheck(GameType.DotsAndBoxes, 2, true);
+        playAndCheck(GameType.ChineseCheckers, 2, false);
+    }
+
+    private AbstractGameState play(AbstractGameState initialState, AbstractForwardModel fm, List<AbstractAction> moves) {
+        AbstractGameState state = initialState.copy();
+        for (AbstractAction move : moves) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            assertTrue(actions.contains(move));
+            fm.next(state, actions.get(actions.indexOf(move)));
+        }
+        return state;
+    }
+
+    private void checkTransposition(GameType gameType) {
+        AbstractGameState initialState = newGame(gameType, 2);
+        AbstractForwardModel fm = forwardModel(gameType, 2);
+        AbstractGameState state = initialState.copy();
+        List<AbstractAction> firstMoves = fm.computeAvailableActions(state);
+        AbstractAction a = firstMoves.get(0);
+        AbstractAction c = firstMoves.get(firstMoves.size() - 1);
+        fm.next(state, a);
+        AbstractAction b = fm.computeAvailableActions(state).get(1);
+
+        AbstractGameState abc = play(initialState, fm, Arrays.asList(a, b, c));
+        AbstractGameState cba = play(initialState, fm, Arrays.asList(c, b, a));
+        AbstractGameState abd = play(initialState, fm, Arrays.asList(a, b, firstMoves.get(firstMoves.size() - 2)));
+        assertEquals(abc.getStateHash(), cba.getStateHash());
+        assertNotEquals(abc.getStateHash(), abd.getStateHash());
+    }
+
+    @Test
+    public void sameBoardReachedInDifferentOrderHasSameHash() {
+        checkTransposition(GameType.TicTacToe);
+        checkTransposition(GameType.DotsAndBoxes);
+    }
+
+    @Test
+    public void incrementalHashMatchesRecomputedHash() {
+        AbstractGameState ttt = newGame(GameType.TicTacToe, 2);
+        AbstractForwardModel tttFM = forwardModel(GameType.TicTacToe, 2);
+        AbstractGameState cc = newGame(GameType.ChineseCheckers, 2);
+        AbstractForwardModel ccFM = forwardModel(GameType.ChineseCheckers, 2);
+        Random rnd = new Random(9);
+        for (int i = 0; i < 100; i++) {
+            if (ttt.isNotTerminal()) {
+                List<AbstractAction> actions = tttFM.computeAvailableActions(ttt);
+                tttFM.next(ttt, actions.get(rnd.nextInt(actions.size())));
+                GridBoard<Token> board = ((TicTacToeGameState) ttt).getGridBoard();
+                GridBoard<Token> rebuilt = board.emptyCopy();
+                for (int y = 0; y < board.getHeight(); y++)
+                    for (int x = 0; x < board.getWidth(); x++)
+                        rebuilt.setElement(x, y, board.getElement(x, y));
+                assertEquals(rebuilt.getStateHash(), board.getStateHash());
+            }
+            if (cc.isNotTerminal()) {
+                List<AbstractAction> actions = ccFM.computeAvailableActions(cc);
+                ccFM.next(cc, actions.get(rnd.nextInt(actions.size())));
+                StarBoard board = ((CCGameState) cc).getStarBoard();
+                StarBoard rebuilt = board.copy();
+                rebuilt.setBoardNodes(rebuilt.getBoardNodes());
+                assertEquals(rebuilt.getStateHash(), board.getStateHash());
+            }
+        }
+    }
+}
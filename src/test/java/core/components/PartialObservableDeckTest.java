@@ -0,0 +1,109 @@
+package core.components;
+
+import core.CoreConstants;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PartialObservableDeckTest {
+
+    static class ImmutableCard extends Card {
+        ImmutableCard(String name) {
+            super(name);
+        }
+
+        @Override
+        public Card copy() {
+            return this;
+        }
+
+        @Override
+        public boolean isImmutable() {
+            return true;
+        }
+    }
+
+    PartialObservableDeck<Card> deck;
+
+    @Before
+    public void setup() {
+        deck = new PartialObservableDeck<>("Test", -1, new boolean[]{false, false, false});
+        for (int i = 0; i < 10; i++)
+            deck.add(new ImmutableCard("Card" + i));
+        deck.setVisibilityOfComponent(2, 1, true);
+        deck.setVisibilityOfComponent(5, new boolean[]{true, false, true});
+    }
+
+    @Test
+    public void copySharesImmutableCardsUntilChanged() {
+        PartialObservableDeck<Card> copy = deck.copy();
+        assertEquals(deck.getComponents(), copy.getComponents());
+        for (int i = 0; i < deck.getSize(); i++)
+            assertSame(deck.get(i), copy.get(i));
+
+        Card drawn = copy.draw();
+        assertEquals(9, copy.getSize());
+        assertEquals(10, deck.getSize());
+        assertSame(drawn, deck.get(0));
+
+        deck.shuffle(new Random(42));
+        assertEquals(9, copy.getSize());
+        assertEquals("Card8", copy.get(0).getComponentName());
+    }
+
+    @Test
+    public void visibilityFollowsComponents() {
+        Card visibleToOne = deck.get(2);
+        Card visibleToZeroAndTwo = deck.get(5);
+        PartialObservableDeck<Card> copy = deck.copy();
+        copy.setVisibilityOfComponent(2, 1, false);
+        assertTrue(deck.isComponentVisible(2, 1));
+
+        deck.shuffle(new Random(42));
+        for (int i = 0; i < deck.getSize(); i++) {
+            Card c = deck.get(i);
+            assertEquals(c == visibleToOne, deck.isComponentVisible(i, 1));
+            assertEquals(c == visibleToZeroAndTwo, deck.isComponentVisible(i, 0));
+            assertEquals(c == visibleToZeroAndTwo, deck.isComponentVisible(i, 2));
+        }
+
+        int index = deck.getComponents().indexOf(visibleToZeroAndTwo);
+        deck.remove(index);
+        for (int i = 0; i < deck.getSize(); i++)
+            assertFalse(deck.isComponentVisible(i, 0));
+        assertArrayEquals(new boolean[]{true, false, true}, copy.getVisibilityOfComponent(5));
+    }
+
+    @Test
+    public void addingPartialObservableDeckKeepsItsVisibility() {
+        PartialObservableDeck<Card> other = new PartialObservableDeck<>("Other", -1, new boolean[]{false, false, false});
+        other.add(new ImmutableCard("Other0"), new boolean[]{false, true, false});
+        other.add(new ImmutableCard("Other1"));
+        deck.add(other);
+
+        assertEquals(12, deck.getSize());
+        assertEquals("Other1", deck.get(0).getComponentName());
+        assertArrayEquals(new boolean[]{false, false, false}, deck.getVisibilityOfComponent(0));
+        assertArrayEquals(new boolean[]{false, true, false}, deck.getVisibilityOfComponent(1));
+        assertTrue(deck.isComponentVisible(4, 1));
+        assertTrue(deck.isComponentVisible(7, 0));
+    }
+
+    @Test
+    public void sharedCardsKeepNoOwner() {
+        PartialObservableDeck<Card> copy = deck.copy();
+        Deck<Card> hand = new Deck<>("Hand", 1, CoreConstants.VisibilityMode.VISIBLE_TO_OWNER);
+        hand.add(copy.draw());
+        // the card is also in the original deck, which belongs to nobody
+        assertEquals(-1, deck.get(0).getOwnerId());
+        assertSame(deck.get(0), hand.get(0));
+
+        Deck<Card> mutableHand = new Deck<>("Hand", 1, CoreConstants.VisibilityMode.VISIBLE_TO_OWNER);
+        Card mutable = new Card("Mutable");
+        mutableHand.add(mutable);
+        assertEquals(1, mutable.getOwnerId());
+    }
+}
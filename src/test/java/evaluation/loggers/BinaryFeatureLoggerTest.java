@@ -0,0 +1,130 @@
+package evaluation.loggers;
+
+import core.AbstractPlayer;
+import core.Game;
+import evaluation.listeners.StateFeatureListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import games.loveletter.LLStateFeaturesReduced;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import players.learners.AbstractLearner;
+import players.simple.RandomPlayer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class BinaryFeatureLoggerTest {
+
+    File binaryFile, textFile;
+
+    @Before
+    public void setup() throws IOException {
+        binaryFile = File.createTempFile("features", ".bin");
+        textFile = File.createTempFile("features", ".txt");
+    }
+
+    @After
+    public void cleanup() {
+        binaryFile.delete();
+        textFile.delete();
+    }
+
+    static class TestLearner extends AbstractLearner {
+        @Override
+        public void learnFrom(String... files) {
+            loadData(files);
+        }
+
+        @Override
+        public void writeToFile(String prefix) {
+        }
+
+        @Override
+        public String name() {
+            return "Test";
+        }
+
+        String[] header() {
+            return header;
+        }
+
+        double[][] data() {
+            return dataArray;
+        }
+    }
+
+    private void checkRoundTrip(boolean compress) {
+        String[] names = {"A", "B", "C"};
+        List<double[]> rows = new ArrayList<>();
+        Random rnd = new Random(35);
+        // several blocks, with the last one part full
+        BinaryFeatureLogger logger = new BinaryFeatureLogger(binaryFile.getPath(), compress, 7);
+        for (int i = 0; i < 25; i++) {
+            double[] row = {i, rnd.nextGaussian(), rnd.nextInt(3)};
+            rows.add(row.clone());
+            logger.record(names, row);
+        }
+        Map<String, Object> lastRow = new HashMap<>();
+        lastRow.put("C", 4);
+        lastRow.put("A", 2.5);
+        logger.record(lastRow);
+        rows.add(new double[]{2.5, Double.NaN, 4.0});
+        logger.processDataAndFinish();
+
+        assertTrue(BinaryFeatureReader.isBinaryFeatureFile(binaryFile.getPath()));
+        try (BinaryFeatureReader reader = new BinaryFeatureReader(binaryFile.getPath())) {
+            assertArrayEquals(names, reader.getColumns());
+            List<double[]> readRows = reader.readRows();
+            assertEquals(rows.size(), readRows.size());
+            for (int i = 0; i < rows.size(); i++)
+                assertArrayEquals(rows.get(i), readRows.get(i), 0.0);
+        }
+    }
+
+    @Test
+    public void compressedRoundTrip() {
+        checkRoundTrip(true);
+    }
+
+    @Test
+    public void uncompressedRoundTrip() {
+        checkRoundTrip(false);
+    }
+
+    @Test
+    public void learnerReadsSameDataAsFromText() {
+        StateFeatureListener binaryListener = new StateFeatureListener(new LLStateFeaturesReduced(), Event.GameEvent.ACTION_CHOSEN, false);
+        binaryListener.setLogger(new BinaryFeatureLogger(binaryFile.getPath()));
+        StateFeatureListener textListener = new StateFeatureListener(new LLStateFeaturesReduced(), Event.GameEvent.ACTION_CHOSEN, false);
+        textListener.setLogger(new FileStatsLogger(textFile.getPath(), "\t", false));
+        List<AbstractPlayer> players = Arrays.asList(new RandomPlayer(new Random(1)), new RandomPlayer(new Random(2)));
+        for (int i = 0; i < 5; i++) {
+            Game game = GameType.LoveLetter.createGameInstance(players.size(), 100 + i);
+            game.addListener(binaryListener);
+            game.addListener(textListener);
+            game.reset(players);
+            game.run();
+        }
+        binaryListener.report();
+        textListener.report();
+
+        assertFalse(BinaryFeatureReader.isBinaryFeatureFile(textFile.getPath()));
+        TestLearner fromBinary = new TestLearner();
+        fromBinary.learnFrom(binaryFile.getPath());
+        TestLearner fromText = new TestLearner();
+        fromText.learnFrom(textFile.getPath());
+        assertArrayEquals(fromText.header(), fromBinary.header());
+        assertTrue(fromBinary.data().length > 20);
+        assertEquals(fromText.data().length, fromBinary.data().length);
+        for (int i = 0; i < fromText.data().length; i++) {
+            // the text file only has three significant figures
+            for (int j = 0; j < fromText.data()[i].length; j++)
+                assertEquals(fromBinary.data()[i][j], fromText.data()[i][j], Math.abs(fromBinary.data()[i][j]) * 0.01);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package evaluation.optimisation;
+
+import core.AbstractParameters;
+import core.AbstractPlayer;
+import games.GameType;
+import org.junit.Test;
+import players.heuristics.WinOnlyHeuristic;
+import players.simple.FirstActionPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class GameEvaluatorTest {
+
+    // the tuned player has no randomness of its own, so the results depend only on the evaluator's seed
+    static class FirstActionParams extends TunableParameters {
+        FirstActionParams() {
+            addTunableParameter("unused", 0, Arrays.asList(0, 1, 2));
+        }
+
+        @Override
+        public void _reset() {
+        }
+
+        @Override
+        protected AbstractParameters _copy() {
+            return new FirstActionParams();
+        }
+
+        @Override
+        protected boolean _equals(Object o) {
+            return o instanceof FirstActionParams;
+        }
+
+        @Override
+        public Object instantiate() {
+            return new FirstActionPlayer();
+        }
+    }
+
+    private GameEvaluator createEvaluator() {
+        List<AbstractPlayer> opponents = Arrays.asList(new RandomPlayer(new Random(11)), new RandomPlayer(new Random(29)),
+                new RandomPlayer(new Random(4)));
+        return new GameEvaluator(GameType.TicTacToe, new ITPSearchSpace(new FirstActionParams()), null, 2,
+                opponents, 732, new WinOnlyHeuristic(), null, true);
+    }
+
+    @Test
+    public void parallelEvaluationMatchesSequential() {
+        List<int[]> settings = new ArrayList<>();
+        for (int i = 0; i < 24; i++)
+            settings.add(new int[]{i % 3});
+
+        GameEvaluator sequential = createEvaluator();
+        double[] expected = settings.stream().mapToDouble(sequential::evaluate).toArray();
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            GameEvaluator parallel = createEvaluator();
+            assertArrayEquals(expected, parallel.evaluate(settings, pool), 0.0);
+            assertEquals(24, parallel.nEvals());
+        } finally {
+            pool.shutdownNow();
+        }
+        // the games are not all the same
+        assertTrue(Arrays.stream(expected).distinct().count() > 1);
+    }
+}
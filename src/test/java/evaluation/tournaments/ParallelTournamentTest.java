@@ -0,0 +1,116 @@
+package evaluation.tournaments;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import evaluation.listeners.IGameListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import org.junit.Test;
+import players.simple.OSLAPlayer;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static evaluation.tournaments.AbstractTournament.TournamentMode.NO_SELF_PLAY;
+import static org.junit.Assert.*;
+
+public class ParallelTournamentTest {
+
+    static class GameCounter implements IGameListener {
+        Game game;
+        List<Integer> gameIDs = new ArrayList<>();
+        int actions;
+
+        @Override
+        public void onEvent(Event event) {
+            if (event.type == Event.GameEvent.GAME_OVER)
+                gameIDs.add(event.state.getGameID());
+            if (event.type == Event.GameEvent.ACTION_TAKEN)
+                actions++;
+        }
+
+        @Override
+        public void report() {
+        }
+
+        @Override
+        public void setGame(Game game) {
+            this.game = game;
+        }
+
+        @Override
+        public Game getGame() {
+            return game;
+        }
+    }
+
+    static class CountingPlayer extends RandomPlayer {
+        int decisions;
+
+        CountingPlayer(Random rnd) {
+            super(rnd);
+        }
+
+        @Override
+        public AbstractAction _getAction(AbstractGameState gameState, List<AbstractAction> possibleActions) {
+            decisions++;
+            return super._getAction(gameState, possibleActions);
+        }
+    }
+
+    private RoundRobinTournament runTournament(int nThreads, GameCounter listener) {
+        return runTournament(nThreads, listener, new RandomPlayer(new Random(3)));
+    }
+
+    private RoundRobinTournament runTournament(int nThreads, GameCounter listener, AbstractPlayer firstAgent) {
+        List<AbstractPlayer> agents = Arrays.asList(firstAgent,
+                new OSLAPlayer(new Random(87)), new RandomPlayer(new Random(562)));
+        RoundRobinTournament tournament = new RoundRobinTournament(agents, GameType.TicTacToe, 2, 20,
+                NO_SELF_PLAY, null, false);
+        tournament.setVerbose(false);
+        tournament.setRandomSeed(49);
+        tournament.setNThreads(nThreads);
+        tournament.addListener(listener);
+        tournament.run();
+        return tournament;
+    }
+
+    @Test
+    public void resultsDoNotDependOnNumberOfThreads() {
+        GameCounter twoThreadCounter = new GameCounter();
+        GameCounter fourThreadCounter = new GameCounter();
+        RoundRobinTournament twoThreads = runTournament(2, twoThreadCounter);
+        RoundRobinTournament fourThreads = runTournament(4, fourThreadCounter);
+
+        assertEquals(120, Arrays.stream(twoThreads.nGamesPlayed).sum() / 2);
+        assertArrayEquals(twoThreads.pointsPerPlayer, fourThreads.pointsPerPlayer, 1e-9);
+        assertArrayEquals(twoThreads.rankPerPlayer, fourThreads.rankPerPlayer, 1e-9);
+        for (int i = 0; i < 3; i++)
+            assertArrayEquals(twoThreads.winsPerPlayerPerOpponent[i], fourThreads.winsPerPlayerPerOpponent[i], 1e-9);
+
+        // the listener sees every game, with all its actions
+        assertEquals(120, twoThreadCounter.gameIDs.size());
+        assertEquals(twoThreadCounter.actions, fourThreadCounter.actions);
+        assertEquals(new HashSet<>(twoThreadCounter.gameIDs).size(), twoThreadCounter.gameIDs.size());
+    }
+
+    @Test
+    public void oneThreadIsSequential() {
+        GameCounter counter = new GameCounter();
+        CountingPlayer agent = new CountingPlayer(new Random(3));
+        RoundRobinTournament tournament = runTournament(1, counter, agent);
+        assertEquals(120, counter.gameIDs.size());
+        assertEquals(120, Arrays.stream(tournament.nGamesPlayed).sum() / 2);
+        // the original agents play the games
+        assertTrue(agent.decisions > 0);
+    }
+
+    @Test
+    public void parallelGamesUseCopies() {
+        CountingPlayer agent = new CountingPlayer(new Random(3));
+        runTournament(2, new GameCounter(), agent);
+        assertEquals(0, agent.decisions);
+    }
+}
@@ -0,0 +1,95 @@
+package players;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BudgetTimerTest {
+
+    PlayerParameters params;
+    long now;  // the time on the test clock, in nanoseconds
+    int clockReads;
+
+    @Before
+    public void setup() {
+        params = new PlayerParameters(42);
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 100;
+        params.clockCheckInterval = 10;
+    }
+
+    private BudgetTimer timer(int budget, double marginIterations) {
+        return new BudgetTimer(params, budget, marginIterations, () -> {
+            clockReads++;
+            return now;
+        });
+    }
+
+    /**
+     * @return the number of iterations run, each taking one millisecond, before the timer stops the search
+     */
+    private int search(BudgetTimer timer) {
+        timer.start();
+        int iterations = 0;
+        boolean timeLeft = true;
+        while (timeLeft && iterations < 10000) {
+            now += 1000000;
+            iterations++;
+            timeLeft = timer.iterationDone();
+        }
+        timer.stop();
+        return iterations;
+    }
+
+    @Test
+    public void stopsWithTheMarginLeft() {
+        assertEquals(98, search(timer(100, 2.0)));
+        assertEquals(99, search(timer(100, 1.0)));
+        assertEquals(100, search(timer(100, 0.0)));
+    }
+
+    @Test
+    public void breakMSIsKeptInHand() {
+        params.breakMS = 10;
+        assertEquals(90, search(timer(100, 2.0)));
+    }
+
+    @Test
+    public void budgetArgumentIsUsed() {
+        BudgetTimer timer = timer(50, 2.0);
+        assertEquals(48, search(timer));
+        assertEquals(48, timer.getIterations());
+        assertEquals(48.0, timer.elapsedMillis(), 1e-9);
+        assertEquals(1000.0, timer.getIterationsPerSecond(), 1e-9);
+    }
+
+    @Test
+    public void clockIsReadLessOftenThanEveryIteration() {
+        int iterations = search(timer(100, 2.0));
+        assertTrue(clockReads < iterations / 2);
+    }
+
+    @Test
+    public void clockReadEveryIteration() {
+        params.clockCheckInterval = 1;
+        int iterations = search(timer(100, 2.0));
+        assertEquals(98, iterations);
+        // once at the start and stop, and after each iteration
+        assertEquals(iterations + 2, clockReads);
+    }
+
+    @Test
+    public void otherBudgetsOnlyReadTheClockAtTheStartAndEnd() {
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        BudgetTimer timer = timer(100, 2.0);
+        timer.start();
+        for (int i = 0; i < 500; i++) {
+            now += 1000000;
+            assertTrue(timer.iterationDone());
+        }
+        timer.stop();
+        assertEquals(2, clockReads);
+        assertEquals(500.0, timer.elapsedMillis(), 1e-9);
+    }
+}
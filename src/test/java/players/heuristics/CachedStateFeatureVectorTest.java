@@ -0,0 +1,178 @@
+package players.heuristics;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateFeatureVector;
+import evaluation.listeners.StateFeatureListener;
+import evaluation.metrics.Event;
+import games.GameType;
+import games.loveletter.LLStateFeaturesReduced;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CachedStateFeatureVectorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static class CountingFeatures implements IStateFeatureVector {
+        IStateFeatureVector features = new LLStateFeaturesReduced();
+        int calls;
+
+        @Override
+        public double[] featureVector(AbstractGameState state, int playerID) {
+            calls++;
+            return features.featureVector(state, playerID);
+        }
+
+        @Override
+        public String[] names() {
+            return features.names();
+        }
+    }
+
+    CountingFeatures counting;
+    IStateFeatureVector cached;
+    AbstractGameState state;
+    AbstractForwardModel fm;
+
+    @Before
+    public void setup() {
+        Game game = GameType.LoveLetter.createGameInstance(3, 395);
+        state = game.getGameState();
+        fm = game.getForwardModel();
+        counting = new CountingFeatures();
+        cached = CachedStateFeatureVector.of(counting);
+        CachedStateFeatureVector.resetStatistics();
+    }
+
+    @Test
+    public void sameStateAndPlayerIsOnlyExtractedOnce() {
+        double[] first = cached.featureVector(state, 0);
+        double[] second = cached.featureVector(state, 0);
+        assertEquals(1, counting.calls);
+        assertArrayEquals(first, second, 0.0);
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void stateIsExtractedAgainAfterSetup() {
+        cached.featureVector(state, 0);
+        // the same object set up again for a new game, with the same game id and tick
+        int gameID = state.getGameID();
+        fm.setup(state);
+        assertEquals(gameID, state.getGameID());
+        assertEquals(0, state.getGameTick());
+        double[] after = cached.featureVector(state, 0);
+        assertEquals(2, counting.calls);
+        assertArrayEquals(new LLStateFeaturesReduced().featureVector(state, 0), after, 0.0);
+    }
+
+    @Test
+    public void otherPlayersAndCopiesAreExtractedAgain() {
+        cached.featureVector(state, 0);
+        cached.featureVector(state, 1);
+        assertEquals(2, counting.calls);
+        AbstractGameState copy = state.copy();
+        cached.featureVector(copy, 0);
+        assertEquals(3, counting.calls);
+    }
+
+    @Test
+    public void stateIsExtractedAgainAfterAnAction() {
+        cached.featureVector(state, 0);
+        for (int i = 0; i < 5; i++) {
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(0));
+        }
+        double[] after = cached.featureVector(state, 0);
+        assertEquals(2, counting.calls);
+        assertArrayEquals(new LLStateFeaturesReduced().featureVector(state, 0), after, 0.0);
+    }
+
+    @Test
+    public void modifyingResultDoesNotChangeCache() {
+        double[] first = cached.featureVector(state, 0);
+        double expected = first[0];
+        first[0] = -999.0;
+        assertEquals(expected, cached.featureVector(state, 0)[0], 0.0);
+    }
+
+    @Test
+    public void wrappersOfTheSameFeaturesShareTheCache() {
+        IStateFeatureVector other = CachedStateFeatureVector.of(counting);
+        cached.featureVector(state, 2);
+        other.featureVector(state, 2);
+        assertEquals(1, counting.calls);
+        assertSame(cached, CachedStateFeatureVector.of(cached));
+        assertSame(counting, CachedStateFeatureVector.unwrap(cached));
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted() {
+        cached.featureVector(state, 0);
+        cached.featureVector(state, 0);
+        cached.featureVector(state, 1);
+        cached.featureVector(state, 0);
+        assertEquals(2, CachedStateFeatureVector.getHits());
+        assertEquals(2, CachedStateFeatureVector.getMisses());
+        assertEquals(0.5, CachedStateFeatureVector.getHitRate(), 1e-9);
+        CachedStateFeatureVector.resetStatistics();
+        assertEquals(0, CachedStateFeatureVector.getHits());
+        assertEquals(0, CachedStateFeatureVector.getMisses());
+    }
+
+    @Test
+    public void countsAreKeptPerThread() throws InterruptedException {
+        cached.featureVector(state, 0);
+        cached.featureVector(state, 0);
+        Thread other = new Thread(() -> cached.featureVector(state, 0));
+        other.start();
+        other.join();
+        // the other thread has its own cache, so it missed, but that is not counted here
+        assertEquals(2, counting.calls);
+        assertEquals(1, CachedStateFeatureVector.getHits());
+        assertEquals(1, CachedStateFeatureVector.getMisses());
+    }
+
+    @Test
+    public void heuristicAndListenerShareEntries() throws IOException {
+        // each of these creates its own instance of the feature vector
+        File coefficients = folder.newFile("coefficients.txt");
+        String[] names = new LLStateFeaturesReduced().names();
+        try (FileWriter writer = new FileWriter(coefficients)) {
+            writer.write("BIAS\t" + String.join("\t", names) + "\n");
+            StringBuilder values = new StringBuilder("0.5");
+            for (int i = 0; i < names.length; i++)
+                values.append("\t0.1");
+            writer.write(values + "\n");
+        }
+        LinearStateHeuristic heuristic = new LinearStateHeuristic(LLStateFeaturesReduced.class.getName(), coefficients.getPath());
+        StateFeatureListener listener = new StateFeatureListener(new LLStateFeaturesReduced(), Event.GameEvent.ACTION_CHOSEN, false);
+
+        heuristic.evaluateState(state, 1);
+        double[] phi = listener.extractFeatureVector(null, state, 1);
+        assertEquals(1, CachedStateFeatureVector.getHits());
+        assertEquals(1, CachedStateFeatureVector.getMisses());
+        assertArrayEquals(new LLStateFeaturesReduced().featureVector(state, 1), phi, 0.0);
+    }
+
+    @Test
+    public void differentFeatureClassesDoNotShareEntries() {
+        cached.featureVector(state, 0);
+        CachedStateFeatureVector.of(new LLStateFeaturesReduced()).featureVector(state, 0);
+        assertEquals(0, CachedStateFeatureVector.getHits());
+        assertEquals(2, CachedStateFeatureVector.getMisses());
+    }
+}
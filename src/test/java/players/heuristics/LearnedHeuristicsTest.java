@@ -0,0 +1,145 @@
+package players.heuristics;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.CoreConstants;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateFeatureVector;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import games.loveletter.LLStateFeaturesReduced;
+import libsvm.*;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LearnedHeuristicsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    IStateFeatureVector features = new LLStateFeaturesReduced();
+    List<AbstractGameState> states = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        // the states of one game of Love Letter, played to the end with random actions
+        Game game = GameType.LoveLetter.createGameInstance(3, 395);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel fm = game.getForwardModel();
+        Random rnd = new Random(52);
+        while (state.isNotTerminal()) {
+            states.add(state.copy());
+            List<AbstractAction> actions = fm.computeAvailableActions(state);
+            fm.next(state, actions.get(rnd.nextInt(actions.size())));
+        }
+        states.add(state.copy());
+    }
+
+    private String coefficientsFile() throws IOException {
+        File file = folder.newFile("coefficients.txt");
+        Random rnd = new Random(83);
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write("BIAS\t" + String.join("\t", features.names()) + "\n");
+            StringJoiner coefficients = new StringJoiner("\t");
+            for (int i = 0; i <= features.names().length; i++)
+                coefficients.add(String.valueOf(rnd.nextGaussian() * 0.1));
+            writer.write(coefficients + "\n");
+        }
+        return file.getPath();
+    }
+
+    private svm_model svmModel() {
+        svm_problem problem = new svm_problem();
+        problem.l = states.size();
+        problem.x = new svm_node[problem.l][];
+        problem.y = new double[problem.l];
+        for (int i = 0; i < problem.l; i++) {
+            double[] phi = features.featureVector(states.get(i), i % 3);
+            problem.x[i] = new svm_node[phi.length];
+            for (int j = 0; j < phi.length; j++) {
+                problem.x[i][j] = new svm_node();
+                problem.x[i][j].index = j + 1;
+                problem.x[i][j].value = phi[j];
+            }
+            problem.y[i] = states.get(i).getGameScore(i % 3);
+        }
+        svm_parameter params = new svm_parameter();
+        params.svm_type = svm_parameter.EPSILON_SVR;
+        params.kernel_type = svm_parameter.LINEAR;
+        params.C = 1.0;
+        params.p = 0.1;
+        params.eps = 1e-3;
+        params.cache_size = 10;
+        svm.svm_set_print_string_function(s -> {
+        });
+        return svm.svm_train(problem, params);
+    }
+
+    private void assertAllPlayersMatchEachPlayer(IStateHeuristic heuristic) {
+        for (AbstractGameState state : states) {
+            double[] expected = new double[state.getNPlayers()];
+            for (int p = 0; p < expected.length; p++)
+                expected[p] = heuristic.evaluateState(state, p);
+            assertArrayEquals(expected, heuristic.evaluateAllPlayers(state), 1e-9);
+        }
+    }
+
+    @Test
+    public void linearHeuristicsScoreAllPlayersAsEachPlayer() throws IOException {
+        String coefficients = coefficientsFile();
+        IStateHeuristic defaultHeuristic = new LeaderHeuristic();
+        assertAllPlayersMatchEachPlayer(new LinearStateHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LinearStateWinHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LinearStateOrdHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LinearStateBonusHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LinearStateHeuristic(features, "", defaultHeuristic));
+    }
+
+    @Test
+    public void roundResultsAreScoredAsGameResults() throws IOException {
+        String coefficients = coefficientsFile();
+        IStateHeuristic defaultHeuristic = new LeaderHeuristic();
+        LinearStateHeuristic linear = new LinearStateHeuristic(features, coefficients, defaultHeuristic);
+        LinearStateWinHeuristic win = new LinearStateWinHeuristic(features, coefficients, defaultHeuristic);
+        LinearStateBonusHeuristic bonus = new LinearStateBonusHeuristic(features, coefficients, defaultHeuristic);
+        int roundResults = 0;
+        for (AbstractGameState state : states) {
+            for (int p = 0; p < state.getNPlayers(); p++) {
+                CoreConstants.GameResult result = state.getPlayerResults()[p];
+                if (result == CoreConstants.GameResult.WIN_ROUND || result == CoreConstants.GameResult.LOSE_ROUND) {
+                    roundResults++;
+                    boolean won = result == CoreConstants.GameResult.WIN_ROUND;
+                    assertEquals(won ? 1.0 : 0.0, win.evaluateState(state, p), 1e-9);
+                    assertEquals((won ? 1.5 : 0.75) * linear.evaluateState(state, p), bonus.evaluateState(state, p), 1e-9);
+                }
+            }
+        }
+        assertTrue(roundResults > 0);
+    }
+
+    @Test
+    public void logisticHeuristicsScoreAllPlayersAsEachPlayer() throws IOException {
+        String coefficients = coefficientsFile();
+        IStateHeuristic defaultHeuristic = new LeaderHeuristic();
+        assertAllPlayersMatchEachPlayer(new LogisticStateHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LogisticStateWinHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LogisticStateOrdHeuristic(features, coefficients, defaultHeuristic));
+        assertAllPlayersMatchEachPlayer(new LogisticStateHeuristic(features, "", defaultHeuristic));
+    }
+
+    @Test
+    public void svmHeuristicScoresAllPlayersAsEachPlayer() {
+        assertAllPlayersMatchEachPlayer(new SVMStateHeuristic(features, svmModel(), new LeaderHeuristic()));
+        assertAllPlayersMatchEachPlayer(new SVMStateHeuristic(features, "", new LeaderHeuristic()));
+    }
+}
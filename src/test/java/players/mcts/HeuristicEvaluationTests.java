@@ -0,0 +1,163 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.heuristics.LeaderHeuristic;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class HeuristicEvaluationTests {
+
+    static class CountingHeuristic implements IStateHeuristic {
+        int singleCalls, allPlayerCalls;
+        List<Integer> batchSizes = new ArrayList<>();
+
+        @Override
+        public double evaluateState(AbstractGameState gs, int playerId) {
+            singleCalls++;
+            return gs.getHeuristicScore(playerId);
+        }
+
+        @Override
+        public double[] evaluateAllPlayers(AbstractGameState gs) {
+            allPlayerCalls++;
+            return IStateHeuristic.super.evaluateAllPlayers(gs);
+        }
+
+        @Override
+        public double[][] evaluateAllPlayers(List<? extends AbstractGameState> states) {
+            batchSizes.add(states.size());
+            return IStateHeuristic.super.evaluateAllPlayers(states);
+        }
+    }
+
+    MCTSParams params;
+    CountingHeuristic heuristic;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        heuristic = new CountingHeuristic();
+    }
+
+    private MCTSPlayer search(GameType gameType) {
+        MCTSPlayer mctsPlayer = new MCTSPlayer(params);
+        mctsPlayer.setStateHeuristic(heuristic);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Game game = gameType.createGameInstance(players.size(), 395);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer;
+    }
+
+    @Test
+    public void startOfIterationIsEvaluatedOnceWithoutRedeterminisation() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        search(GameType.LoveLetter);
+        // once for the root, and once at the end of each rollout
+        assertEquals(201, heuristic.allPlayerCalls);
+        assertEquals(201 * 2, heuristic.singleCalls);
+    }
+
+    @Test
+    public void startOfIterationIsEvaluatedEachTimeWithRedeterminisation() {
+        params.information = MCTSEnums.Information.Information_Set;
+        search(GameType.LoveLetter);
+        assertEquals(400, heuristic.allPlayerCalls);
+    }
+
+    @Test
+    public void startOfIterationIsNotEvaluatedWithoutScoreDelta() {
+        params.information = MCTSEnums.Information.Information_Set;
+        params.nodesStoreScoreDelta = false;
+        search(GameType.LoveLetter);
+        assertEquals(200, heuristic.allPlayerCalls);
+    }
+
+    @Test
+    public void withoutScoreDeltaNodesStoreTheFinalValues() {
+        params.nodesStoreScoreDelta = false;
+        heuristic = new CountingHeuristic() {
+            @Override
+            public double evaluateState(AbstractGameState gs, int playerId) {
+                return 0.25 * (playerId + 1);
+            }
+        };
+        SingleTreeNode root = search(GameType.LoveLetter).root;
+        for (int p = 0; p < 2; p++)
+            assertEquals(0.25 * (p + 1) * root.getVisits(), root.getTotValue()[p], 1e-6);
+    }
+
+    @Test
+    public void queuedLeavesAreEvaluatedInBatches() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.leafBatchSize = 8;
+        params.budget = 203;
+        SingleTreeNode root = search(GameType.LoveLetter).root;
+        assertEquals(203, root.getVisits());
+        assertEquals(26, heuristic.batchSizes.size());
+        for (int i = 0; i < 25; i++)
+            assertEquals(8, (int) heuristic.batchSizes.get(i));
+        assertEquals(3, (int) heuristic.batchSizes.get(25));
+        assertEquals(204, heuristic.allPlayerCalls);
+    }
+
+    @Test
+    public void noVirtualLossIsLeftAfterBatchedSearch() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.nodesStoreScoreDelta = false;
+        params.leafBatchSize = 8;
+        params.budget = 203;
+        heuristic = new CountingHeuristic() {
+            @Override
+            public double evaluateState(AbstractGameState gs, int playerId) {
+                return 0.25 * (playerId + 1);
+            }
+        };
+        SingleTreeNode root = search(GameType.LoveLetter).root;
+        assertEquals(203, root.getVisits());
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            for (int p = 0; p < 2; p++)
+                assertEquals(0.25 * (p + 1) * node.getVisits(), node.getTotValue()[p], 1e-6);
+            for (Map.Entry<AbstractAction, SingleTreeNode[]> entry : node.getChildren().entrySet()) {
+                if (entry.getValue() == null)
+                    continue;
+                int childVisits = 0;
+                for (SingleTreeNode child : entry.getValue())
+                    if (child != null)
+                        childVisits += child.getVisits();
+                assertEquals(node.actionVisits(entry.getKey()), childVisits);
+            }
+        }
+    }
+
+    @Test
+    public void leaderHeuristicForAllPlayersMatchesEachPlayer() {
+        LeaderHeuristic leader = new LeaderHeuristic();
+        for (int nPlayers = 2; nPlayers <= 4; nPlayers++) {
+            Game game = GameType.Dominion.createGameInstance(nPlayers, 395);
+            AbstractGameState state = game.getGameState();
+            RandomPlayer player = new RandomPlayer(new Random(42));
+            for (int i = 0; i < 200 && state.isNotTerminal(); i++) {
+                double[] all = leader.evaluateAllPlayers(state);
+                for (int p = 0; p < nPlayers; p++)
+                    assertEquals(leader.evaluateState(state, p), all[p], 1e-9);
+                game.getForwardModel().next(state, player.getAction(state, game.getForwardModel().computeAvailableActions(state)));
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package players.mcts;
+
+import core.actions.AbstractAction;
+import core.actions.ModifyCounter;
+import org.junit.Test;
+import utilities.Pair;
+import utilities.Utils;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class MASTTableTest {
+
+    @Test
+    public void statisticsAreKeptForEachPlayerAndAction() {
+        MASTTable table = new MASTTable(null);
+        AbstractAction a = new ModifyCounter(1, 1);
+        table.update(0, a, 1.0);
+        table.update(0, new ModifyCounter(1, 1), 0.5);
+        table.update(1, a, -1.0);
+        assertEquals(2, table.getVisits(0, a));
+        assertEquals(1.5, table.getTotalValue(0, a), 1e-9);
+        assertEquals(0.75, table.getMeanValue(0, a, 99.0), 1e-9);
+        assertEquals(-1.0, table.getMeanValue(1, a, 99.0), 1e-9);
+        assertEquals(99.0, table.getMeanValue(2, a, 99.0), 0.0);
+        assertEquals(99.0, table.getMeanValue(0, new ModifyCounter(1, 2), 99.0), 0.0);
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void matchesMapsWithManyActions() {
+        MASTTable table = new MASTTable(null);
+        List<Map<Object, Pair<Integer, Double>>> maps = Arrays.asList(new HashMap<>(), new HashMap<>());
+        Random rnd = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            AbstractAction action = new ModifyCounter(rnd.nextInt(50), rnd.nextInt(40));
+            int player = rnd.nextInt(2);
+            double value = rnd.nextDouble();
+            table.update(player, action, value);
+            Pair<Integer, Double> stats = maps.get(player).computeIfAbsent(action, k -> new Pair<>(0, 0.0));
+            stats.a++;
+            stats.b += value;
+            if (i % 5000 == 4999) {
+                table.decay(0.5);
+                for (int p = 0; p < 2; p++)
+                    maps.set(p, Utils.decay(maps.get(p), 0.5));
+            }
+        }
+        for (int p = 0; p < 2; p++) {
+            for (Map.Entry<Object, Pair<Integer, Double>> entry : maps.get(p).entrySet()) {
+                AbstractAction action = (AbstractAction) entry.getKey();
+                assertEquals((int) entry.getValue().a, table.getVisits(p, action));
+                assertEquals(entry.getValue().b, table.getTotalValue(p, action), 1e-6);
+            }
+        }
+        long nonZero = maps.stream().mapToLong(m -> m.values().stream().filter(s -> s.a > 0).count()).sum();
+        assertEquals(nonZero, table.size());
+    }
+
+    @Test
+    public void decayDropsEntriesWithNoVisits() {
+        MASTTable table = new MASTTable(null);
+        AbstractAction once = new ModifyCounter(1, 1), often = new ModifyCounter(2, 1);
+        table.update(0, once, 1.0);
+        for (int i = 0; i < 4; i++)
+            table.update(0, often, 1.0);
+        table.decay(1.0);
+        assertEquals(2, table.size());
+        table.decay(0.5);
+        assertEquals(1, table.size());
+        assertEquals(0, table.getVisits(0, once));
+        assertEquals(2, table.getVisits(0, often));
+        assertEquals(2.0, table.getTotalValue(0, often), 1e-9);
+    }
+
+    @Test
+    public void actionKeyGroupsActions() {
+        MASTTable table = new MASTTable(a -> String.valueOf(((ModifyCounter) a).counterID));
+        table.update(0, new ModifyCounter(3, 1), 1.0);
+        table.update(0, new ModifyCounter(3, 2), 0.0);
+        assertEquals(2, table.getVisits(0, new ModifyCounter(3, 5)));
+        assertEquals(0.5, table.getMeanValue(0, new ModifyCounter(3, 5), 0.0), 1e-9);
+    }
+
+    @Test
+    public void copiesAndMergesAreIndependent() {
+        MASTTable table = new MASTTable(null);
+        AbstractAction a = new ModifyCounter(1, 1), b = new ModifyCounter(2, 1);
+        table.update(0, a, 1.0);
+        MASTTable copy = table.copy();
+        copy.update(0, a, 1.0);
+        copy.update(1, b, 3.0);
+        assertEquals(1, table.getVisits(0, a));
+        assertEquals(0, table.getVisits(1, b));
+        table.add(copy);
+        assertEquals(3, table.getVisits(0, a));
+        assertEquals(3.0, table.getTotalValue(1, b), 1e-9);
+        assertEquals(2, copy.getVisits(0, a));
+    }
+}
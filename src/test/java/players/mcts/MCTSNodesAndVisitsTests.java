@@ -71,6 +71,17 @@ public class MCTSNodesAndVisitsTests {
         int[] errorMargin = {10, 10, 10, 10};
         runGame(game, 4, expectedNodes, errorMargin);    }
 
+    @Test
+    public void pooledNodes() {
+        params.poolNodes = true;
+        Game game = createGame(params);
+        int[] expectedNodes = {200, 200, 200, 200};
+        int[] errorMargin = {10, 10, 10, 10};
+        runGame(game, 4, expectedNodes, errorMargin);
+        // all but the first tree should be largely built from the nodes of the previous ones
+        assertTrue(mctsPlayer.getPooledNodes() > 100);
+    }
+
     @Test
     public void RegretMatching() {
         params.treePolicy = MCTSEnums.TreePolicy.RegretMatching;
@@ -118,6 +129,7 @@ public class MCTSNodesAndVisitsTests {
             if (state.getCurrentPlayer() == 0) {
                 TreeStatistics stats = new TreeStatistics(mctsPlayer.getRoot(0));
                 assertEquals(200, mctsPlayer.getRoot(0).getVisits());
+                assertActionStatisticsMatchChildren(mctsPlayer.getRoot(0));
                 if (params.maxTreeDepth == 3)
                     assertEquals(3, stats.depthReached);
                 else {
@@ -130,5 +142,24 @@ public class MCTSNodesAndVisitsTests {
         } while (counter < moves);
     }
 
+    private void assertActionStatisticsMatchChildren(SingleTreeNode root) {
+        // the per-action statistics held on each node must equal the sum over the child nodes for that action
+        for (SingleTreeNode node : root.allNodesInTree()) {
+            for (AbstractAction action : node.children.keySet()) {
+                SingleTreeNode[] childArray = node.children.get(action);
+                int visits = 0;
+                double value = 0.0;
+                if (childArray != null)
+                    for (SingleTreeNode child : childArray)
+                        if (child != null) {
+                            visits += child.nVisits;
+                            value += child.getTotValue()[node.decisionPlayer];
+                        }
+                assertEquals(visits, node.actionVisits(action));
+                assertEquals(value, node.actionTotValue(action, node.decisionPlayer), 1e-6);
+            }
+        }
+    }
+
 
 }
@@ -0,0 +1,183 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.dominion.DominionFGParameters;
+import games.dominion.DominionForwardModel;
+import games.dominion.DominionGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.heuristics.RandomHeuristic;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ParallelMCTSTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.treePolicy = MCTSEnums.TreePolicy.UCB;
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Information_Set;
+        params.maxTreeDepth = 20;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.selectionPolicy = MCTSEnums.SelectionPolicy.SIMPLE;
+        params.K = 1.0;
+        params.parallelTrees = 4;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        players.add(new RandomPlayer(new Random(244)));
+        return new Game(GameType.Dominion, players, new DominionForwardModel(), new DominionGameState(new DominionFGParameters(330245), players.size()));
+    }
+
+    @Test
+    public void iterationBudgetIsSharedBetweenTrees() {
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        for (int move = 0; move < 4; move++) {
+            List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())._getAction(state, available);
+            if (state.getCurrentPlayer() == 0) {
+                assertEquals(4, mctsPlayer.parallelRoots.length);
+                assertSame(mctsPlayer.root, mctsPlayer.parallelRoots[0]);
+                for (SingleTreeNode tree : mctsPlayer.parallelRoots)
+                    assertEquals(50, tree.getVisits());
+                // the trees are independent
+                assertEquals(4, Arrays.stream(mctsPlayer.parallelRoots).distinct().count());
+                assertTrue(available.contains(actionChosen));
+                int statsVisits = mctsPlayer.getDecisionStats().values().stream().mapToInt(m -> (int) m.get("visits")).sum();
+                assertEquals(200, statsVisits, 4 * 2);  // allowing for some root visits that do not reach an action
+            }
+            forwardModel.next(state, actionChosen);
+        }
+    }
+
+    @Test
+    public void determinisedTreesVoteOnTheAction() {
+        params.determinisedTrees = true;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        for (int move = 0; move < 4; move++) {
+            List<AbstractAction> available = forwardModel.computeAvailableActions(state);
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())._getAction(state, available);
+            if (state.getCurrentPlayer() == 0) {
+                assertEquals(4, mctsPlayer.parallelRoots.length);
+                for (SingleTreeNode tree : mctsPlayer.parallelRoots) {
+                    assertTrue(tree.fixedDeterminisation);
+                    assertEquals(50, tree.getVisits());
+                }
+                // the hidden cards are different in each determinisation
+                assertTrue(Arrays.stream(mctsPlayer.parallelRoots).map(t -> t.state.hashCode()).distinct().count() > 1);
+                Map<AbstractAction, Map<String, Object>> stats = mctsPlayer.getDecisionStats();
+                // every action expanded in any of the determinisations is reported
+                for (SingleTreeNode tree : mctsPlayer.parallelRoots)
+                    assertTrue(stats.keySet().containsAll(tree.children.keySet()));
+                assertEquals(4, stats.values().stream().mapToInt(m -> (int) m.get("votes")).sum());
+                int maxVotes = stats.values().stream().mapToInt(m -> (int) m.get("votes")).max().getAsInt();
+                assertEquals(maxVotes, (int) stats.get(actionChosen).get("votes"));
+                for (Map<String, Object> actionStats : stats.values())
+                    assertEquals((int) actionStats.get("visits"), Arrays.stream((int[]) actionStats.get("treeVisits")).sum());
+            }
+            forwardModel.next(state, actionChosen);
+        }
+    }
+
+    @Test
+    public void eachTreeHasItsOwnAdvantageFunction() {
+        params.advantageFunction = new RandomHeuristic(52);
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        assertEquals(4, Arrays.stream(mctsPlayer.parallelRoots).map(t -> t.advantageFunction).distinct().count());
+        for (SingleTreeNode tree : mctsPlayer.parallelRoots)
+            assertNotSame(params.advantageFunction, tree.advantageFunction);
+    }
+
+    @Test
+    public void singleTreeHasNoParallelRoots() {
+        params.parallelTrees = 1;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        assertNull(mctsPlayer.parallelRoots);
+        assertEquals(200, mctsPlayer.root.getVisits());
+    }
+
+    @Test
+    public void sharedTreeUsesTheIterationBudget() {
+        params.parallelTrees = 1;
+        params.sharedTreeThreads = 4;
+        params.nodesStoreScoreDelta = false;
+        Game game = createGame(params);
+        mctsPlayer.setStateHeuristic((gs, playerId) -> 0.25 * (playerId + 1));
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> available = game.getForwardModel().computeAvailableActions(state);
+        assertTrue(available.contains(mctsPlayer._getAction(state, available)));
+        assertNull(mctsPlayer.parallelRoots);
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(200, root.getVisits());
+        assertTrue(mctsPlayer.getIterationsPerSecond() > 0.0);
+        // every virtual loss has been removed again
+        for (SingleTreeNode node : root.allNodesInTree())
+            for (int p = 0; p < 3; p++)
+                assertEquals(0.25 * (p + 1) * node.getVisits(), node.getTotValue()[p], 1e-6);
+    }
+
+    @Test
+    public void sharedTreeWithATimeBudget() {
+        params.parallelTrees = 1;
+        params.sharedTreeThreads = 2;
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 50;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        List<AbstractAction> available = game.getForwardModel().computeAvailableActions(state);
+        assertTrue(available.contains(mctsPlayer._getAction(state, available)));
+        assertTrue(mctsPlayer.root.getVisits() > 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void sharedTreeCannotBeCombinedWithParallelTrees() {
+        params.sharedTreeThreads = 4;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+    }
+
+    @Test
+    public void searchThreadsEndWithTheDecision() throws InterruptedException {
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        // the pool is shut down at the end of the search, so its threads finish without finalizePlayer()
+        long deadline = System.currentTimeMillis() + 5000;
+        while (searchThreads() > 0 && System.currentTimeMillis() < deadline)
+            Thread.sleep(10);
+        assertEquals(0, searchThreads());
+    }
+
+    private long searchThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.isAlive() && t.getName().equals("MCTS-" + mctsPlayer)).count();
+    }
+}
@@ -0,0 +1,109 @@
+package players.mcts;
+
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IActionHeuristic;
+import games.GameType;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ProgressiveWideningTests {
+
+    static class CountingAdvantage implements IActionHeuristic {
+        int calls;
+
+        @Override
+        public double evaluateAction(AbstractAction action, AbstractGameState state) {
+            return action.hashCode() & 0xff;
+        }
+
+        @Override
+        public double[] evaluateAllActions(List<AbstractAction> actions, AbstractGameState state) {
+            calls++;
+            return IActionHeuristic.super.evaluateAllActions(actions, state);
+        }
+    }
+
+    MCTSParams params;
+    CountingAdvantage advantage;
+    TestMCTSPlayer mctsPlayer;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.rolloutLength = 10;
+        params.progressiveWideningConstant = 2.0;
+        params.progressiveWideningExponent = 0.5;
+        advantage = new CountingAdvantage();
+        params.advantageFunction = advantage;
+    }
+
+    private SingleTreeNode search() {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023)), new RandomPlayer(new Random(244)));
+        Game game = GameType.Catan.createGameInstance(players.size(), 395);
+        game.reset(players);
+        AbstractGameState state = game.getGameState();
+        mctsPlayer._getAction(state, game.getForwardModel().computeAvailableActions(state));
+        return mctsPlayer.getRoot(0);
+    }
+
+    @Test
+    public void descendingOrderIsStable() {
+        assertArrayEquals(new int[]{1, 2, 4, 0, 3}, SingleTreeNode.descendingOrder(new double[]{1.0, 3.0, 3.0, 0.0, 2.0}));
+        assertArrayEquals(new int[]{0, 1, 2}, SingleTreeNode.descendingOrder(new double[]{0.0, 0.0, 0.0}));
+        assertArrayEquals(new int[0], SingleTreeNode.descendingOrder(new double[0]));
+    }
+
+    @Test
+    public void childrenAreExpandedInPriorOrder() {
+        SingleTreeNode root = search();
+        List<AbstractAction> actions = root.actionsFromOpenLoopState;
+        for (int i = 1; i < actions.size(); i++)
+            assertTrue(advantage.evaluateAction(actions.get(i), root.state) <= advantage.evaluateAction(actions.get(i - 1), root.state));
+        int expanded = 0;
+        while (expanded < actions.size() && root.children.get(actions.get(expanded)) != null)
+            expanded++;
+        for (int i = expanded; i < actions.size(); i++)
+            assertNull(root.children.get(actions.get(i)));
+        int width = (int) Math.floor(params.progressiveWideningConstant * Math.pow(root.nVisits + 1, params.progressiveWideningExponent));
+        assertTrue(expanded > 1);
+        assertTrue(expanded <= width);
+        assertTrue(expanded < actions.size());
+    }
+
+    @Test
+    public void sortedActionsAreReusedInOpenLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        SingleTreeNode root = search();
+        root.setActionsFromOpenLoopState(root.state);
+        List<AbstractAction> sorted = root.actionsFromOpenLoopState;
+        assertNotEquals(mctsPlayer.getForwardModel().computeAvailableActions(root.state), sorted);
+        for (int i = 1; i < sorted.size(); i++)
+            assertTrue(advantage.evaluateAction(sorted.get(i), root.state) <= advantage.evaluateAction(sorted.get(i - 1), root.state));
+
+        // the same actions with the same priors on the next visit, so they are not sorted again
+        root.setActionsFromOpenLoopState(root.state.copy());
+        assertSame(sorted, root.actionsFromOpenLoopState);
+    }
+
+    @Test
+    public void priorsAreComputedOncePerNodeInClosedLoop() {
+        SingleTreeNode root = search();
+        long nodesWithActions = root.allNodesInTree().stream().filter(n -> !n.actionsFromOpenLoopState.isEmpty()).count();
+        assertEquals(nodesWithActions, advantage.calls);
+    }
+}
@@ -1,5 +1,6 @@
 package players.mcts;
 
+import core.AbstractGameState;
 import core.actions.AbstractAction;
 import players.mcts.SingleTreeNode;
 import utilities.Pair;
@@ -56,12 +57,12 @@ public class STNRollout extends SingleTreeNode {
     }
 
     @Override
-    protected double[] rollout(double[] startingValues, int lastActor) {
-        lastActorInTree = lastActor;  // a bit of a hack to track the last Actor in tree search
-        double[] retValue = super.rollout(startingValues, lastActor);
-        staticRolloutDepth = rolloutDepth;
-        staticStartRound = roundAtStartOfRollout;
-        staticStartTurn = turnAtStartOfRollout;
+    protected AbstractGameState playRollout(AbstractGameState startState, Rollout rollout) {
+        lastActorInTree = rollout.lastActor;  // a bit of a hack to track the last Actor in tree search
+        AbstractGameState retValue = super.playRollout(startState, rollout);
+        staticRolloutDepth = rollout.depth;
+        staticStartRound = rollout.roundAtStart;
+        staticStartTurn = rollout.turnAtStart;
         return retValue;
 
     }
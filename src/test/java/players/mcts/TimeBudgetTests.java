@@ -0,0 +1,83 @@
+package players.mcts;
+
+import core.AbstractPlayer;
+import core.Game;
+import games.GameType;
+import games.connect4.Connect4ForwardModel;
+import games.connect4.Connect4GameParameters;
+import games.connect4.Connect4GameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.BudgetTimer;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TimeBudgetTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_TIME;
+        params.budget = 50;
+    }
+
+    private Game createGame() {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        return new Game(GameType.Connect4, players, new Connect4ForwardModel(), new Connect4GameState(new Connect4GameParameters(330245), players.size()));
+    }
+
+    private void firstDecision() {
+        Game game = createGame();
+        mctsPlayer._getAction(game.getGameState().copy(), game.getForwardModel().computeAvailableActions(game.getGameState()));
+    }
+
+    private void checkTimeBudget() {
+        // when the search stops is tested with a controlled clock in BudgetTimerTest; here we only check what does
+        // not depend on the speed of the machine
+        firstDecision();
+        SingleTreeNode root = mctsPlayer.root;
+        assertTrue(root.getVisits() > 0);
+        assertTrue(root.timeTaken > 0.0);
+        assertEquals(root.getVisits(), root.budgetTimer.getIterations());
+        assertEquals(root.getVisits() * 1000.0 / root.timeTaken, mctsPlayer.getIterationsPerSecond(), 1e-6);
+    }
+
+    @Test
+    public void cpuTimeBudget() {
+        params.budgetClock = BudgetTimer.Clock.CPU;
+        checkTimeBudget();
+    }
+
+    @Test
+    public void wallTimeBudget() {
+        params.budgetClock = BudgetTimer.Clock.WALL;
+        checkTimeBudget();
+    }
+
+    @Test
+    public void clockReadEveryIteration() {
+        params.clockCheckInterval = 1;
+        checkTimeBudget();
+    }
+
+    @Test
+    public void iterationBudgetIsTimed() {
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        firstDecision();
+        assertEquals(200, mctsPlayer.root.getVisits());
+        assertTrue(mctsPlayer.root.timeTaken > 0.0);
+        assertTrue(mctsPlayer.getIterationsPerSecond() > 0.0);
+    }
+}
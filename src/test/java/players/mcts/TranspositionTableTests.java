@@ -0,0 +1,157 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import games.GameType;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 500;
+        params.transpositionTable = true;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        return new Game(GameType.TicTacToe, players, new TicTacToeForwardModel(), new TicTacToeGameState(new TicTacToeGameParameters(330245), players.size()));
+    }
+
+    private AbstractAction firstDecision(Game game) {
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        return mctsPlayer._getAction(state.copy(), forwardModel.computeAvailableActions(state));
+    }
+
+    @Test
+    public void transpositionsShareNodes() {
+        firstDecision(createGame(params));
+        SingleTreeNode root = mctsPlayer.root;
+        assertNotNull(root.transpositions);
+        assertTrue(root.transpositions.getHits() > 0);
+        assertEquals(500, root.getVisits());
+
+        // every node is held once in the table, and the same state is never in two nodes at the same depth
+        List<SingleTreeNode> nodes = root.allNodesInTree();
+        assertEquals(nodes.size() - 1, root.transpositions.size());
+        Set<Long> keys = new HashSet<>();
+        for (SingleTreeNode node : nodes)
+            assertTrue(keys.add(TranspositionTable.key(node.getState(), node.getDepth())));
+
+        // the visits to a node are the sum of the visits on all the edges into it (from any parent)
+        Map<SingleTreeNode, Integer> edgeVisits = new IdentityHashMap<>();
+        for (SingleTreeNode node : nodes)
+            for (AbstractAction action : node.children.keySet())
+                if (node.children.get(action) != null)
+                    edgeVisits.merge(node.closedLoopChild(action), node.actionVisits(action), Integer::sum);
+        for (SingleTreeNode node : nodes)
+            if (node != root)
+                assertEquals(node.getVisits(), (int) edgeVisits.get(node));
+    }
+
+    @Test
+    public void batchedLeavesShareNodes() {
+        params.leafBatchSize = 8;
+        transpositionsShareNodes();
+    }
+
+    @Test
+    public void sharedTreeThreadsShareNodes() {
+        params.sharedTreeThreads = 4;
+        transpositionsShareNodes();
+    }
+
+    @Test
+    public void tableSizeIsBounded() {
+        params.transpositionTableSize = 50;
+        firstDecision(createGame(params));
+        SingleTreeNode root = mctsPlayer.root;
+        assertEquals(50, root.transpositions.size());
+        assertTrue(root.allNodesInTree().size() > 50);
+        assertEquals(500, root.getVisits());
+    }
+
+    @Test
+    public void tableStopsAddingNodesWhenFull() {
+        TranspositionTable table = new TranspositionTable(100);
+        SingleTreeNode[] nodes = new SingleTreeNode[200];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new SingleTreeNode();
+            // keys that share their low bits, and key 0, are all held apart
+            table.put((long) i << 40, nodes[i]);
+        }
+        assertEquals(100, table.size());
+        for (int i = 0; i < nodes.length; i++)
+            assertSame(i < 100 ? nodes[i] : null, table.get((long) i << 40));
+        assertEquals(100, table.getHits());
+
+        // an existing key can still be replaced
+        table.put(0, nodes[150]);
+        assertSame(nodes[150], table.get(0));
+        assertEquals(100, table.size());
+    }
+
+    private int distinctStates(SingleTreeNode root) {
+        Set<Long> keys = new HashSet<>();
+        for (SingleTreeNode node : root.allNodesInTree())
+            keys.add(TranspositionTable.key(node.getState(), node.getDepth()));
+        return keys.size();
+    }
+
+    @Test
+    public void moreDistinctStatesThanTree() {
+        firstDecision(createGame(params));
+        int statesWithTranspositions = distinctStates(mctsPlayer.root);
+        params.transpositionTable = false;
+        firstDecision(createGame(params));
+        assertNull(mctsPlayer.root.transpositions);
+        // without transpositions some of the nodes are duplicates
+        int statesInTree = distinctStates(mctsPlayer.root);
+        assertTrue(statesInTree < mctsPlayer.root.allNodesInTree().size());
+        assertTrue(statesWithTranspositions > statesInTree);
+    }
+
+    @Test
+    public void onlyUsedWithClosedLoop() {
+        params.information = MCTSEnums.Information.Open_Loop;
+        firstDecision(createGame(params));
+        assertNull(mctsPlayer.root.transpositions);
+    }
+
+    @Test
+    public void onlyUsedWithStateHash() {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = Arrays.asList(mctsPlayer, new RandomPlayer(new Random(3023)));
+        Game game = GameType.LoveLetter.createGameInstance(players.size(), 395);
+        game.reset(players);
+        assertFalse(game.getGameState().hasStateHash());
+        firstDecision(game);
+        assertNull(mctsPlayer.root.transpositions);
+    }
+}
@@ -0,0 +1,137 @@
+package players.mcts;
+
+import core.AbstractForwardModel;
+import core.AbstractGameState;
+import core.AbstractPlayer;
+import core.Game;
+import core.actions.AbstractAction;
+import core.interfaces.IStateHeuristic;
+import games.GameType;
+import games.tictactoe.TicTacToeForwardModel;
+import games.tictactoe.TicTacToeGameParameters;
+import games.tictactoe.TicTacToeGameState;
+import org.junit.Before;
+import org.junit.Test;
+import players.PlayerConstants;
+import players.simple.RandomPlayer;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TreeReuseTests {
+
+    TestMCTSPlayer mctsPlayer;
+    MCTSParams params;
+
+    @Before
+    public void setup() {
+        params = new MCTSParams(9332);
+        params.opponentTreePolicy = MCTSEnums.OpponentTreePolicy.OneTree;
+        params.information = MCTSEnums.Information.Open_Loop;
+        params.rolloutLength = 10;
+        params.budgetType = PlayerConstants.BUDGET_ITERATIONS;
+        params.budget = 200;
+        params.reuseTree = true;
+    }
+
+    public Game createGame(MCTSParams params) {
+        mctsPlayer = new TestMCTSPlayer(params, null);
+        List<AbstractPlayer> players = new ArrayList<>();
+        players.add(mctsPlayer);
+        players.add(new RandomPlayer(new Random(3023)));
+        return new Game(GameType.TicTacToe, players, new TicTacToeForwardModel(), new TicTacToeGameState(new TicTacToeGameParameters(330245), players.size()));
+    }
+
+    private void runGame(Game game) {
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        int decisions = 0;
+        do {
+            int player = state.getCurrentPlayer();
+            AbstractAction actionChosen = game.getPlayers().get(player)
+                    ._getAction(state.copy(), forwardModel.computeAvailableActions(state));
+            if (player == 0) {
+                if (decisions == 0) {
+                    assertEquals(0, mctsPlayer.getReusedVisits());
+                } else {
+                    // the sub-tree was found, and the new iterations were added to it
+                    assertTrue(mctsPlayer.getReusedVisits() > 0);
+                    assertEquals(mctsPlayer.getReusedVisits() + 200, mctsPlayer.root.getVisits());
+                    assertNull(mctsPlayer.root.getParent());
+                    assertEquals(0, mctsPlayer.root.getDepth());
+                    assertTrue(mctsPlayer.root.allNodesInTree().stream().allMatch(n -> n.root == mctsPlayer.root));
+                }
+                decisions++;
+            }
+            forwardModel.next(state, actionChosen);
+        } while (state.isNotTerminal());
+        assertTrue(decisions > 1);
+    }
+
+    @Test
+    public void openLoopTreeIsReused() {
+        runGame(createGame(params));
+    }
+
+    @Test
+    public void closedLoopTreeIsReused() {
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        runGame(createGame(params));
+    }
+
+    @Test
+    public void noReuseWithoutParameter() {
+        params.reuseTree = false;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        for (int i = 0; i < 3; i++) {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state.copy(), forwardModel.computeAvailableActions(state));
+            assertEquals(0, mctsPlayer.getReusedVisits());
+            forwardModel.next(state, actionChosen);
+        }
+    }
+
+    @Test
+    public void reusedValuesAreRelativeToTheNewRoot() {
+        // the starting value of each decision is different
+        params.heuristic = (IStateHeuristic) (state, playerId) -> state.getGameTick() * (playerId + 1);
+        params.information = MCTSEnums.Information.Closed_Loop;
+        params.discardStateAfterEachIteration = false;
+        Game game = createGame(params);
+        AbstractGameState state = game.getGameState();
+        AbstractForwardModel forwardModel = game.getForwardModel();
+        for (int i = 0; i < 2; i++) {
+            AbstractAction actionChosen = game.getPlayers().get(state.getCurrentPlayer())
+                    ._getAction(state.copy(), forwardModel.computeAvailableActions(state));
+            forwardModel.next(state, actionChosen);
+        }
+        List<AbstractAction> history = state.getHistory();
+        SingleTreeNode oldRoot = mctsPlayer.root;
+        SingleTreeNode newRoot = oldRoot.findDescendant(history.subList(history.size() - 2, history.size()), 0);
+        assertNotNull(newRoot);
+        double[] oldStart = params.heuristic.evaluateAllPlayers(oldRoot.state);
+        double[] newStart = params.heuristic.evaluateAllPlayers(state);
+        assertNotEquals(oldStart[0], newStart[0], 1e-6);
+
+        int visits = newRoot.getVisits();
+        double[] values = new double[2];
+        for (int p = 0; p < 2; p++)
+            values[p] = newRoot.getTotValue()[p];
+        Map<AbstractAction, double[]> actionValues = new HashMap<>();
+        for (AbstractAction action : newRoot.children.keySet())
+            actionValues.put(action, new double[]{newRoot.actionVisits(action), newRoot.actionTotValue(action, 0)});
+
+        newRoot.makeRoot(mctsPlayer, state.copy(), new Random(1));
+        // every visit is now scored relative to the new root, as the new iterations will be
+        for (int p = 0; p < 2; p++)
+            assertEquals(values[p] + visits * (oldStart[p] - newStart[p]), newRoot.getTotValue()[p], 1e-6);
+        for (AbstractAction action : actionValues.keySet()) {
+            double[] before = actionValues.get(action);
+            assertEquals(before[1] + before[0] * (oldStart[0] - newStart[0]), newRoot.actionTotValue(action, 0), 1e-6);
+        }
+    }
+}